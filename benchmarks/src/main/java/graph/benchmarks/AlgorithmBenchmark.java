@@ -0,0 +1,110 @@
+package graph.benchmarks;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.GraphAlgorithms;
+import graph.Node;
+import graph.TraversalContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of full traversals and single-source shortest paths, both on a live
+ * {@link graph.DirectedGraph} and on its {@link CsrGraph} snapshot with a reused
+ * {@link TraversalContext}.
+ * <p>
+ * Sample mode reports percentiles besides the mean. Run with {@code -prof gc} (the default of
+ * {@link BenchmarkRunner}) to see the allocation rate per operation.
+ * <p>
+ * The 10^7-node graphs need a large heap, about 32 GB for the dense shape; pass it with
+ * {@code -jvmArgsAppend -Xmx32g}, or select smaller sizes with {@code -p nodes=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlgorithmBenchmark {
+
+    @Param({"SPARSE", "DENSE", "POWER_LAW", "GRID"})
+    public GraphShape shape;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int nodes;
+
+    @Param("42")
+    public long seed;
+
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    private Graph<Integer> graph;
+    private Node<Integer> source;
+    private CsrGraph<Integer> snapshot;
+    private int sourceIndex;
+
+    /**
+     * Per-thread scratch state for the snapshot algorithms, sized before measuring starts.
+     */
+    @State(Scope.Thread)
+    public static class Context {
+        TraversalContext context;
+
+        @Setup(Level.Trial)
+        public void setUp(AlgorithmBenchmark benchmark) {
+            context = new TraversalContext(benchmark.nodes);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = shape.build(nodes, seed);
+        source = graph.getNode(0);
+        snapshot = graph.freeze();
+        sourceIndex = snapshot.indexOf(source);
+    }
+
+    @Benchmark
+    public List<Node<Integer>> bfs() {
+        return algorithms.bfs(source);
+    }
+
+    @Benchmark
+    public List<Node<Integer>> dfs() {
+        return algorithms.dfs(source);
+    }
+
+    @Benchmark
+    public Map<Node<Integer>, Double> dijkstra() {
+        return algorithms.dijkstra(graph, source);
+    }
+
+    @Benchmark
+    public int bfsSnapshot(Context context) {
+        return algorithms.bfs(snapshot, sourceIndex, context.context);
+    }
+
+    @Benchmark
+    public int dfsSnapshot(Context context) {
+        return algorithms.dfs(snapshot, sourceIndex, context.context);
+    }
+
+    @Benchmark
+    public int dijkstraSnapshot(Context context) {
+        return algorithms.dijkstra(snapshot, sourceIndex, context.context);
+    }
+}
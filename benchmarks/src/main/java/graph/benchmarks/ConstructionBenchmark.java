@@ -0,0 +1,111 @@
+package graph.benchmarks;
+
+import graph.DirectedGraph;
+import graph.Graph;
+import graph.Node;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast graphs are built through {@link Graph#addNode(Object)} and
+ * {@link Graph#connect(Node, Node, double)}.
+ * <p>
+ * Besides graphs built per second, the {@code nodes} and {@code edges} counters report the
+ * throughput in nodes and edges added per second. Edge lists are generated once per trial, so only
+ * construction is measured.
+ * <p>
+ * The 10^7-node graphs need a large heap, about 32 GB for the dense shape; pass it with
+ * {@code -jvmArgsAppend -Xmx32g}, or select smaller sizes with {@code -p nodes=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    @Param({"SPARSE", "DENSE", "POWER_LAW", "GRID"})
+    public GraphShape shape;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int nodes;
+
+    @Param("42")
+    public long seed;
+
+    private GraphShape.EdgeList edges;
+
+    /**
+     * Per-iteration totals, reported by JMH as rates.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+        public long edges;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+            edges = 0;
+        }
+    }
+
+    /**
+     * A graph whose nodes have been added but not connected, so {@link #connect} times the edges only.
+     */
+    @State(Scope.Thread)
+    public static class Unconnected {
+        Graph<Integer> graph;
+        List<Node<Integer>> nodes;
+
+        @Setup(Level.Invocation)
+        public void setUp(ConstructionBenchmark benchmark) {
+            graph = new DirectedGraph<>();
+            nodes = benchmark.edges.addNodes(graph);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        edges = shape.generate(nodes, seed);
+    }
+
+    @Benchmark
+    public Graph<Integer> addNodes(Counters counters) {
+        Graph<Integer> graph = new DirectedGraph<>();
+        edges.addNodes(graph);
+        counters.nodes += nodes;
+        return graph;
+    }
+
+    @Benchmark
+    public Graph<Integer> connect(Unconnected unconnected, Counters counters) {
+        edges.connect(unconnected.graph, unconnected.nodes);
+        counters.edges += edges.size;
+        return unconnected.graph;
+    }
+
+    @Benchmark
+    public Graph<Integer> build(Counters counters) {
+        Graph<Integer> graph = edges.build();
+        counters.nodes += nodes;
+        counters.edges += edges.size;
+        return graph;
+    }
+}
@@ -0,0 +1,203 @@
+package graph.benchmarks;
+
+import graph.DirectedGraph;
+import graph.Graph;
+import graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * The families of graphs the benchmarks run on. Every shape generates a directed edge list with
+ * distinct arcs, no self-loops and weights in {@code [1, 10)}, and the same node count and seed
+ * always give the same graph.
+ */
+public enum GraphShape {
+    /**
+     * Uniformly random arcs, 4 per node on average.
+     */
+    SPARSE {
+        @Override
+        EdgeList generate(int nodeCount, long seed) {
+            return randomArcs(nodeCount, seed, random -> 4, random -> random.nextInt(nodeCount));
+        }
+    },
+
+    /**
+     * Uniformly random arcs, 32 per node.
+     */
+    DENSE {
+        @Override
+        EdgeList generate(int nodeCount, long seed) {
+            return randomArcs(nodeCount, seed, random -> 32, random -> random.nextInt(nodeCount));
+        }
+    },
+
+    /**
+     * Heavy-tailed out-degrees (about 4 on average, at most 1000) and targets skewed towards low
+     * ids, so a few hub nodes have very high in-degree, as in social and web graphs.
+     */
+    POWER_LAW {
+        @Override
+        EdgeList generate(int nodeCount, long seed) {
+            return randomArcs(nodeCount, seed,
+                    // Pareto with shape 1.5 and minimum 4/3, which has a mean of 4
+                    random -> (int) Math.min(1000, Math.round(4.0 / 3.0 / Math.pow(1 - random.nextDouble(), 1 / 1.5))),
+                    random -> (int) (nodeCount * Math.pow(random.nextDouble(), 3)));
+        }
+    },
+
+    /**
+     * A square lattice with arcs in both directions between horizontal and vertical neighbours,
+     * like a road network: low degree and a diameter of about {@code 2 * sqrt(n)}.
+     */
+    GRID {
+        @Override
+        EdgeList generate(int nodeCount, long seed) {
+            int width = (int) Math.ceil(Math.sqrt(nodeCount));
+            SplittableRandom random = new SplittableRandom(seed);
+            EdgeList edges = new EdgeList(nodeCount, 4 * nodeCount);
+
+            for (int node = 0; node < nodeCount; node++) {
+                int column = node % width;
+                if (column > 0) {
+                    edges.add(node, node - 1, weight(random));
+                }
+                if (column < width - 1 && node + 1 < nodeCount) {
+                    edges.add(node, node + 1, weight(random));
+                }
+                if (node >= width) {
+                    edges.add(node, node - width, weight(random));
+                }
+                if (node + width < nodeCount) {
+                    edges.add(node, node + width, weight(random));
+                }
+            }
+            return edges;
+        }
+    };
+
+    /**
+     * Generates the arcs of a graph of this shape.
+     *
+     * @param nodeCount the number of nodes
+     * @param seed the seed of the random generator
+     * @return the arcs, grouped by source in ascending order
+     */
+    abstract EdgeList generate(int nodeCount, long seed);
+
+    /**
+     * Generates random arcs from every node, for the shapes that draw degrees and targets at random.
+     *
+     * @param degree draws the number of arcs from a node; capped at the number of other nodes
+     * @param target draws a candidate target; duplicates and self-loops are redrawn
+     */
+    private static EdgeList randomArcs(int nodeCount, long seed, ToIntFunction<SplittableRandom> degree,
+                                       ToIntFunction<SplittableRandom> target) {
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(nodeCount, 4 * nodeCount);
+
+        for (int node = 0; node < nodeCount; node++) {
+            int arcs = Math.min(degree.applyAsInt(random), nodeCount - 1);
+            int first = edges.size;
+
+            while (edges.size - first < arcs) {
+                int candidate = target.applyAsInt(random);
+                if (candidate != node && !edges.containsTarget(first, candidate)) {
+                    edges.add(node, candidate, weight(random));
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static double weight(SplittableRandom random) {
+        return 1 + 9 * random.nextDouble();
+    }
+
+    /**
+     * Generates a graph of this shape as a {@link DirectedGraph}.
+     *
+     * @param nodeCount the number of nodes
+     * @param seed the seed of the random generator
+     * @return the graph, with node i holding the data i
+     */
+    Graph<Integer> build(int nodeCount, long seed) {
+        return generate(nodeCount, seed).build();
+    }
+
+    /**
+     * A directed edge list in parallel arrays, grouped by source.
+     */
+    static final class EdgeList {
+        final int nodeCount;
+        int[] sources;
+        int[] targets;
+        double[] weights;
+        int size;
+
+        EdgeList(int nodeCount, int capacity) {
+            this.nodeCount = nodeCount;
+            this.sources = new int[capacity];
+            this.targets = new int[capacity];
+            this.weights = new double[capacity];
+        }
+
+        void add(int source, int target, double weight) {
+            if (size == sources.length) {
+                int capacity = size + (size >> 1) + 1;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+
+        /**
+         * @return true if an arc from position {@code from} on already points to the target;
+         *         the arcs of one source are few enough for a linear scan
+         */
+        boolean containsTarget(int from, int target) {
+            for (int i = from; i < size; i++) {
+                if (targets[i] == target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds the nodes of the edge list to a graph, with node i holding the data i.
+         *
+         * @return the new nodes, by id
+         */
+        List<Node<Integer>> addNodes(Graph<Integer> graph) {
+            List<Node<Integer>> nodes = new ArrayList<>(nodeCount);
+            for (int i = 0; i < nodeCount; i++) {
+                nodes.add(graph.addNode(i));
+            }
+            return nodes;
+        }
+
+        /**
+         * Connects the arcs between the given nodes.
+         */
+        void connect(Graph<Integer> graph, List<Node<Integer>> nodes) {
+            for (int i = 0; i < size; i++) {
+                graph.connect(nodes.get(sources[i]), nodes.get(targets[i]), weights[i]);
+            }
+        }
+
+        Graph<Integer> build() {
+            Graph<Integer> graph = new DirectedGraph<>();
+            connect(graph, addNodes(graph));
+            return graph;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Arcs grouped by starting node, built from an unordered edge list with a counting sort. The bulk
+ * builders use it to connect a whole graph, or to lay out a CSR snapshot, in one pass per node
+ * instead of one validated {@code connect} per edge.
+ * <p>
+ * The arcs of node {@code n} are at {@code [offsets[n], ends[n])}, in the order of the edge list.
+ * When both directions of every edge are stored, both endpoints therefore see repeated edges in the
+ * same order, and removing duplicates keeps the same edge, with the same weight, on both sides.
+ * Builders of undirected graphs can keep the id of the edge every arc came from, to give both
+ * arcs of an edge the same shared record.
+ */
+final class ArcList {
+    // Degree up to which duplicates are found by comparing every pair instead of sorting
+    private static final int DUPLICATE_SCAN_DEGREE = 32;
+
+    final int nodeCount;
+    // The number of edges in the edge list the arcs came from
+    final int edgeCount;
+    final int[] offsets;
+    final int[] ends;
+    final int[] targets;
+    final double[] weights;
+    // The position in the edge list of the edge each arc came from, or null if not kept
+    final int[] edgeIds;
+
+    private ArcList(int nodeCount, int edgeCount, int[] offsets, int[] targets, double[] weights, int[] edgeIds) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.offsets = offsets;
+        this.ends = Arrays.copyOfRange(offsets, 1, nodeCount + 1);
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeIds = edgeIds;
+    }
+
+    /**
+     * Groups the first edgeCount edges of an edge list by starting node.
+     *
+     * @param bothDirections true to store every edge as an arc in each direction, as undirected graphs do
+     * @throws IllegalArgumentException if the arcs do not fit in an int-indexed array
+     */
+    static ArcList group(int nodeCount, int[] sources, int[] targets, double[] weights, int edgeCount, boolean bothDirections) {
+        return group(nodeCount, sources, targets, weights, edgeCount, bothDirections, false);
+    }
+
+    /**
+     * Groups the first edgeCount edges of an edge list by starting node.
+     *
+     * @param bothDirections true to store every edge as an arc in each direction, as undirected graphs do
+     * @param keepEdgeIds true to record the edge every arc came from in {@link #edgeIds}
+     * @throws IllegalArgumentException if the arcs do not fit in an int-indexed array
+     */
+    static ArcList group(int nodeCount, int[] sources, int[] targets, double[] weights, int edgeCount, boolean bothDirections,
+                         boolean keepEdgeIds) {
+        long arcCount = bothDirections ? 2L * edgeCount : edgeCount;
+        if (arcCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges: " + edgeCount);
+        }
+
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+            if (bothDirections) {
+                offsets[targets[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] arcTargets = new int[offsets[nodeCount]];
+        double[] arcWeights = new double[offsets[nodeCount]];
+        int[] arcEdgeIds = keepEdgeIds ? new int[offsets[nodeCount]] : null;
+        for (int i = 0; i < edgeCount; i++) {
+            int slot = next[sources[i]]++;
+            arcTargets[slot] = targets[i];
+            arcWeights[slot] = weights[i];
+            if (keepEdgeIds) {
+                arcEdgeIds[slot] = i;
+            }
+            if (bothDirections) {
+                slot = next[targets[i]]++;
+                arcTargets[slot] = sources[i];
+                arcWeights[slot] = weights[i];
+                if (keepEdgeIds) {
+                    arcEdgeIds[slot] = i;
+                }
+            }
+        }
+
+        return new ArcList(nodeCount, edgeCount, offsets, arcTargets, arcWeights, arcEdgeIds);
+    }
+
+    /**
+     * Removes the arcs of a node that repeat an earlier arc's target, keeping the first arc to each
+     * target. Kept arcs are moved to the front in their original order and {@code ends[node]} is
+     * updated. Different nodes can be processed concurrently.
+     *
+     * @param onDuplicate creates the exception to throw for a repeated target; null to drop
+     *                    repeated arcs silently
+     */
+    void removeDuplicates(int node, DuplicateHandler onDuplicate) {
+        int from = offsets[node];
+        int degree = ends[node] - from;
+        boolean[] repeated = null;
+
+        if (degree <= DUPLICATE_SCAN_DEGREE) {
+            for (int i = 1; i < degree; i++) {
+                for (int j = 0; j < i; j++) {
+                    if (targets[from + i] == targets[from + j]) {
+                        if (repeated == null) {
+                            repeated = new boolean[degree];
+                        }
+                        repeated[i] = true;
+                        break;
+                    }
+                }
+            }
+        } else {
+            // Sorting target and position together puts repeats next to each other, first one first
+            long[] keyed = new long[degree];
+            for (int i = 0; i < degree; i++) {
+                keyed[i] = (long) targets[from + i] << 32 | i;
+            }
+            Arrays.sort(keyed);
+            for (int i = 1; i < degree; i++) {
+                if (keyed[i] >>> 32 == keyed[i - 1] >>> 32) {
+                    if (repeated == null) {
+                        repeated = new boolean[degree];
+                    }
+                    repeated[(int) keyed[i]] = true;
+                }
+            }
+        }
+
+        if (repeated == null) {
+            return;
+        }
+
+        int end = from;
+        for (int i = 0; i < degree; i++) {
+            if (repeated[i]) {
+                if (onDuplicate != null) {
+                    throw onDuplicate.duplicate(node, targets[from + i]);
+                }
+                continue;
+            }
+
+            targets[end] = targets[from + i];
+            weights[end] = weights[from + i];
+            if (edgeIds != null) {
+                edgeIds[end] = edgeIds[from + i];
+            }
+            end++;
+        }
+        ends[node] = end;
+    }
+
+    /**
+     * Compacts the arcs kept by {@link #removeDuplicates} into contiguous CSR arrays.
+     *
+     * @return the offsets, targets and weights of the compacted arcs
+     */
+    ArcList compact() {
+        int[] compactOffsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            compactOffsets[node + 1] = compactOffsets[node] + ends[node] - offsets[node];
+        }
+        if (compactOffsets[nodeCount] == offsets[nodeCount]) {
+            return this;
+        }
+
+        int[] compactTargets = new int[compactOffsets[nodeCount]];
+        double[] compactWeights = new double[compactOffsets[nodeCount]];
+        int[] compactEdgeIds = edgeIds == null ? null : new int[compactOffsets[nodeCount]];
+        for (int node = 0; node < nodeCount; node++) {
+            int degree = ends[node] - offsets[node];
+            System.arraycopy(targets, offsets[node], compactTargets, compactOffsets[node], degree);
+            System.arraycopy(weights, offsets[node], compactWeights, compactOffsets[node], degree);
+            if (edgeIds != null) {
+                System.arraycopy(edgeIds, offsets[node], compactEdgeIds, compactOffsets[node], degree);
+            }
+        }
+        return new ArcList(nodeCount, edgeCount, compactOffsets, compactTargets, compactWeights, compactEdgeIds);
+    }
+
+    /**
+     * Creates the shared record of every undirected edge kept at a node whose other endpoint has a
+     * larger index, so each edge gets exactly one record, oriented from its smaller endpoint. Call for
+     * every node after {@link #removeDuplicates}, which keeps the same edge at both endpoints, and
+     * before any node is connected. Different nodes can be processed concurrently.
+     *
+     * @param nodes the nodes, by index
+     * @param records the records, by edge id; as long as the edge list
+     */
+    <T> void createRecords(int node, Node<T>[] nodes, Edge<T>[] records) {
+        for (int slot = offsets[node]; slot < ends[node]; slot++) {
+            if (node < targets[slot]) {
+                records[edgeIds[slot]] = new Edge.Undirected<>(nodes[node], nodes[targets[slot]], weights[slot]);
+            }
+        }
+    }
+
+    /**
+     * Reports a repeated arc.
+     */
+    interface DuplicateHandler {
+
+        /**
+         * @param node the starting node of the arc
+         * @param target the repeated target
+         * @return the exception to throw
+         */
+        RuntimeException duplicate(int node, int target);
+    }
+}
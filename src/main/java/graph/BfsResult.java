@@ -0,0 +1,70 @@
+package graph;
+
+/**
+ * The result of a breadth-first search over an {@link IndexedGraph}: the visitation order, the
+ * BFS level of every node and the parent link of every visited node.
+ */
+public final class BfsResult {
+    private final int source;
+    private final int[] order;
+    private final int[] levels;
+    private final int[] parents;
+    private final int levelCount;
+
+    BfsResult(int source, int[] order, int[] levels, int[] parents, int levelCount) {
+        this.source = source;
+        this.order = order;
+        this.levels = levels;
+        this.parents = parents;
+        this.levelCount = levelCount;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * @return the number of nodes visited, including the source
+     */
+    public int visitedCount() {
+        return order.length;
+    }
+
+    /**
+     * @param i an index in {@code [0, visitedCount())}
+     * @return the i-th visited node; nodes are ordered by level, and the source comes first
+     */
+    public int visited(int i) {
+        return order[i];
+    }
+
+    /**
+     * @return a copy of the visitation order
+     */
+    public int[] order() {
+        return order.clone();
+    }
+
+    /**
+     * @param node the node index
+     * @return the number of hops from the source to the node, or -1 if the node was not reached
+     */
+    public int level(int node) {
+        return levels[node];
+    }
+
+    /**
+     * @param node the node index
+     * @return the node the BFS reached this node from, or -1 for the source and unreached nodes
+     */
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @return the number of levels, i.e. one more than the largest hop distance from the source
+     */
+    public int levelCount() {
+        return levelCount;
+    }
+}
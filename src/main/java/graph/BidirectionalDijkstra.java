@@ -0,0 +1,199 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A reusable point-to-point shortest path engine that searches forward from the source and
+ * backward from the target at the same time, over an {@link IndexedGraph} and its reverse.
+ * <p>
+ * The two searches meet in the middle, so on road-like graphs they settle roughly the nodes
+ * within half the source-target distance of either end instead of everything within the full
+ * distance of the source. State is kept in primitive arrays allocated once per engine and only
+ * the nodes reached by the previous query are reset, so repeated queries allocate nothing
+ * except the path returned by {@link #path()}.
+ * <p>
+ * An engine is not thread-safe; use one per thread.
+ */
+public final class BidirectionalDijkstra {
+    private final IndexedGraph forward;
+    private final IndexedGraph backward;
+
+    private final Search forwardSearch;
+    private final Search backwardSearch;
+
+    private double bestDistance = Double.POSITIVE_INFINITY;
+    private int meetingNode = -1;
+
+    /**
+     * Constructs an engine for a CSR snapshot, using its transpose for the backward search.
+     *
+     * @param graph the snapshot to search
+     */
+    public BidirectionalDijkstra(CsrGraph<?> graph) {
+        this(graph, graph.transpose());
+    }
+
+    /**
+     * Constructs an engine from a graph and its reverse.
+     *
+     * @param forward the graph to search
+     * @param backward the same graph with every edge reversed, using the same node indices
+     * @throws IllegalArgumentException if either graph is null or the node counts differ
+     */
+    public BidirectionalDijkstra(IndexedGraph forward, IndexedGraph backward) {
+        if (forward == null || backward == null || forward.nodeCount() != backward.nodeCount()) {
+            throw new IllegalArgumentException("Invalid forward or backward graph");
+        }
+
+        this.forward = forward;
+        this.backward = backward;
+        this.forwardSearch = new Search(forward.nodeCount());
+        this.backwardSearch = new Search(forward.nodeCount());
+    }
+
+    /**
+     * Computes the shortest distance from the source to the target.
+     *
+     * @param source the index of the source node
+     * @param target the index of the target node
+     * @return the shortest distance, or {@code Double.POSITIVE_INFINITY} if the target is unreachable
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public double run(int source, int target) {
+        forwardSearch.start(source);
+        backwardSearch.start(target);
+        bestDistance = source == target ? 0.0 : Double.POSITIVE_INFINITY;
+        meetingNode = source == target ? source : -1;
+
+        while (!forwardSearch.heap.isEmpty() && !backwardSearch.heap.isEmpty()) {
+            // No path through an unsettled node can beat the best meeting point found so far
+            if (forwardSearch.heap.peekKey() + backwardSearch.heap.peekKey() >= bestDistance) {
+                break;
+            }
+
+            if (forwardSearch.heap.size() <= backwardSearch.heap.size()) {
+                step(forward, forwardSearch, backwardSearch);
+            } else {
+                step(backward, backwardSearch, forwardSearch);
+            }
+        }
+
+        return bestDistance;
+    }
+
+    /**
+     * @return the shortest distance found by the last query
+     */
+    public double distance() {
+        return bestDistance;
+    }
+
+    /**
+     * Reconstructs the shortest path found by the last query.
+     *
+     * @return the node indices on the path from the source to the target, or an empty array if
+     *         the target was unreachable
+     */
+    public int[] path() {
+        if (meetingNode < 0) {
+            return new int[0];
+        }
+
+        int forwardLength = 0;
+        for (int node = meetingNode; node >= 0; node = forwardSearch.parents[node]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int node = backwardSearch.parents[meetingNode]; node >= 0; node = backwardSearch.parents[node]) {
+            backwardLength++;
+        }
+
+        int[] path = new int[forwardLength + backwardLength];
+        int i = forwardLength - 1;
+        for (int node = meetingNode; node >= 0; node = forwardSearch.parents[node]) {
+            path[i--] = node;
+        }
+        i = forwardLength;
+        for (int node = backwardSearch.parents[meetingNode]; node >= 0; node = backwardSearch.parents[node]) {
+            path[i++] = node;
+        }
+        return path;
+    }
+
+    /**
+     * @return the number of nodes settled by both searches of the last query
+     */
+    public int settledCount() {
+        return forwardSearch.settledCount + backwardSearch.settledCount;
+    }
+
+    private void step(IndexedGraph graph, Search search, Search other) {
+        int node = search.heap.poll();
+        search.settledCount++;
+        double distance = search.distances[node];
+
+        for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+            double edgeWeight = graph.edgeWeight(edge);
+            if (edgeWeight < 0) {
+                throw GraphAlgorithms.negativeWeight(edgeWeight);
+            }
+
+            int neighbour = graph.edgeTarget(edge);
+            double newDist = distance + edgeWeight;
+
+            if (newDist < search.distances[neighbour]) {
+                search.reach(neighbour, newDist, node);
+            }
+
+            double throughNeighbour = newDist + other.distances[neighbour];
+            if (throughNeighbour < bestDistance) {
+                bestDistance = throughNeighbour;
+                meetingNode = neighbour;
+            }
+        }
+    }
+
+    /**
+     * The state of one direction of the search.
+     */
+    private static final class Search {
+        final IndexedDaryHeap heap;
+        final double[] distances;
+        final int[] parents;
+        final int[] reached;
+        int reachedCount;
+        int settledCount;
+
+        Search(int nodeCount) {
+            heap = new IndexedDaryHeap(nodeCount);
+            distances = new double[nodeCount];
+            parents = new int[nodeCount];
+            reached = new int[nodeCount];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(parents, -1);
+        }
+
+        void start(int origin) {
+            for (int i = 0; i < reachedCount; i++) {
+                distances[reached[i]] = Double.POSITIVE_INFINITY;
+                parents[reached[i]] = -1;
+            }
+            reachedCount = 0;
+            settledCount = 0;
+            heap.clear();
+
+            distances[origin] = 0.0;
+            reached[reachedCount++] = origin;
+            heap.insert(origin, 0.0);
+        }
+
+        void reach(int node, double distance, int parent) {
+            if (distances[node] == Double.POSITIVE_INFINITY) {
+                reached[reachedCount++] = node;
+            }
+            distances[node] = distance;
+            parents[node] = parent;
+            heap.insertOrDecrease(node, distance);
+        }
+    }
+}
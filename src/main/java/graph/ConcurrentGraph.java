@@ -0,0 +1,554 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A directed or undirected graph that can be changed by several threads at once while others read it.
+ * <p>
+ * Writers lock only the nodes they change. Each node is guarded by one of a fixed set of striped
+ * locks, chosen by node id. Connecting, disconnecting and reweighting an arc locks the stripe of its
+ * starting node. For an undirected edge, both stripes are locked, in stripe order, so the two arcs
+ * always change together with respect to other writers. Adding a node takes a separate lock, which
+ * only serializes node additions with each other.
+ * <p>
+ * Readers never lock. {@link Node#getEdges()} returns an immutable snapshot of the node's arcs at
+ * the time of the call, and {@link #getNodes()} only ever grows. So {@link GraphAlgorithms} and
+ * {@link Traversal} can run while writers are active. Each read sees every arc either before or
+ * after a change, but a traversal that reads many nodes may mix states from before and after a
+ * writer's change. In particular, it may see one direction of an undirected edge change before
+ * the other. Run algorithms on a {@link #snapshot()} for a consistent view.
+ * <p>
+ * Every change is a commit with a version. A change publishes new versions of the adjacency lists
+ * or edge weights it touches, and those versions become visible to snapshots all at once when the
+ * commit completes. Older versions are kept only while an open snapshot can still see them: they
+ * are dropped when the change completes, or when the last snapshot that can see them is closed or
+ * garbage collected. Weight updates replace one edge in place, so they never copy an adjacency
+ * list, and retain one edge per update only while a snapshot needs it. Commit versions count
+ * the same listener notifications as {@link #getVersion()}, so a snapshot of a graph with no
+ * change in progress has the version of the graph.
+ * <p>
+ * Listeners are notified on the writing thread while it still holds the locks of the change, so
+ * the events for any one node arrive in the order the changes were made. Events for different
+ * nodes may arrive concurrently, so listeners registered on a concurrent graph must be thread-safe.
+ *
+ * @param <T> the type of the node data
+ */
+public class ConcurrentGraph<T> implements Graph<T> {
+    private final boolean directed;
+    private final ReentrantLock[] stripes;
+    private final ReentrantLock nodesLock;
+
+    // Slots below nodeCount are never written again, so readers only need the two volatile reads
+    private volatile ConcurrentNode<T>[] nodes;
+    private volatile int nodeCount;
+    private final List<Node<T>> nodesView;
+
+    private final Object commitLock;
+    private volatile long committedVersion;
+    private final Set<GraphSnapshot.Registration> openSnapshots;
+    // Version chains that open snapshots still needed when last trimmed
+    private final Set<VersionChain> chains;
+
+    private final GraphListenerSupport<T> listeners;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ConcurrentGraph(boolean directed, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+
+        this.directed = directed;
+        // A power of two, so that a stripe is picked by masking the node id
+        int size = 1;
+        while (size < stripeCount && size < 1 << 16) {
+            size <<= 1;
+        }
+
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.nodesLock = new ReentrantLock();
+        this.nodes = new ConcurrentNode[16];
+        this.nodesView = new NodeList();
+        this.commitLock = new Object();
+        this.openSnapshots = ConcurrentHashMap.newKeySet();
+        this.chains = ConcurrentHashMap.newKeySet();
+        this.listeners = new GraphListenerSupport<>();
+    }
+
+    /**
+     * @return a new, empty directed graph with a stripe count suited to the number of processors
+     */
+    public static <T> ConcurrentGraph<T> directed() {
+        return new ConcurrentGraph<>(true, defaultStripeCount());
+    }
+
+    /**
+     * @return a new, empty undirected graph with a stripe count suited to the number of processors
+     */
+    public static <T> ConcurrentGraph<T> undirected() {
+        return new ConcurrentGraph<>(false, defaultStripeCount());
+    }
+
+    /**
+     * @param stripeCount the number of locks guarding the nodes, rounded up to a power of two;
+     *                    more stripes mean fewer writers contending on unrelated nodes
+     * @return a new, empty directed graph
+     * @throws IllegalArgumentException if stripeCount is not positive
+     */
+    public static <T> ConcurrentGraph<T> directed(int stripeCount) {
+        return new ConcurrentGraph<>(true, stripeCount);
+    }
+
+    /**
+     * @param stripeCount the number of locks guarding the nodes, rounded up to a power of two;
+     *                    more stripes mean fewer writers contending on unrelated nodes
+     * @return a new, empty undirected graph
+     * @throws IllegalArgumentException if stripeCount is not positive
+     */
+    public static <T> ConcurrentGraph<T> undirected(int stripeCount) {
+        return new ConcurrentGraph<>(false, stripeCount);
+    }
+
+    private static int defaultStripeCount() {
+        return Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Returns a read-only view of the nodes in the graph, in insertion order. The view grows as
+     * nodes are added, and iterating it while another thread adds nodes is safe.
+     *
+     * @return an unmodifiable view of the nodes in the graph
+     */
+    @Override
+    public List<Node<T>> getNodes() {
+        return nodesView;
+    }
+
+    @Override
+    public Node<T> getNode(int id) {
+        int count = nodeCount;
+        return id >= 0 && id < count ? nodes[id] : null;
+    }
+
+    @Override
+    public Node<T> addNode(T data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Node data cannot be null");
+        }
+
+        nodesLock.lock();
+        try {
+            return add(new ConcurrentNode<>(data, nodeCount));
+        } finally {
+            nodesLock.unlock();
+        }
+    }
+
+    @Override
+    public Node<T> addNode(T data, String name) {
+        if (data == null) {
+            throw new IllegalArgumentException("Node data cannot be null");
+        }
+
+        nodesLock.lock();
+        try {
+            return add(new ConcurrentNode<>(data, name, nodeCount));
+        } finally {
+            nodesLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a new node. Must be called with the nodes lock held.
+     */
+    private Node<T> add(ConcurrentNode<T> node) {
+        node.addedVersion = complete(new Commit(), 1);
+
+        int count = nodeCount;
+        ConcurrentNode<T>[] array = nodes;
+        if (count == array.length) {
+            array = Arrays.copyOf(array, count + (count >> 1));
+            nodes = array;
+        }
+
+        array[count] = node;
+        nodeCount = count + 1;
+        listeners.nodeAdded(node);
+        return node;
+    }
+
+    @Override
+    public void connect(Node<T> fromNode, Node<T> toNode, double weight) {
+        validateNodesInGraph(fromNode, toNode);
+        ConcurrentNode<T> node1 = (ConcurrentNode<T>) fromNode;
+        ConcurrentNode<T> node2 = (ConcurrentNode<T>) toNode;
+        Commit commit = new Commit();
+
+        if (directed) {
+            ReentrantLock lock = stripeOf(fromNode);
+            lock.lock();
+            try {
+                node1.connect(node2, weight, commit);
+                complete(commit, 1);
+                retire(oldestVisibleVersion(), node1);
+                listeners.edgeAdded(fromNode, toNode, weight);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        if (fromNode == toNode) {
+            throw new IllegalArgumentException("Undirected graphs cannot have self-loops: " + fromNode.getData());
+        }
+
+        lockPair(fromNode, toNode);
+        try {
+            // The arcs of an edge exist in pairs, so if the first connect succeeds the second cannot fail
+            node1.connect(node2, weight, commit);
+            node2.connect(node1, weight, commit);
+            complete(commit, 2);
+            retire(oldestVisibleVersion(), node1, node2);
+            listeners.edgeAdded(fromNode, toNode, weight);
+            listeners.edgeAdded(toNode, fromNode, weight);
+        } finally {
+            unlockPair(fromNode, toNode);
+        }
+    }
+
+    @Override
+    public void disconnect(Node<T> fromNode, Node<T> toNode) {
+        validateNodesInGraph(fromNode, toNode);
+        ConcurrentNode<T> node1 = (ConcurrentNode<T>) fromNode;
+        ConcurrentNode<T> node2 = (ConcurrentNode<T>) toNode;
+        Commit commit = new Commit();
+
+        if (directed) {
+            ReentrantLock lock = stripeOf(fromNode);
+            lock.lock();
+            try {
+                double weight = node1.disconnect(node2, commit);
+                complete(commit, 1);
+                retire(oldestVisibleVersion(), node1);
+                listeners.edgeRemoved(fromNode, toNode, weight);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        lockPair(fromNode, toNode);
+        try {
+            double weight = node1.disconnect(node2, commit);
+            node2.disconnect(node1, commit);
+            complete(commit, 2);
+            retire(oldestVisibleVersion(), node1, node2);
+            listeners.edgeRemoved(fromNode, toNode, weight);
+            listeners.edgeRemoved(toNode, fromNode, weight);
+        } finally {
+            unlockPair(fromNode, toNode);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return listeners.getVersion();
+    }
+
+    @Override
+    public void addGraphListener(GraphListener<T> listener) {
+        listeners.addListener(listener);
+    }
+
+    @Override
+    public void removeGraphListener(GraphListener<T> listener) {
+        listeners.removeListener(listener);
+    }
+
+    /**
+     * Updates data of a node. Node data is not versioned: snapshots see the new data too.
+     *
+     * @param node the node whose data needs to be updated
+     * @param newData the updated new data
+     * @throws IllegalArgumentException if node or newData is null or node is not part of this graph
+     */
+    @Override
+    public void updateNodeData(Node<T> node, T newData) {
+        if (node == null || newData == null) {
+            throw new IllegalArgumentException("Node and new data cannot be null");
+        }
+
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+
+        node.setData(newData);
+    }
+
+    /**
+     * Updates weight of an edge. The edge is replaced by a new {@link Edge} object in place, so
+     * edges obtained earlier, and snapshots, keep the old weight. Lists of edges obtained earlier
+     * from the live graph show the new edge.
+     *
+     * @param fromNode the starting node of the edge
+     * @param toNode the ending node of the edge
+     * @param newWeight the updated new weight
+     * @throws IllegalArgumentException if either start and end nodes are not part of the graph or the edge doesn't exist between the two nodes
+     */
+    @Override
+    public void updateEdgeWeight(Node<T> fromNode, Node<T> toNode, double newWeight) {
+        validateNodesInGraph(fromNode, toNode);
+        ConcurrentNode<T> node1 = (ConcurrentNode<T>) fromNode;
+        ConcurrentNode<T> node2 = (ConcurrentNode<T>) toNode;
+        Commit commit = new Commit();
+
+        if (directed) {
+            ReentrantLock lock = stripeOf(fromNode);
+            lock.lock();
+            try {
+                double oldWeight = node1.updateWeight(node2, newWeight, commit);
+                complete(commit, 1);
+                retire(oldestVisibleVersion(), node1.weightsTo(node2));
+                listeners.edgeWeightChanged(fromNode, toNode, oldWeight, newWeight);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        lockPair(fromNode, toNode);
+        try {
+            double oldWeight = node1.updateWeight(node2, newWeight, commit);
+            node2.updateWeight(node1, newWeight, commit);
+            complete(commit, 2);
+            retire(oldestVisibleVersion(), node1.weightsTo(node2), node2.weightsTo(node1));
+            listeners.edgeWeightChanged(fromNode, toNode, oldWeight, newWeight);
+            listeners.edgeWeightChanged(toNode, fromNode, oldWeight, newWeight);
+        } finally {
+            unlockPair(fromNode, toNode);
+        }
+    }
+
+    /**
+     * Takes a consistent, read-only view of the graph as of the last completed change, without
+     * copying it and without blocking writers. Changes made afterwards, including ones already in
+     * progress, are not visible through the snapshot.
+     * <p>
+     * While a snapshot is open, writers keep the versions of the adjacency lists it can see; they
+     * are dropped once it is closed. Close snapshots promptly, ideally with try-with-resources.
+     * A snapshot that becomes unreachable without being closed is released by the garbage collector.
+     *
+     * <pre>{@code
+     * try (GraphSnapshot<String> snapshot = graph.snapshot()) {
+     *     Map<Node<String>, Double> distances = algorithms.dijkstra(snapshot, source);
+     * }
+     * }</pre>
+     *
+     * @return a snapshot of the graph
+     */
+    public GraphSnapshot<T> snapshot() {
+        // Registered before the version is read, so a writer either sees the registration or
+        // computes its oldest visible version from a clock reading at least as old as ours
+        GraphSnapshot.Registration registration = new GraphSnapshot.Registration();
+        openSnapshots.add(registration);
+
+        long version = committedVersion;
+        registration.version = version;
+
+        // Nodes are committed before they are published, so only trailing nodes can be too new
+        ConcurrentNode<T>[] array = nodes;
+        int count = nodeCount;
+        while (count > 0 && array[count - 1].addedVersion > version) {
+            count--;
+        }
+
+        return new GraphSnapshot<>(array, count, directed, version, registration, this);
+    }
+
+    /**
+     * Freezes the current state of the graph into an immutable CSR snapshot. The copy is made from
+     * a {@link #snapshot()}, so it reflects a single consistent state and writers are never blocked.
+     *
+     * @return a compressed-sparse-row snapshot of the graph
+     */
+    @Override
+    public CsrGraph<T> freeze() {
+        try (GraphSnapshot<T> snapshot = snapshot()) {
+            return CsrGraph.of(snapshot);
+        }
+    }
+
+    /**
+     * Makes every adjacency published under the commit visible to snapshots at once. The version
+     * advances by the number of listener notifications the change fires, one per arc, so that
+     * once they have fired, {@link #getVersion()} and the version of a new snapshot agree.
+     *
+     * @param notifications the number of notifications the change fires
+     * @return the version of the commit
+     */
+    private long complete(Commit commit, int notifications) {
+        synchronized (commitLock) {
+            long version = committedVersion + notifications;
+            commit.version = version;
+            // Published after the stamp, so a snapshot that reads this version also sees the stamp
+            committedVersion = version;
+            return version;
+        }
+    }
+
+    /**
+     * Trims the version chains a completed change left behind, and remembers the ones open
+     * snapshots still need, so that {@link #release} can trim them once the snapshots are gone.
+     */
+    private void retire(long oldestVisible, VersionChain... touched) {
+        for (VersionChain chain : touched) {
+            if (chain.trim(oldestVisible)) {
+                chains.add(chain);
+            }
+        }
+    }
+
+    /**
+     * Unregisters a snapshot and drops the versions only it could still read. Runs when the
+     * snapshot is closed or garbage collected, on any thread. Trimming takes no locks, so writers
+     * are never blocked.
+     */
+    void release(GraphSnapshot.Registration registration) {
+        openSnapshots.remove(registration);
+        long oldestVisible = oldestVisibleVersion();
+
+        for (VersionChain chain : new ArrayList<>(chains)) {
+            // Removed before trimming, so a writer that leaves versions behind meanwhile adds it back
+            chains.remove(chain);
+            if (chain.trim(oldestVisible)) {
+                chains.add(chain);
+            }
+        }
+    }
+
+    /**
+     * @return the oldest version an open snapshot may still read; versions older than it can be dropped
+     */
+    private long oldestVisibleVersion() {
+        long oldest = committedVersion;
+        for (GraphSnapshot.Registration registration : openSnapshots) {
+            // A registration whose version is not known yet reads as -1, which keeps everything
+            oldest = Math.min(oldest, registration.version);
+        }
+        return oldest;
+    }
+
+    private ReentrantLock stripeOf(Node<T> node) {
+        return stripes[node.getId() & (stripes.length - 1)];
+    }
+
+    /**
+     * Locks the stripes of both nodes in stripe order, so two writers locking the same pair in
+     * opposite directions cannot deadlock.
+     */
+    private void lockPair(Node<T> node1, Node<T> node2) {
+        int stripe1 = node1.getId() & (stripes.length - 1);
+        int stripe2 = node2.getId() & (stripes.length - 1);
+
+        stripes[Math.min(stripe1, stripe2)].lock();
+        if (stripe1 != stripe2) {
+            stripes[Math.max(stripe1, stripe2)].lock();
+        }
+    }
+
+    private void unlockPair(Node<T> node1, Node<T> node2) {
+        int stripe1 = node1.getId() & (stripes.length - 1);
+        int stripe2 = node2.getId() & (stripes.length - 1);
+
+        if (stripe1 != stripe2) {
+            stripes[Math.max(stripe1, stripe2)].unlock();
+        }
+        stripes[Math.min(stripe1, stripe2)].unlock();
+    }
+
+    /**
+     * Validates that both nodes are part of the graph.
+     *
+     * @param fromNode the starting node
+     * @param toNode the ending node
+     * @throws IllegalArgumentException if either node is not part of the graph
+     */
+    private void validateNodesInGraph(Node<T> fromNode, Node<T> toNode) {
+        if (fromNode == null || toNode == null) {
+            throw new IllegalArgumentException("Nodes cannot be null");
+        }
+
+        if (!containsNode(fromNode) || !containsNode(toNode)) {
+            throw new IllegalArgumentException("Both nodes must be part of the graph");
+        }
+    }
+
+    /**
+     * The version stamp shared by every adjacency one change publishes. It reads as newer than any
+     * snapshot until the change completes, so a snapshot sees either all of a change or none of it.
+     */
+    static final class Commit {
+        // Stamps the empty adjacency of new nodes, visible to every snapshot
+        static final Commit INITIAL = new Commit(0);
+
+        volatile long version;
+
+        Commit() {
+            this(Long.MAX_VALUE);
+        }
+
+        private Commit(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Versions of an adjacency list or of an edge's weight, linked from the newest, that open
+     * snapshots may still read.
+     */
+    interface VersionChain {
+
+        /**
+         * Cuts the chain behind the newest version at or before the oldest visible one, which is
+         * the last one any snapshot can need. Cutting there is correct however old the oldest
+         * visible version was when read, so chains are trimmed without locks.
+         *
+         * @param oldestVisible the oldest version an open snapshot may still read
+         * @return true if older versions remain in the chain
+         */
+        boolean trim(long oldestVisible);
+    }
+
+    /**
+     * A live view of the published nodes.
+     */
+    private final class NodeList extends AbstractList<Node<T>> implements RandomAccess {
+        @Override
+        public Node<T> get(int index) {
+            int count = nodeCount;
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+            }
+            return nodes[index];
+        }
+
+        @Override
+        public int size() {
+            return nodeCount;
+        }
+    }
+}
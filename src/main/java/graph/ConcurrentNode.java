@@ -0,0 +1,366 @@
+package graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A node of a {@link ConcurrentGraph}, whose adjacency can be read while another thread changes it.
+ * <p>
+ * The edges are kept in an array published through a volatile snapshot of the array and its size.
+ * Appends write into spare capacity and then publish a larger snapshot, so they never copy; removals
+ * copy the array, so a slot visible through an older snapshot never holds another edge. A weight
+ * update writes a new edge into the slot of the old one, which it links to, without copying. Readers
+ * therefore iterate the edges as of their call to {@link #getEdges()} without locking, though they
+ * may see weights updated since. Writers must hold the node's lock in the owning graph.
+ * <p>
+ * Every snapshot is stamped with the {@link ConcurrentGraph.Commit commit} that published it and
+ * links to the one it replaced, and so is every reweighted edge, so a {@link GraphSnapshot} can find
+ * the adjacency and the weights as of its version. Both chains are trimmed behind the newest version
+ * that the oldest open graph snapshot can still see, once a change completes and again when a graph
+ * snapshot is released.
+ *
+ * @param <T> the type of the node data
+ */
+final class ConcurrentNode<T> extends Node<T> implements ConcurrentGraph.VersionChain {
+    private static final Edge<?>[] NO_EDGES = new Edge<?>[0];
+    // Weight updates replace published slots, so slots are read with acquire and written with release
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Edge[].class);
+
+    // The version of the commit that added the node, written before the node is published
+    long addedVersion;
+
+    private volatile Adjacency<T> adjacency = new Adjacency<>(emptyEdges(), 0, ConcurrentGraph.Commit.INITIAL, null);
+
+    // Built once the degree exceeds EDGE_INDEX_THRESHOLD. Concurrent, so lock-free readers can use it too
+    private volatile ConcurrentHashMap<Node<T>, Edge<T>> edgeIndex;
+
+    ConcurrentNode(T data, String name, int id) {
+        super(data, name, id, false);
+    }
+
+    ConcurrentNode(T data, int id) {
+        this(data, "n" + data, id);
+    }
+
+    @Override
+    public List<Edge<T>> getEdges() {
+        return adjacency;
+    }
+
+    @Override
+    public List<Node<T>> getNeighbors() {
+        return new Neighbors<>(adjacency);
+    }
+
+    @Override
+    public Edge<T> getEdgeTo(Node<T> toNode) {
+        ConcurrentHashMap<Node<T>, Edge<T>> index = edgeIndex;
+        if (index != null) {
+            return toNode == null ? null : index.get(toNode);
+        }
+        return adjacency.find(toNode);
+    }
+
+    /**
+     * @param version a committed graph version that is not older than the oldest open snapshot
+     * @return the edges of this node as of that version, with the weights they had then
+     */
+    List<Edge<T>> getEdges(long version) {
+        Adjacency<T> edges = adjacency;
+        while (edges.commit.version > version) {
+            edges = edges.previous;
+        }
+        return new VersionView<>(edges, version);
+    }
+
+    /**
+     * @return the chain of weights of the edge to another node, after a weight update
+     */
+    ConcurrentGraph.VersionChain weightsTo(Node<T> toNode) {
+        return (Reweighted<T>) getEdgeTo(toNode);
+    }
+
+    @Override
+    Edge<T> connect(Node<T> toNode, double weight) {
+        throw new UnsupportedOperationException("Concurrent nodes are changed through their graph");
+    }
+
+    @Override
+    void connectAll(Node<T>[] toNodes, int[] targets, double[] weights, int from, int to) {
+        throw new UnsupportedOperationException("Concurrent nodes are changed through their graph");
+    }
+
+    @Override
+    void connectBoth(Node<T> toNode, double weight) {
+        throw new UnsupportedOperationException("Concurrent nodes are changed through their graph");
+    }
+
+    @Override
+    void connectAll(Edge<T>[] records, int[] edgeIds, int from, int to) {
+        throw new UnsupportedOperationException("Concurrent nodes are changed through their graph");
+    }
+
+    @Override
+    double disconnect(Node<T> toNode) {
+        throw new UnsupportedOperationException("Concurrent nodes are changed through their graph");
+    }
+
+    @Override
+    double disconnectBoth(Node<T> toNode) {
+        throw new UnsupportedOperationException("Concurrent nodes are changed through their graph");
+    }
+
+    /**
+     * Connects this node to another node as part of a commit.
+     *
+     * @throws IllegalArgumentException if the nodes are already connected
+     */
+    void connect(Node<T> toNode, double weight, ConcurrentGraph.Commit commit) {
+        if (isConnectedTo(toNode)) {
+            throw new IllegalArgumentException("Nodes are already connected");
+        }
+
+        Edge<T> edge = new Edge<>(this, toNode, weight);
+        Adjacency<T> current = adjacency;
+        edge.fromSlot = current.size;
+        Edge<T>[] edges = current.edges;
+        if (current.size == edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(4, edges.length + (edges.length >> 1)));
+        }
+
+        // The slot lies beyond every published snapshot, so writing it is invisible until the publish below
+        edges[current.size] = edge;
+        adjacency = new Adjacency<>(edges, current.size + 1, commit, current);
+
+        if (edgeIndex != null) {
+            edgeIndex.put(toNode, edge);
+        } else if (current.size + 1 > EDGE_INDEX_THRESHOLD) {
+            buildEdgeIndex();
+        }
+    }
+
+    /**
+     * Disconnects this node from another node as part of a commit.
+     *
+     * @return the weight of the removed edge
+     * @throws IllegalArgumentException if the nodes are not connected
+     */
+    double disconnect(Node<T> toNode, ConcurrentGraph.Commit commit) {
+        Edge<T> edge = getEdgeTo(toNode);
+        if (edge == null) {
+            throw new IllegalArgumentException("Nodes are not connected");
+        }
+
+        // Unindex first, so a reader never finds an edge through the index that is gone from the list
+        if (edgeIndex != null) {
+            edgeIndex.remove(toNode);
+        }
+
+        Adjacency<T> current = adjacency;
+        int index = edge.fromSlot;
+
+        // Removal copies, so readers still iterating an older snapshot are unaffected
+        Edge<T>[] edges = Arrays.copyOf(current.edges, current.edges.length);
+        System.arraycopy(edges, index + 1, edges, index, current.size - index - 1);
+        edges[current.size - 1] = null;
+        for (int i = index; i < current.size - 1; i++) {
+            edges[i].fromSlot = i;
+        }
+        adjacency = new Adjacency<>(edges, current.size - 1, commit, current);
+
+        if (edgeIndex != null && current.size - 1 <= EDGE_INDEX_THRESHOLD / 2) {
+            edgeIndex = null; // Back to a compact list for low-degree nodes
+        }
+
+        return edge.getWeight();
+    }
+
+    /**
+     * Replaces the edge to another node with one of a new weight as part of a commit. The new edge
+     * takes the slot of the old one in place and links to it, so the adjacency is not copied, and
+     * snapshots older than the commit still read the old weight.
+     *
+     * @return the previous weight of the edge
+     * @throws IllegalArgumentException if the nodes are not connected
+     */
+    double updateWeight(Node<T> toNode, double weight, ConcurrentGraph.Commit commit) {
+        Edge<T> edge = getEdgeTo(toNode);
+        if (edge == null) {
+            throw new IllegalArgumentException("Edge does not exist");
+        }
+
+        Reweighted<T> replacement = new Reweighted<>(edge, weight, commit);
+        replacement.fromSlot = edge.fromSlot;
+        SLOTS.setRelease(adjacency.edges, edge.fromSlot, replacement);
+
+        if (edgeIndex != null) {
+            edgeIndex.put(toNode, replacement);
+        }
+
+        return edge.getWeight();
+    }
+
+    /**
+     * Drops the adjacency versions no snapshot at or after the oldest visible version can read.
+     * Safe to call without the node's lock, as cutting the chain there is correct for any writer.
+     */
+    @Override
+    public boolean trim(long oldestVisible) {
+        Adjacency<T> head = adjacency;
+
+        // The newest version at or before the oldest visible one is the last any snapshot needs
+        for (Adjacency<T> edges = head; edges != null; edges = edges.previous) {
+            if (edges.commit.version <= oldestVisible) {
+                edges.previous = null;
+                break;
+            }
+        }
+        return head.previous != null;
+    }
+
+    private void buildEdgeIndex() {
+        Adjacency<T> edges = adjacency;
+        ConcurrentHashMap<Node<T>, Edge<T>> index = new ConcurrentHashMap<>(edges.size * 2);
+        for (int i = 0; i < edges.size; i++) {
+            index.put(edges.edges[i].getToNode(), edges.edges[i]);
+        }
+        edgeIndex = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Edge<T>[] emptyEdges() {
+        return (Edge<T>[]) NO_EDGES;
+    }
+
+    /**
+     * An immutable view of the first {@code size} edges of an array. Edges beyond the size may be
+     * written later, but the ones within it never change.
+     */
+    private static final class Adjacency<T> extends AbstractList<Edge<T>> implements RandomAccess {
+        final Edge<T>[] edges;
+        final int size;
+        final ConcurrentGraph.Commit commit;
+
+        // The adjacency this one replaced, until no open snapshot can need it
+        volatile Adjacency<T> previous;
+
+        Adjacency(Edge<T>[] edges, int size, ConcurrentGraph.Commit commit, Adjacency<T> previous) {
+            this.edges = edges;
+            this.size = size;
+            this.commit = commit;
+            this.previous = previous;
+        }
+
+        @Override
+        public Edge<T> get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return slot(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        Edge<T> find(Node<T> toNode) {
+            for (int i = 0; i < size; i++) {
+                Edge<T> edge = slot(i);
+                if (edge.getToNode() == toNode) {
+                    return edge;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Edge<T> slot(int index) {
+            return (Edge<T>) SLOTS.getAcquire(edges, index);
+        }
+    }
+
+    /**
+     * An adjacency as a snapshot at a version sees it, with every reweighted edge followed back
+     * to the weight it had at that version.
+     */
+    private static final class VersionView<T> extends AbstractList<Edge<T>> implements RandomAccess {
+        private final Adjacency<T> edges;
+        private final long version;
+
+        VersionView(Adjacency<T> edges, long version) {
+            this.edges = edges;
+            this.version = version;
+        }
+
+        @Override
+        public Edge<T> get(int index) {
+            Edge<T> edge = edges.get(index);
+            while (edge instanceof Reweighted && ((Reweighted<T>) edge).commit.version > version) {
+                edge = ((Reweighted<T>) edge).previous;
+            }
+            return edge;
+        }
+
+        @Override
+        public int size() {
+            return edges.size;
+        }
+    }
+
+    /**
+     * An edge with a weight set by an update, linked to the edge it replaced until no open snapshot
+     * can read that one any more. An edge that was never reweighted needs no stamp, as it is as
+     * old as every adjacency holding it.
+     */
+    private static final class Reweighted<T> extends Edge<T> implements ConcurrentGraph.VersionChain {
+        final ConcurrentGraph.Commit commit;
+        volatile Edge<T> previous;
+
+        Reweighted(Edge<T> edge, double weight, ConcurrentGraph.Commit commit) {
+            super(edge.getFromNode(), edge.getToNode(), weight);
+            this.commit = commit;
+            this.previous = edge;
+        }
+
+        @Override
+        public boolean trim(long oldestVisible) {
+            for (Reweighted<T> version = this; ; ) {
+                if (version.commit.version <= oldestVisible) {
+                    version.previous = null;
+                    break;
+                }
+
+                Edge<T> older = version.previous;
+                if (!(older instanceof Reweighted)) {
+                    break;
+                }
+                version = (Reweighted<T>) older;
+            }
+            return previous != null;
+        }
+    }
+
+    private static final class Neighbors<T> extends AbstractList<Node<T>> implements RandomAccess {
+        private final Adjacency<T> edges;
+
+        Neighbors(Adjacency<T> edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public Node<T> get(int index) {
+            return edges.get(index).getToNode();
+        }
+
+        @Override
+        public int size() {
+            return edges.size;
+        }
+    }
+}
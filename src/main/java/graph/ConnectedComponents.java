@@ -0,0 +1,128 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * A parallel connected components solver over an {@link IndexedGraph}, using a lock-free
+ * union-find.
+ * <p>
+ * Every node starts as its own root. The edges of all nodes are scanned in parallel, and each edge
+ * links the roots of its two endpoints with a single compare-and-set that points the higher root at
+ * the lower one, retrying if another thread linked either root first. Finds halve their path as they
+ * go, so trees stay shallow without any locking. Since roots only ever point to lower indices, every
+ * component ends up rooted at its lowest node.
+ * <p>
+ * For a directed graph the edge directions are ignored, which yields the weakly connected
+ * components. A solver holds no per-query state and may be shared between threads.
+ */
+public final class ConnectedComponents {
+    private final IndexedGraph graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a solver on the common fork/join pool.
+     *
+     * @param graph the graph to analyze
+     */
+    public ConnectedComponents(IndexedGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a solver.
+     *
+     * @param graph the graph to analyze
+     * @param pool the pool to scan the edges on
+     * @throws IllegalArgumentException if graph or pool is null
+     */
+    public ConnectedComponents(IndexedGraph graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("Invalid graph or pool");
+        }
+
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the connected components of the graph.
+     *
+     * @return the component id of every node index; ids are dense from 0 and numbered in the
+     *         order of the lowest node index of each component
+     */
+    public int[] run() {
+        int nodeCount = graph.nodeCount();
+        AtomicIntegerArray parents = new AtomicIntegerArray(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            parents.lazySet(i, i);
+        }
+
+        int[] roots = pool.submit(() -> {
+            IntStream.range(0, nodeCount).parallel().forEach(node -> {
+                for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                    union(parents, node, graph.edgeTarget(edge));
+                }
+            });
+            return IntStream.range(0, nodeCount).parallel().map(node -> find(parents, node)).toArray();
+        }).join();
+
+        return compact(roots);
+    }
+
+    private static int find(AtomicIntegerArray parents, int node) {
+        while (true) {
+            int parent = parents.get(node);
+            if (parent == node) {
+                return node;
+            }
+
+            // Path halving: a lost race only skips the shortcut, the parent stays a valid ancestor
+            int grandparent = parents.get(parent);
+            if (parent != grandparent) {
+                parents.compareAndSet(node, parent, grandparent);
+            }
+            node = grandparent;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parents, int a, int b) {
+        while (true) {
+            a = find(parents, a);
+            b = find(parents, b);
+            if (a == b) {
+                return;
+            }
+
+            int high = Math.max(a, b);
+            int low = Math.min(a, b);
+            // Succeeds only while high is still a root; otherwise find the new roots and retry
+            if (parents.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Renumbers component labels densely from 0, in the order each label first appears.
+     *
+     * @param labels any node index of the component of every node index, overwritten with the result
+     * @return the labels array, now holding dense component ids
+     */
+    static int[] compact(int[] labels) {
+        int[] ids = new int[labels.length];
+        Arrays.fill(ids, -1);
+
+        int next = 0;
+        for (int i = 0; i < labels.length; i++) {
+            int label = labels[i];
+            if (ids[label] < 0) {
+                ids[label] = next++;
+            }
+            labels[i] = ids[label];
+        }
+        return labels;
+    }
+}
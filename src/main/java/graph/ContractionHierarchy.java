@@ -0,0 +1,778 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A contraction hierarchy (CH) over a {@link CsrGraph}, answering shortest path queries with an
+ * upward-only bidirectional search.
+ * <p>
+ * Preprocessing contracts nodes one importance level at a time. Contracting a node removes it
+ * from the remaining graph and adds a shortcut between two of its neighbors whenever the path
+ * through it is the only shortest one, so distances among the remaining nodes never change. Each
+ * round picks the nodes whose importance is lower than that of all their remaining neighbors;
+ * since those nodes are pairwise independent, their witness searches run in parallel on the
+ * supplied {@link ForkJoinPool}. Importance is the edge difference (shortcuts added minus arcs
+ * removed), weighted twice, plus the number of already contracted neighbors and the depth of the
+ * hierarchy below the node, which both spread contraction evenly over the graph.
+ * <p>
+ * A query searches upward from the source and, against edge direction, upward from the target;
+ * both searches only touch the few high-importance nodes above their origin. Shortcuts on the
+ * resulting path are unpacked into the original {@link Edge} objects.
+ * <p>
+ * The hierarchy is immutable once built and may be queried from many threads at once.
+ *
+ * @param <T> the type of the node data
+ */
+public final class ContractionHierarchy<T> {
+    /**
+     * Upper bound on the nodes a single witness search may settle. A search cut short only adds a
+     * shortcut that may not be strictly needed, so this trades a few extra shortcuts for a bounded
+     * preprocessing cost on dense neighborhoods.
+     */
+    static final int WITNESS_SETTLE_LIMIT = 100;
+
+    /**
+     * Settle limit for the simulated contractions that estimate a node's importance, which only
+     * need to be roughly right and run far more often than real contractions.
+     */
+    static final int PRIORITY_SETTLE_LIMIT = 20;
+
+    private final CsrGraph<T> graph;
+    private final int[] ranks;
+
+    // Arcs from each node to higher ranked nodes, searched by the forward query
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddles;
+
+    // Arcs into each node from higher ranked nodes, stored reversed for the backward query
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMiddles;
+
+    private final int shortcutCount;
+    private final ThreadLocal<Query> queries;
+
+    private ContractionHierarchy(CsrGraph<T> graph, Builder builder) {
+        int nodeCount = graph.nodeCount();
+        this.graph = graph;
+        this.ranks = builder.ranks;
+
+        this.upOffsets = new int[nodeCount + 1];
+        this.downOffsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            upOffsets[node + 1] = upOffsets[node] + builder.out[node].size;
+            downOffsets[node + 1] = downOffsets[node] + builder.in[node].size;
+        }
+
+        this.upTargets = new int[upOffsets[nodeCount]];
+        this.upWeights = new double[upOffsets[nodeCount]];
+        this.upMiddles = new int[upOffsets[nodeCount]];
+        this.downSources = new int[downOffsets[nodeCount]];
+        this.downWeights = new double[downOffsets[nodeCount]];
+        this.downMiddles = new int[downOffsets[nodeCount]];
+
+        int shortcuts = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            shortcuts += builder.out[node].copyTo(upTargets, upWeights, upMiddles, upOffsets[node]);
+            builder.in[node].copyTo(downSources, downWeights, downMiddles, downOffsets[node]);
+        }
+
+        this.shortcutCount = shortcuts;
+        this.queries = ThreadLocal.withInitial(Query::new);
+    }
+
+    /**
+     * Preprocesses a snapshot on the common fork/join pool.
+     *
+     * @param graph the snapshot to preprocess
+     * @param <T> the type of the node data
+     * @return the contraction hierarchy of the snapshot
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public static <T> ContractionHierarchy<T> build(CsrGraph<T> graph) {
+        return build(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Preprocesses a snapshot, running witness searches in parallel on the specified pool.
+     *
+     * @param graph the snapshot to preprocess
+     * @param pool the pool to run the preprocessing on
+     * @param <T> the type of the node data
+     * @return the contraction hierarchy of the snapshot
+     * @throws IllegalArgumentException if graph or pool is null
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public static <T> ContractionHierarchy<T> build(CsrGraph<T> graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("Graph and pool cannot be null");
+        }
+
+        Builder builder = new Builder(graph, pool);
+        builder.contractAll();
+        return new ContractionHierarchy<>(graph, builder);
+    }
+
+    public CsrGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of shortcut arcs added during preprocessing
+     */
+    public int shortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * @param node the node index
+     * @return the position of the node in the contraction order, 0 for the first contracted node
+     */
+    public int rank(int node) {
+        return ranks[node];
+    }
+
+    /**
+     * Creates a reusable query engine for this hierarchy. A query engine is not thread-safe; use one per thread.
+     *
+     * @return a new query engine
+     */
+    public Query newQuery() {
+        return new Query();
+    }
+
+    /**
+     * Computes the shortest distance between two nodes.
+     *
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest distance, or {@code Double.POSITIVE_INFINITY} if the target is unreachable
+     * @throws IllegalArgumentException if either node is not part of the graph
+     */
+    public double distance(Node<T> sourceNode, Node<T> targetNode) {
+        return queries.get().run(indexOf(sourceNode), indexOf(targetNode));
+    }
+
+    /**
+     * Finds the shortest path between two nodes, with every shortcut unpacked into the original edges.
+     *
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest path from the source to the target, or null if the target is unreachable
+     * @throws IllegalArgumentException if either node is not part of the graph
+     */
+    public Path<T> shortestPath(Node<T> sourceNode, Node<T> targetNode) {
+        Query query = queries.get();
+        double distance = query.run(indexOf(sourceNode), indexOf(targetNode));
+        if (distance == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return Path.of(graph, query.path(), distance);
+    }
+
+    private int indexOf(Node<T> node) {
+        int index = graph.indexOf(node);
+        if (index < 0) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+        return index;
+    }
+
+    private static int findArc(int[] offsets, int[] ends, int node, int end) {
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+            if (ends[arc] == end) {
+                return arc;
+            }
+        }
+        throw new IllegalStateException("Missing arc in contraction hierarchy");
+    }
+
+    /**
+     * A reusable upward bidirectional search over the hierarchy. Only the nodes reached by the
+     * previous query are reset, so repeated queries allocate nothing except returned paths.
+     */
+    public final class Query {
+        private final IndexedDaryHeap forwardHeap;
+        private final IndexedDaryHeap backwardHeap;
+        private final double[] forwardDistances;
+        private final double[] backwardDistances;
+        private final int[] forwardParents;
+        private final int[] backwardParents;
+        private final int[] forwardArcs;
+        private final int[] backwardArcs;
+        private final int[] reached;
+        private int reachedCount;
+        private int settledCount;
+        private int[] pathBuffer = new int[64];
+        private int pathLength;
+        private int[] stack = new int[96];
+        private int meetingNode = -1;
+        private double bestDistance = Double.POSITIVE_INFINITY;
+
+        private Query() {
+            int nodeCount = graph.nodeCount();
+            forwardHeap = new IndexedDaryHeap(nodeCount);
+            backwardHeap = new IndexedDaryHeap(nodeCount);
+            forwardDistances = new double[nodeCount];
+            backwardDistances = new double[nodeCount];
+            forwardParents = new int[nodeCount];
+            backwardParents = new int[nodeCount];
+            forwardArcs = new int[nodeCount];
+            backwardArcs = new int[nodeCount];
+            reached = new int[2 * nodeCount];
+            Arrays.fill(forwardDistances, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardDistances, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Computes the shortest distance from the source to the target.
+         *
+         * @param source the index of the source node
+         * @param target the index of the target node
+         * @return the shortest distance, or {@code Double.POSITIVE_INFINITY} if the target is unreachable
+         */
+        public double run(int source, int target) {
+            reset();
+
+            reach(forwardHeap, forwardDistances, forwardParents, forwardArcs, source, 0.0, -1, -1);
+            reach(backwardHeap, backwardDistances, backwardParents, backwardArcs, target, 0.0, -1, -1);
+
+            // Unlike plain bidirectional Dijkstra, each side has to run until its own minimum exceeds
+            // the best distance, since the top of the hierarchy is only reached at the end of a search
+            while (true) {
+                boolean forwardDone = forwardHeap.isEmpty() || forwardHeap.peekKey() >= bestDistance;
+                boolean backwardDone = backwardHeap.isEmpty() || backwardHeap.peekKey() >= bestDistance;
+                if (forwardDone && backwardDone) {
+                    break;
+                }
+
+                if (!forwardDone && (backwardDone || forwardHeap.peekKey() <= backwardHeap.peekKey())) {
+                    step(forwardHeap, forwardDistances, forwardParents, forwardArcs, backwardDistances,
+                            upOffsets, upTargets, upWeights);
+                } else {
+                    step(backwardHeap, backwardDistances, backwardParents, backwardArcs, forwardDistances,
+                            downOffsets, downSources, downWeights);
+                }
+            }
+
+            return bestDistance;
+        }
+
+        /**
+         * @return the shortest distance found by the last query
+         */
+        public double distance() {
+            return bestDistance;
+        }
+
+        /**
+         * @return the number of nodes settled by both searches of the last query
+         */
+        public int settledCount() {
+            return settledCount;
+        }
+
+        /**
+         * Reconstructs the shortest path found by the last query, with every shortcut unpacked.
+         *
+         * @return the original node indices on the path from the source to the target, or an empty
+         *         array if the target was unreachable
+         */
+        public int[] path() {
+            if (meetingNode < 0) {
+                return new int[0];
+            }
+
+            // Collect the hierarchy arcs from the source up to the meeting node and down to the target
+            int upCount = 0;
+            for (int node = meetingNode; forwardParents[node] >= 0; node = forwardParents[node]) {
+                upCount++;
+            }
+            int downCount = 0;
+            for (int node = meetingNode; backwardParents[node] >= 0; node = backwardParents[node]) {
+                downCount++;
+            }
+
+            int[] froms = new int[upCount + downCount];
+            int[] tos = new int[upCount + downCount];
+            int[] middles = new int[upCount + downCount];
+
+            int i = upCount - 1;
+            for (int node = meetingNode; forwardParents[node] >= 0; node = forwardParents[node]) {
+                froms[i] = forwardParents[node];
+                tos[i] = node;
+                middles[i--] = upMiddles[forwardArcs[node]];
+            }
+            i = upCount;
+            for (int node = meetingNode; backwardParents[node] >= 0; node = backwardParents[node]) {
+                froms[i] = node;
+                tos[i] = backwardParents[node];
+                middles[i++] = downMiddles[backwardArcs[node]];
+            }
+
+            pathBuffer[0] = upCount > 0 ? froms[0] : meetingNode;
+            pathLength = 1;
+            for (int arc = 0; arc < froms.length; arc++) {
+                unpack(froms[arc], tos[arc], middles[arc]);
+            }
+
+            return Arrays.copyOf(pathBuffer, pathLength);
+        }
+
+        /**
+         * Appends the original nodes of the arc from {@code from} to {@code to}, excluding {@code from},
+         * to the path buffer.
+         */
+        private void unpack(int from, int to, int middle) {
+            // The stack holds pending arcs as (from, to, middle) triples, the later half of each split below the earlier one
+            int top = 0;
+            stack[top++] = from;
+            stack[top++] = to;
+            stack[top++] = middle;
+
+            while (top > 0) {
+                int m = stack[--top];
+                int t = stack[--top];
+                int f = stack[--top];
+
+                if (m < 0) {
+                    if (pathLength == pathBuffer.length) {
+                        pathBuffer = Arrays.copyOf(pathBuffer, pathLength * 2);
+                    }
+                    pathBuffer[pathLength++] = t;
+                    continue;
+                }
+
+                // Both halves of a shortcut were arcs of the middle node when it was contracted
+                int second = findArc(upOffsets, upTargets, m, t);
+                int first = findArc(downOffsets, downSources, m, f);
+
+                if (top + 6 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = m;
+                stack[top++] = t;
+                stack[top++] = upMiddles[second];
+                stack[top++] = f;
+                stack[top++] = m;
+                stack[top++] = downMiddles[first];
+            }
+        }
+
+        private void step(IndexedDaryHeap heap, double[] distances, int[] parents, int[] arcs, double[] otherDistances,
+                          int[] offsets, int[] ends, double[] weights) {
+            int node = heap.poll();
+            settledCount++;
+            double distance = distances[node];
+
+            double throughNode = distance + otherDistances[node];
+            if (throughNode < bestDistance) {
+                bestDistance = throughNode;
+                meetingNode = node;
+            }
+
+            for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+                int neighbour = ends[arc];
+                double newDist = distance + weights[arc];
+                if (newDist < distances[neighbour]) {
+                    reach(heap, distances, parents, arcs, neighbour, newDist, node, arc);
+                }
+            }
+        }
+
+        private void reach(IndexedDaryHeap heap, double[] distances, int[] parents, int[] arcs,
+                           int node, double distance, int parent, int arc) {
+            if (distances[node] == Double.POSITIVE_INFINITY) {
+                reached[reachedCount++] = node;
+            }
+            distances[node] = distance;
+            parents[node] = parent;
+            arcs[node] = arc;
+            heap.insertOrDecrease(node, distance);
+        }
+
+        private void reset() {
+            for (int i = 0; i < reachedCount; i++) {
+                forwardDistances[reached[i]] = Double.POSITIVE_INFINITY;
+                backwardDistances[reached[i]] = Double.POSITIVE_INFINITY;
+            }
+            reachedCount = 0;
+            settledCount = 0;
+            meetingNode = -1;
+            bestDistance = Double.POSITIVE_INFINITY;
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+    }
+
+    /**
+     * A growable list of arcs from or to a node, used while the hierarchy is being built.
+     */
+    private static final class Arcs {
+        int[] ends = new int[4];
+        double[] weights = new double[4];
+        int[] middles = new int[4];
+        int size;
+
+        int find(int end) {
+            for (int i = 0; i < size; i++) {
+                if (ends[i] == end) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds an arc, or lowers the weight of the existing arc with the same end.
+         */
+        void add(int end, double weight, int middle) {
+            int i = find(end);
+            if (i >= 0) {
+                if (weight < weights[i]) {
+                    weights[i] = weight;
+                    middles[i] = middle;
+                }
+                return;
+            }
+
+            if (size == ends.length) {
+                int capacity = size * 2;
+                ends = Arrays.copyOf(ends, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                middles = Arrays.copyOf(middles, capacity);
+            }
+            ends[size] = end;
+            weights[size] = weight;
+            middles[size++] = middle;
+        }
+
+        void remove(int end) {
+            int i = find(end);
+            if (i >= 0) {
+                size--;
+                ends[i] = ends[size];
+                weights[i] = weights[size];
+                middles[i] = middles[size];
+            }
+        }
+
+        int copyTo(int[] toEnds, double[] toWeights, int[] toMiddles, int offset) {
+            int shortcuts = 0;
+            System.arraycopy(ends, 0, toEnds, offset, size);
+            System.arraycopy(weights, 0, toWeights, offset, size);
+            System.arraycopy(middles, 0, toMiddles, offset, size);
+            for (int i = 0; i < size; i++) {
+                if (middles[i] >= 0) {
+                    shortcuts++;
+                }
+            }
+            return shortcuts;
+        }
+    }
+
+    /**
+     * The mutable state of the preprocessing. The remaining graph is kept as per-node out and in
+     * arc lists; once a node is contracted its lists are frozen and become its upward arcs.
+     */
+    private static final class Builder {
+        final int nodeCount;
+        final ForkJoinPool pool;
+        final Arcs[] out;
+        final Arcs[] in;
+        final int[] ranks;
+        final boolean[] contracted;
+        final boolean[] contracting;
+        final int[] priorities;
+        final int[] deletedNeighbors;
+        final int[] levels;
+        final boolean[] dirty;
+        final ThreadLocal<WitnessSearch> witnessSearches;
+
+        Builder(CsrGraph<?> graph, ForkJoinPool pool) {
+            this.nodeCount = graph.nodeCount();
+            this.pool = pool;
+            this.out = new Arcs[nodeCount];
+            this.in = new Arcs[nodeCount];
+            this.ranks = new int[nodeCount];
+            this.contracted = new boolean[nodeCount];
+            this.contracting = new boolean[nodeCount];
+            this.priorities = new int[nodeCount];
+            this.deletedNeighbors = new int[nodeCount];
+            this.levels = new int[nodeCount];
+            this.dirty = new boolean[nodeCount];
+            this.witnessSearches = ThreadLocal.withInitial(() -> new WitnessSearch(nodeCount));
+
+            for (int node = 0; node < nodeCount; node++) {
+                out[node] = new Arcs();
+                in[node] = new Arcs();
+            }
+
+            for (int node = 0; node < nodeCount; node++) {
+                for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                    double weight = graph.edgeWeight(edge);
+                    if (weight < 0) {
+                        throw GraphAlgorithms.negativeWeight(weight);
+                    }
+
+                    int target = graph.edgeTarget(edge);
+                    if (target != node) {
+                        out[node].add(target, weight, -1);
+                        in[target].add(node, weight, -1);
+                    }
+                }
+            }
+        }
+
+        void contractAll() {
+            int[] remaining = IntStream.range(0, nodeCount).toArray();
+            run(() -> IntStream.range(0, nodeCount).parallel().forEach(node -> priorities[node] = priority(node)));
+
+            int rank = 0;
+            while (remaining.length > 0) {
+                final int[] candidates = remaining;
+                int[] selected = run(() -> Arrays.stream(candidates).parallel().filter(this::isLocalMinimum).toArray());
+
+                for (int node : selected) {
+                    contracting[node] = true;
+                }
+
+                // Witness searches for all selected nodes only read the remaining graph
+                int[][] shortcuts = new int[selected.length][];
+                double[][] shortcutWeights = new double[selected.length][];
+                run(() -> IntStream.range(0, selected.length).parallel().forEach(i -> {
+                    WitnessSearch search = witnessSearches.get();
+                    search.findShortcuts(this, selected[i], true);
+                    shortcuts[i] = search.shortcutPairs();
+                    shortcutWeights[i] = search.shortcutWeights();
+                }));
+
+                for (int i = 0; i < selected.length; i++) {
+                    int node = selected[i];
+                    ranks[node] = rank++;
+                    contracted[node] = true;
+                    contracting[node] = false;
+                    removeFromNeighbors(node);
+
+                    int[] pairs = shortcuts[i];
+                    double[] weights = shortcutWeights[i];
+                    for (int s = 0; s < weights.length; s++) {
+                        int from = pairs[2 * s];
+                        int to = pairs[2 * s + 1];
+                        out[from].add(to, weights[s], node);
+                        in[to].add(from, weights[s], node);
+                    }
+                }
+
+                remaining = Arrays.stream(remaining).filter(node -> !contracted[node]).toArray();
+
+                final int[] left = remaining;
+                run(() -> Arrays.stream(left).parallel().filter(node -> dirty[node]).forEach(node -> {
+                    dirty[node] = false;
+                    priorities[node] = priority(node);
+                }));
+            }
+        }
+
+        private void removeFromNeighbors(int node) {
+            Arcs outArcs = out[node];
+            for (int i = 0; i < outArcs.size; i++) {
+                int neighbour = outArcs.ends[i];
+                in[neighbour].remove(node);
+                deletedNeighbors[neighbour]++;
+                levels[neighbour] = Math.max(levels[neighbour], levels[node] + 1);
+                dirty[neighbour] = true;
+            }
+
+            Arcs inArcs = in[node];
+            for (int i = 0; i < inArcs.size; i++) {
+                int neighbour = inArcs.ends[i];
+                out[neighbour].remove(node);
+                deletedNeighbors[neighbour]++;
+                levels[neighbour] = Math.max(levels[neighbour], levels[node] + 1);
+                dirty[neighbour] = true;
+            }
+        }
+
+        private int priority(int node) {
+            WitnessSearch search = witnessSearches.get();
+            int shortcuts = search.findShortcuts(this, node, false);
+            return 2 * (shortcuts - out[node].size - in[node].size) + deletedNeighbors[node] + levels[node];
+        }
+
+        /**
+         * A node is contracted this round if it is less important than every remaining neighbor,
+         * with ties broken by index, which makes the selected nodes pairwise non-adjacent.
+         */
+        private boolean isLocalMinimum(int node) {
+            return isBelowAll(node, out[node]) && isBelowAll(node, in[node]);
+        }
+
+        private boolean isBelowAll(int node, Arcs arcs) {
+            int priority = priorities[node];
+            for (int i = 0; i < arcs.size; i++) {
+                int neighbour = arcs.ends[i];
+                int other = priorities[neighbour];
+                if (other < priority || (other == priority && neighbour < node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private <R> R run(Callable<R> task) {
+            return pool.submit(task).join();
+        }
+
+        private void run(Runnable task) {
+            pool.submit(task).join();
+        }
+    }
+
+    /**
+     * A bounded local Dijkstra used to decide which shortcuts contracting a node requires. One
+     * instance per worker thread; arrays are sized for the whole graph and reset by touched nodes.
+     */
+    private static final class WitnessSearch {
+        final IndexedDaryHeap heap;
+        final double[] distances;
+        final boolean[] isTarget;
+        final int[] reached;
+        int reachedCount;
+
+        int[] pairs = new int[16];
+        double[] weights = new double[8];
+        int count;
+
+        WitnessSearch(int nodeCount) {
+            heap = new IndexedDaryHeap(nodeCount);
+            distances = new double[nodeCount];
+            isTarget = new boolean[nodeCount];
+            reached = new int[nodeCount];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Finds the shortcuts contracting the node would add. When {@code excludeContracting} is set,
+         * witnesses may not pass through any node selected in the current round either, since those
+         * are removed together with this one.
+         *
+         * @return the number of shortcuts
+         */
+        int findShortcuts(Builder builder, int node, boolean excludeContracting) {
+            count = 0;
+            Arcs inArcs = builder.in[node];
+            Arcs outArcs = builder.out[node];
+
+            double maxOut = 0.0;
+            for (int i = 0; i < outArcs.size; i++) {
+                maxOut = Math.max(maxOut, outArcs.weights[i]);
+            }
+
+            for (int i = 0; i < inArcs.size; i++) {
+                int from = inArcs.ends[i];
+                double inWeight = inArcs.weights[i];
+
+                int targets = 0;
+                for (int j = 0; j < outArcs.size; j++) {
+                    if (outArcs.ends[j] != from && !isTarget[outArcs.ends[j]]) {
+                        isTarget[outArcs.ends[j]] = true;
+                        targets++;
+                    }
+                }
+
+                search(builder, from, node, inWeight + maxOut, targets,
+                        excludeContracting ? WITNESS_SETTLE_LIMIT : PRIORITY_SETTLE_LIMIT, excludeContracting);
+
+                for (int j = 0; j < outArcs.size; j++) {
+                    isTarget[outArcs.ends[j]] = false;
+                }
+
+                for (int j = 0; j < outArcs.size; j++) {
+                    int to = outArcs.ends[j];
+                    if (to == from) {
+                        continue;
+                    }
+
+                    double viaNode = inWeight + outArcs.weights[j];
+                    if (distances[to] > viaNode) {
+                        addShortcut(from, to, viaNode);
+                    }
+                }
+            }
+
+            return count;
+        }
+
+        private void search(Builder builder, int from, int avoid, double limit, int targets, int settleLimit,
+                            boolean excludeContracting) {
+            for (int i = 0; i < reachedCount; i++) {
+                distances[reached[i]] = Double.POSITIVE_INFINITY;
+            }
+            reachedCount = 0;
+            heap.clear();
+
+            distances[from] = 0.0;
+            reached[reachedCount++] = from;
+            heap.insert(from, 0.0);
+
+            int settled = 0;
+            while (!heap.isEmpty() && settled < settleLimit && targets > 0) {
+                if (heap.peekKey() > limit) {
+                    break;
+                }
+
+                int current = heap.poll();
+                settled++;
+                if (isTarget[current]) {
+                    targets--;
+                }
+                double distance = distances[current];
+
+                Arcs arcs = builder.out[current];
+                for (int i = 0; i < arcs.size; i++) {
+                    int neighbour = arcs.ends[i];
+                    if (neighbour == avoid || (excludeContracting && builder.contracting[neighbour])) {
+                        continue;
+                    }
+
+                    double newDist = distance + arcs.weights[i];
+                    if (newDist < distances[neighbour]) {
+                        if (distances[neighbour] == Double.POSITIVE_INFINITY) {
+                            reached[reachedCount++] = neighbour;
+                        }
+                        distances[neighbour] = newDist;
+                        heap.insertOrDecrease(neighbour, newDist);
+                    }
+                }
+            }
+        }
+
+        private void addShortcut(int from, int to, double weight) {
+            if (count == weights.length) {
+                weights = Arrays.copyOf(weights, count * 2);
+                pairs = Arrays.copyOf(pairs, count * 4);
+            }
+            pairs[2 * count] = from;
+            pairs[2 * count + 1] = to;
+            weights[count++] = weight;
+        }
+
+        /**
+         * @return the shortcuts found by the last call as flattened (from, to) pairs
+         */
+        int[] shortcutPairs() {
+            return Arrays.copyOf(pairs, 2 * count);
+        }
+
+        double[] shortcutWeights() {
+            return Arrays.copyOf(weights, count);
+        }
+    }
+}
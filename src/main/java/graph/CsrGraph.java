@@ -0,0 +1,221 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable compressed-sparse-row (CSR) snapshot of a {@link Graph}.
+ * <p>
+ * Nodes are numbered {@code 0..nodeCount()-1} in the order of {@link Graph#getNodes()} and the
+ * adjacency is stored in three flat arrays: {@code offsets}, {@code targets} and {@code weights}.
+ * Edges keep the order of {@link Node#getEdges()}, so traversals over a snapshot visit nodes in
+ * the same order as traversals over the live graph. Later changes to the source graph are not
+ * reflected in the snapshot.
+ *
+ * @param <T> the type of the node data
+ */
+public final class CsrGraph<T> implements IndexedGraph {
+    private final Node<T>[] nodes;
+
+    // Snapshot index of every node, keyed by node id; -1 for ids not in the snapshot
+    private final int[] indices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final boolean directed;
+    // True if the nodes have no edges of their own, so the arrays are the only copy of the edges
+    private final boolean standalone;
+
+    private volatile CsrGraph<T> transpose;
+
+    private CsrGraph(Node<T>[] nodes, int[] indices, int[] offsets, int[] targets, double[] weights, boolean directed,
+                     boolean standalone) {
+        this.nodes = nodes;
+        this.indices = indices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.directed = directed;
+        this.standalone = standalone;
+    }
+
+    /**
+     * Freezes the current state of a graph into a CSR snapshot.
+     *
+     * @param graph the graph to freeze
+     * @param <T> the type of the node data
+     * @return a new snapshot of the graph
+     * @throws IllegalArgumentException if graph is null or an edge points outside the graph
+     */
+    public static <T> CsrGraph<T> of(Graph<T> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+
+        List<Node<T>> nodeList = graph.getNodes();
+        int nodeCount = nodeList.size();
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<T>[] nodes = nodeList.toArray(new Node[0]);
+        int idBound = 0;
+        for (Node<T> node : nodes) {
+            idBound = Math.max(idBound, node.getId() + 1);
+        }
+
+        int[] indices = new int[idBound];
+        Arrays.fill(indices, -1);
+        int[] offsets = new int[nodeCount + 1];
+
+        // Read every edge list once, so both passes agree even if a concurrent graph changes meanwhile
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Edge<T>>[] edgeLists = new List[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            indices[nodes[i].getId()] = i;
+            edgeLists[i] = graph.getEdges(nodes[i]);
+            offsets[i + 1] = offsets[i] + edgeLists[i].size();
+        }
+
+        int[] targets = new int[offsets[nodeCount]];
+        double[] weights = new double[offsets[nodeCount]];
+
+        int edge = 0;
+        for (List<Edge<T>> edges : edgeLists) {
+            for (Edge<T> e : edges) {
+                Node<T> toNode = e.getToNode();
+                int target = toNode.getId() < idBound ? indices[toNode.getId()] : -1;
+                if (target < 0 || nodes[target] != toNode) {
+                    throw new IllegalArgumentException("Edge points to a node outside the graph");
+                }
+
+                targets[edge] = target;
+                weights[edge] = e.getWeight();
+                edge++;
+            }
+        }
+
+        return new CsrGraph<>(nodes, indices, offsets, targets, weights, graph.isDirected(), false);
+    }
+
+    /**
+     * Wraps adjacency arrays laid out by a bulk builder, whose node i has id i and no edges of its own.
+     */
+    static <T> CsrGraph<T> of(Node<T>[] nodes, int[] offsets, int[] targets, double[] weights, boolean directed) {
+        int[] indices = new int[nodes.length];
+        Arrays.setAll(indices, i -> i);
+        return new CsrGraph<>(nodes, indices, offsets, targets, weights, directed, true);
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int edgeStart(int node) {
+        return offsets[node];
+    }
+
+    @Override
+    public int edgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public double edgeWeight(int edge) {
+        return weights[edge];
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Returns the node at the specified index.
+     *
+     * @param index the node index
+     * @return the node at that index
+     */
+    public Node<T> getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the index of the specified node in this snapshot.
+     *
+     * @param node the node to look up
+     * @return the index of the node, or -1 if the node is not part of the snapshot
+     */
+    public int indexOf(Node<T> node) {
+        if (node == null || node.getId() >= indices.length) {
+            return -1;
+        }
+
+        int index = indices[node.getId()];
+        return index >= 0 && nodes[index] == node ? index : -1;
+    }
+
+    /**
+     * @return true if the nodes of this snapshot have no edges of their own, as for graphs built
+     *         directly in CSR form, so edges exist only in the snapshot
+     */
+    boolean isStandalone() {
+        return standalone;
+    }
+
+    /**
+     * Returns a snapshot with every edge reversed, sharing the node numbering of this snapshot.
+     * Undirected snapshots are their own transpose. The transpose is built on first use and cached.
+     *
+     * @return the transposed snapshot
+     */
+    public CsrGraph<T> transpose() {
+        if (!directed) {
+            return this;
+        }
+
+        CsrGraph<T> result = transpose;
+        if (result == null) {
+            result = buildTranspose();
+            transpose = result;
+        }
+        return result;
+    }
+
+    private CsrGraph<T> buildTranspose() {
+        int nodeCount = nodes.length;
+        int[] reverseOffsets = new int[nodeCount + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+
+        int[] next = Arrays.copyOf(reverseOffsets, nodeCount);
+        int[] reverseTargets = new int[targets.length];
+        double[] reverseWeights = new double[weights.length];
+
+        for (int from = 0; from < nodeCount; from++) {
+            for (int edge = offsets[from]; edge < offsets[from + 1]; edge++) {
+                int slot = next[targets[edge]]++;
+                reverseTargets[slot] = from;
+                reverseWeights[slot] = weights[edge];
+            }
+        }
+
+        CsrGraph<T> reversed = new CsrGraph<>(nodes, indices, reverseOffsets, reverseTargets, reverseWeights, true, standalone);
+        reversed.transpose = this;
+        return reversed;
+    }
+}
@@ -0,0 +1,259 @@
+package graph;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * A parallel single-source shortest path solver using the delta-stepping algorithm of Meyer and
+ * Sanders, over an {@link IndexedGraph}.
+ * <p>
+ * Tentative distances are grouped into buckets of width {@code delta}. The lowest non-empty bucket
+ * is emptied by relaxing the light edges (weight at most {@code delta}) of all its nodes in
+ * parallel, repeating while relaxations refill it; the heavy edges of every node removed from the
+ * bucket are then relaxed once, also in parallel. Small deltas approach Dijkstra's settle order,
+ * large deltas approach Bellman-Ford's parallelism. Distances are updated with a lock-free
+ * compare-and-set minimum on their bit patterns, which order like the values themselves for
+ * non-negative doubles.
+ * <p>
+ * Like {@link GraphAlgorithms#dijkstra(Graph, Node)}, the solver requires non-negative weights. A
+ * solver holds no per-query state and may be shared between threads.
+ */
+public final class DeltaStepping {
+    /**
+     * Nodes per task when relaxing a bucket in parallel.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    private final IndexedGraph graph;
+    private final ForkJoinPool pool;
+    private final double delta;
+
+    /**
+     * Constructs a solver on the common fork/join pool with an automatically selected bucket width.
+     *
+     * @param graph the graph to search
+     * @see #defaultDelta(IndexedGraph)
+     */
+    public DeltaStepping(IndexedGraph graph) {
+        this(graph, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a solver.
+     *
+     * @param graph the graph to search
+     * @param delta the bucket width
+     * @param pool the pool to run relaxations on
+     * @throws IllegalArgumentException if graph or pool is null or delta is not positive
+     */
+    public DeltaStepping(IndexedGraph graph, double delta, ForkJoinPool pool) {
+        if (graph == null || pool == null || !(delta > 0) || Double.isInfinite(delta)) {
+            throw new IllegalArgumentException("Invalid graph, delta or pool");
+        }
+
+        this.graph = graph;
+        this.delta = delta;
+        this.pool = pool;
+    }
+
+    /**
+     * Selects a bucket width from the edge-weight distribution: the maximum weight divided by the
+     * average degree, which Meyer and Sanders show keeps the number of phases and the wasted
+     * re-relaxations balanced for random weights. Falls back to 1.0 for graphs without positive weights.
+     *
+     * @param graph the graph
+     * @return the bucket width to use
+     */
+    public static double defaultDelta(IndexedGraph graph) {
+        int edgeCount = graph.edgeCount();
+        if (edgeCount == 0) {
+            return 1.0;
+        }
+
+        // Edge indices need not be dense, so the weights are read node by node
+        double maxWeight = IntStream.range(0, graph.nodeCount()).parallel()
+                .mapToDouble(node -> {
+                    double max = 0.0;
+                    for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                        max = Math.max(max, graph.edgeWeight(edge));
+                    }
+                    return max;
+                })
+                .max().orElse(0.0);
+        if (!(maxWeight > 0) || Double.isInfinite(maxWeight)) {
+            return 1.0;
+        }
+
+        double averageDegree = Math.max(1.0, (double) edgeCount / graph.nodeCount());
+        return maxWeight / averageDegree;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Computes the shortest distances from the source to every node.
+     *
+     * @param source the index of the source node
+     * @return the shortest distance to every node index, {@code Double.POSITIVE_INFINITY} if unreachable
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public double[] run(int source) {
+        return pool.submit(() -> search(source)).join();
+    }
+
+    private double[] search(int source) {
+        int nodeCount = graph.nodeCount();
+        AtomicLongArray distances = new AtomicLongArray(nodeCount);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < nodeCount; i++) {
+            distances.lazySet(i, infinity);
+        }
+        distances.set(source, Double.doubleToRawLongBits(0.0));
+
+        // Marks a node as queued during the current phase, so each phase queues it at most once
+        int[] queuedInPhase = new int[nodeCount];
+        int phase = 0;
+
+        // Marks a node as taken from the current bucket, so duplicate entries are processed once per refill
+        int[] takenInRound = new int[nodeCount];
+        int round = 0;
+        int[] removedInBucket = new int[nodeCount];
+        int bucketStamp = 0;
+
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        IntList first = new IntList();
+        first.add(source);
+        buckets.put(0L, first);
+
+        IntList removed = new IntList();
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntList> lowest = buckets.pollFirstEntry();
+            long bucket = lowest.getKey();
+            IntList current = lowest.getValue();
+            removed.clear();
+
+            bucketStamp++;
+            while (current != null) {
+                int[] nodes = liveNodes(current, distances, bucket, takenInRound, ++round);
+                for (int node : nodes) {
+                    if (removedInBucket[node] != bucketStamp) {
+                        removedInBucket[node] = bucketStamp;
+                        removed.add(node);
+                    }
+                }
+
+                int[][] improved = relax(nodes, distances, true);
+                current = null;
+                phase++;
+                for (int[] part : improved) {
+                    for (int node : part) {
+                        if (queuedInPhase[node] == phase) {
+                            continue;
+                        }
+                        queuedInPhase[node] = phase;
+
+                        long target = bucketOf(distances.get(node));
+                        if (target == bucket) {
+                            current = current == null ? new IntList() : current;
+                            current.add(node);
+                        } else {
+                            buckets.computeIfAbsent(target, key -> new IntList()).add(node);
+                        }
+                    }
+                }
+            }
+
+            int[][] improved = relax(removed.toArray(), distances, false);
+            phase++;
+            for (int[] part : improved) {
+                for (int node : part) {
+                    if (queuedInPhase[node] != phase) {
+                        queuedInPhase[node] = phase;
+                        buckets.computeIfAbsent(bucketOf(distances.get(node)), key -> new IntList()).add(node);
+                    }
+                }
+            }
+        }
+
+        double[] result = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            result[i] = Double.longBitsToDouble(distances.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Drops stale entries: nodes whose distance improved into a lower bucket after they were queued
+     * here, or that already appeared earlier in the list.
+     */
+    private int[] liveNodes(IntList list, AtomicLongArray distances, long bucket, int[] taken, int round) {
+        IntList live = new IntList();
+        for (int i = 0; i < list.size; i++) {
+            int node = list.values[i];
+            if (taken[node] != round && bucketOf(distances.get(node)) == bucket) {
+                taken[node] = round;
+                live.add(node);
+            }
+        }
+        return live.toArray();
+    }
+
+    /**
+     * Relaxes the light or heavy edges of the given nodes in parallel.
+     *
+     * @return per task, the nodes whose distance this task lowered
+     */
+    private int[][] relax(int[] nodes, AtomicLongArray distances, boolean light) {
+        int chunkCount = (nodes.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return IntStream.range(0, chunkCount).parallel().mapToObj(chunk -> {
+            IntList improved = new IntList();
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, nodes.length); i < end; i++) {
+                int node = nodes[i];
+                double distance = Double.longBitsToDouble(distances.get(node));
+
+                for (int edge = graph.edgeStart(node), edgeEnd = graph.edgeEnd(node); edge < edgeEnd; edge++) {
+                    double edgeWeight = graph.edgeWeight(edge);
+                    if (edgeWeight < 0) {
+                        throw GraphAlgorithms.negativeWeight(edgeWeight);
+                    }
+                    if ((edgeWeight <= delta) != light) {
+                        continue;
+                    }
+
+                    int neighbour = graph.edgeTarget(edge);
+                    if (lowerDistance(distances, neighbour, distance + edgeWeight)) {
+                        improved.add(neighbour);
+                    }
+                }
+            }
+            return improved.toArray();
+        }).toArray(int[][]::new);
+    }
+
+    /**
+     * Atomically lowers the distance of a node.
+     *
+     * @return true if this call lowered the distance
+     */
+    private static boolean lowerDistance(AtomicLongArray distances, int node, double distance) {
+        long bits = Double.doubleToRawLongBits(distance);
+        while (true) {
+            long current = distances.get(node);
+            if (bits >= current) {
+                return false;
+            }
+            if (distances.compareAndSet(node, current, bits)) {
+                return true;
+            }
+        }
+    }
+
+    private long bucketOf(long distanceBits) {
+        return (long) (Double.longBitsToDouble(distanceBits) / delta);
+    }
+}
@@ -0,0 +1,291 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A reusable single-source shortest path engine over an {@link IndexedGraph}.
+ * <p>
+ * The engine keeps its tentative distances, predecessor links and settled set in primitive
+ * arrays keyed by node index, and orders the frontier with an {@link IndexedDaryHeap} using real
+ * decrease-key instead of re-inserting duplicates. All state is allocated once per engine; each
+ * query only resets the nodes the previous query reached, so repeated queries on the same graph
+ * allocate nothing.
+ * <p>
+ * Results stay valid until the next query. An engine is not thread-safe; use one per thread.
+ */
+public final class DijkstraEngine {
+    private final IndexedGraph graph;
+    private final IndexedDaryHeap heap;
+    private final double[] distances;
+    private final int[] parents;
+    private final BitSet settled;
+    private final int[] reached;
+    private int reachedCount;
+    private int source = -1;
+    private long scannedEdges;
+
+    /**
+     * Constructs an engine for the specified graph using a heap of the default arity.
+     *
+     * @param graph the graph to search
+     */
+    public DijkstraEngine(IndexedGraph graph) {
+        this(graph, IndexedDaryHeap.DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs an engine for the specified graph.
+     *
+     * @param graph the graph to search
+     * @param arity the arity of the underlying heap
+     * @throws IllegalArgumentException if graph is null
+     */
+    public DijkstraEngine(IndexedGraph graph, int arity) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+
+        int nodeCount = graph.nodeCount();
+        this.graph = graph;
+        this.heap = new IndexedDaryHeap(nodeCount, arity);
+        this.distances = new double[nodeCount];
+        this.parents = new int[nodeCount];
+        this.settled = new BitSet(nodeCount);
+        this.reached = new int[nodeCount];
+
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Computes the shortest distances from the source to every reachable node.
+     *
+     * @param source the index of the source node
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public void run(int source) {
+        start(source);
+
+        while (!heap.isEmpty()) {
+            settle(heap.poll());
+        }
+    }
+
+    /**
+     * Computes the shortest distance from the source to the target, stopping as soon as the
+     * target is settled. Nodes settled before the target keep their final distances.
+     *
+     * @param source the index of the source node
+     * @param target the index of the target node
+     * @return true if the target is reachable from the source
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public boolean run(int source, int target) {
+        start(source);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            settle(node);
+            if (node == target) {
+                heap.clear();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Computes the shortest distances from the source to a set of targets, stopping as soon as
+     * every target is settled. Nodes settled before the last target keep their final distances;
+     * targets left unsettled are unreachable.
+     *
+     * @param source the index of the source node
+     * @param targets the indices of the target nodes
+     * @return the number of targets reachable from the source
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public int run(int source, BitSet targets) {
+        start(source);
+        int remaining = targets.cardinality();
+        int found = 0;
+
+        while (found < remaining && !heap.isEmpty()) {
+            int node = heap.poll();
+            settle(node);
+            if (targets.get(node)) {
+                found++;
+            }
+        }
+
+        heap.clear();
+        return found;
+    }
+
+    /**
+     * Reconstructs the shortest path to a node settled by the last query by following the
+     * predecessor links back to the source.
+     *
+     * @param target the index of the target node
+     * @return the node indices on the path from the source to the target, or an empty array if
+     *         the target was not settled
+     */
+    public int[] pathTo(int target) {
+        if (!settled.get(target)) {
+            return new int[0];
+        }
+
+        int length = 1;
+        for (int node = target; parents[node] >= 0; node = parents[node]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        for (int node = target, i = length - 1; i >= 0; node = parents[node], i--) {
+            path[i] = node;
+        }
+        return path;
+    }
+
+    /**
+     * @return the source of the last query, or -1 if no query ran yet
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * @param node the node index
+     * @return the distance found by the last query, {@code Double.POSITIVE_INFINITY} if not reached
+     */
+    public double distance(int node) {
+        return distances[node];
+    }
+
+    /**
+     * @param node the node index
+     * @return the predecessor of the node on its shortest path, or -1 for the source and unreached nodes
+     */
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @param node the node index
+     * @return true if the last query settled the node, i.e. its distance is final
+     */
+    public boolean isSettled(int node) {
+        return settled.get(node);
+    }
+
+    /**
+     * @return the number of nodes settled by the last query
+     */
+    public int settledCount() {
+        return settled.cardinality();
+    }
+
+    /**
+     * @return the number of nodes the last query assigned a finite distance to
+     */
+    public int reachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * @param i an index in {@code [0, reachedCount())}
+     * @return the i-th node reached by the last query, in the order they were first reached
+     */
+    public int reachedNode(int i) {
+        return reached[i];
+    }
+
+    /**
+     * Copies the distances of the last query into a new array indexed by node.
+     *
+     * @return the shortest distance to every node, {@code Double.POSITIVE_INFINITY} if unreachable
+     */
+    public double[] copyDistances() {
+        return distances.clone();
+    }
+
+    /**
+     * Maps the distances of the last query back to the nodes of a CSR snapshot.
+     *
+     * @param snapshot the snapshot this engine searches
+     * @param <T> the type of the node data
+     * @return a map of every node to its shortest distance from the source
+     * @throws IllegalArgumentException if the snapshot is not the graph of this engine
+     */
+    public <T> Map<Node<T>, Double> toDistanceMap(CsrGraph<T> snapshot) {
+        if (snapshot != graph) {
+            throw new IllegalArgumentException("Snapshot must be the graph of this engine");
+        }
+
+        Map<Node<T>, Double> result = new HashMap<>(distances.length * 2);
+        for (int i = 0; i < distances.length; i++) {
+            result.put(snapshot.getNode(i), distances[i]);
+        }
+        return result;
+    }
+
+    private void start(int source) {
+        for (int i = 0; i < reachedCount; i++) {
+            int node = reached[i];
+            distances[node] = Double.POSITIVE_INFINITY;
+            parents[node] = -1;
+            settled.clear(node);
+        }
+        reachedCount = 0;
+        scannedEdges = 0;
+        heap.clear();
+
+        this.source = source;
+        distances[source] = 0.0;
+        reached[reachedCount++] = source;
+        heap.insert(source, 0.0);
+    }
+
+    /**
+     * @return the number of edges scanned from the nodes settled by the last query
+     */
+    long scannedEdges() {
+        return scannedEdges;
+    }
+
+    IndexedDaryHeap heap() {
+        return heap;
+    }
+
+    private void settle(int node) {
+        settled.set(node);
+        double distance = distances[node];
+        scannedEdges += graph.edgeEnd(node) - graph.edgeStart(node);
+
+        for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+            double edgeWeight = graph.edgeWeight(edge);
+            if (edgeWeight < 0) {
+                throw GraphAlgorithms.negativeWeight(edgeWeight);
+            }
+
+            int neighbour = graph.edgeTarget(edge);
+            double newDist = distance + edgeWeight;
+
+            if (newDist < distances[neighbour]) {
+                if (distances[neighbour] == Double.POSITIVE_INFINITY) {
+                    reached[reachedCount++] = neighbour;
+                }
+                distances[neighbour] = newDist;
+                parents[neighbour] = node;
+                heap.insertOrDecrease(neighbour, newDist);
+            }
+        }
+    }
+}
@@ -1,23 +1,49 @@
 package graph;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents a directed graph.
+ * <p>
+ * Besides the out-edges every node holds, the graph can index the in-edges of every node, so that
+ * predecessors, in-degrees and node removal cost O(degree) instead of a pass over the whole graph.
+ * The index is built on the first query that needs it and then kept in sync by every change.
+ * Removed nodes leave a gap in the ids, which are never reused.
  *
  * @param <T> the type of the node data
  */
 public class DirectedGraph<T> implements Graph<T> {
-    private final List<Node<T>> nodes;
+    // Nodes by id, with tombstones for removed nodes; also the read-only list of the live nodes
+    private final NodeList<T> nodes;
+
+    // In-edges by ending node id, null for nodes without any; the whole index is null until first used
+    private ArrayList<InEdges<T>> inEdges;
+
+    private final GraphListenerSupport<T> listeners;
 
     public DirectedGraph() {
-        this.nodes = new ArrayList<>();
+        this.nodes = new NodeList<>();
+        this.listeners = new GraphListenerSupport<>();
     }
 
     @Override
     public List<Node<T>> getNodes() {
-        return new ArrayList<>(nodes); // Return a copy to prevent external modification
+        return nodes;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public Node<T> getNode(int id) {
+        return nodes.byId(id);
     }
 
     @Override
@@ -26,28 +52,181 @@ public class DirectedGraph<T> implements Graph<T> {
             throw new IllegalArgumentException("Node data cannot be null");
         }
 
-        Node<T> node = new Node<>(data);
-        nodes.add(node);
-        return node;
+        return add(new Node<>(data, nodes.idBound()));
     }
 
     @Override
     public Node<T> addNode(T data, String name) {
-        Node<T> node = new Node<>(data, name);
-        nodes.add(node);
+        return add(new Node<>(data, name, nodes.idBound()));
+    }
+
+    private Node<T> add(Node<T> node) {
+        nodes.append(node);
+        if (inEdges != null) {
+            inEdges.add(null);
+        }
+        listeners.nodeAdded(node);
         return node;
     }
 
+    @Override
+    public int getIdBound() {
+        return nodes.idBound();
+    }
+
+    /**
+     * Removes a node together with its in- and out-edges. Every removed edge is reported to the
+     * listeners as if it had been disconnected, before the node removal itself. The ids of the
+     * other nodes do not change, and the id of the removed node is not reused.
+     *
+     * @param node the node to remove
+     * @throws IllegalArgumentException if node is null or not part of the graph
+     */
+    public void removeNode(Node<T> node) {
+        if (node == null || !containsNode(node)) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+
+        ensureInEdges();
+
+        // Both lists are copied first, as the removals change them
+        for (Edge<T> edge : new ArrayList<>(node.getEdges())) {
+            disconnect(node, edge.getToNode());
+        }
+
+        InEdges<T> in = inEdges.get(node.getId());
+        if (in != null) {
+            for (Edge<T> edge : new ArrayList<>(in)) {
+                // A self-loop went with the out-edges
+                if (edge.getFromNode() != node) {
+                    disconnect(edge.getFromNode(), node);
+                }
+            }
+        }
+
+        nodes.remove(node);
+        inEdges.set(node.getId(), null);
+        listeners.nodeRemoved(node);
+    }
+
     @Override
     public void connect(Node<T> fromNode, Node<T> toNode, double weight) {
         validateNodesInGraph(fromNode, toNode);
-        fromNode.connect(toNode, weight);
+        Edge<T> edge = fromNode.connect(toNode, weight);
+
+        if (inEdges != null) {
+            addInEdge(edge);
+        }
+
+        listeners.edgeAdded(fromNode, toNode, weight);
     }
 
     @Override
     public void disconnect(Node<T> fromNode, Node<T> toNode) {
         validateNodesInGraph(fromNode, toNode);
-        fromNode.disconnect(toNode);
+        Edge<T> edge = inEdges != null ? fromNode.getEdgeTo(toNode) : null;
+        double weight = fromNode.disconnect(toNode);
+
+        if (edge != null) {
+            removeInEdge(edge);
+        }
+
+        listeners.edgeRemoved(fromNode, toNode, weight);
+    }
+
+    /**
+     * Returns the edges ending at a node, in the order they were connected.
+     *
+     * @param node a node of this graph
+     * @return an unmodifiable list of the in-edges of the node
+     * @throws IllegalArgumentException if node is null or not part of the graph
+     */
+    public List<Edge<T>> getInEdges(Node<T> node) {
+        if (node == null || !containsNode(node)) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+
+        return Collections.unmodifiableList(inEdges(node));
+    }
+
+    /**
+     * @return the in-edges of a node of this graph, without validation or a read-only wrapper
+     */
+    List<Edge<T>> inEdges(Node<T> node) {
+        ensureInEdges();
+        InEdges<T> in = inEdges.get(node.getId());
+        return in == null ? Collections.emptyList() : in;
+    }
+
+    /**
+     * @param node a node of this graph
+     * @return the number of edges ending at the node
+     * @throws IllegalArgumentException if node is null or not part of the graph
+     */
+    public int getInDegree(Node<T> node) {
+        return getInEdges(node).size();
+    }
+
+    /**
+     * Returns the nodes with an edge to a node, in the order the edges were connected.
+     *
+     * @param node a node of this graph
+     * @return a new list of the predecessors of the node
+     * @throws IllegalArgumentException if node is null or not part of the graph
+     */
+    public List<Node<T>> getPredecessors(Node<T> node) {
+        List<Edge<T>> in = getInEdges(node);
+        List<Node<T>> predecessors = new ArrayList<>(in.size());
+        for (Edge<T> edge : in) {
+            predecessors.add(edge.getFromNode());
+        }
+        return predecessors;
+    }
+
+    /**
+     * Builds the in-edge index from the out-edges, unless it exists. Bulk loaders connect nodes
+     * directly, so only a graph that has never been queried for in-edges may be built that way.
+     */
+    private void ensureInEdges() {
+        if (inEdges != null) {
+            return;
+        }
+
+        inEdges = new ArrayList<>(Collections.nCopies(nodes.idBound(), null));
+        for (Node<T> node : nodes) {
+            for (Edge<T> edge : node.getEdges()) {
+                addInEdge(edge);
+            }
+        }
+    }
+
+    private void addInEdge(Edge<T> edge) {
+        int id = edge.getToNode().getId();
+        InEdges<T> in = inEdges.get(id);
+        if (in == null) {
+            in = new InEdges<>();
+            inEdges.set(id, in);
+        }
+        in.add(edge);
+    }
+
+    private void removeInEdge(Edge<T> edge) {
+        inEdges.get(edge.getToNode().getId()).remove(edge);
+    }
+
+    @Override
+    public long getVersion() {
+        return listeners.getVersion();
+    }
+
+    @Override
+    public void addGraphListener(GraphListener<T> listener) {
+        listeners.addListener(listener);
+    }
+
+    @Override
+    public void removeGraphListener(GraphListener<T> listener) {
+        listeners.removeListener(listener);
     }
 
     @Override
@@ -56,7 +235,7 @@ public class DirectedGraph<T> implements Graph<T> {
             throw new IllegalArgumentException("Node and new data cannot be null");
         }
 
-        if (!nodes.contains(node)) {
+        if (!containsNode(node)) {
             throw new IllegalArgumentException("Node must be part of the graph");
         }
 
@@ -67,14 +246,101 @@ public class DirectedGraph<T> implements Graph<T> {
     public void updateEdgeWeight(Node<T> fromNode, Node<T> toNode, double newWeight) {
         validateNodesInGraph(fromNode, toNode);
 
-        for (Edge<T> edge : fromNode.getEdges()) {
-            if (edge.getToNode().equals(toNode)) {
-                edge.setWeight(newWeight);
-                return;
+        Edge<T> edge = fromNode.getEdgeTo(toNode);
+        if (edge == null) {
+            throw new IllegalArgumentException("Edge does not exist");
+        }
+
+        double oldWeight = edge.getWeight();
+        edge.setWeight(newWeight);
+        listeners.edgeWeightChanged(fromNode, toNode, oldWeight, newWeight);
+    }
+
+    /**
+     * The in-edges of a node in connection order. A disconnected edge stays in the list as a dead
+     * entry, which its starting node has already marked by setting {@link Edge#fromSlot} to -1, so
+     * removal is O(1) without the edge keeping its position in this list. The dead entries are
+     * compacted away once they outnumber the live edges, and reads skip them through an array of
+     * the live edges built on first use, as {@link Node} does for its own edges.
+     */
+    private static final class InEdges<T> extends AbstractList<Edge<T>> implements RandomAccess {
+        private Edge<T>[] edges = newEdges(2);
+        private int end;
+        private int removedCount;
+        // Concurrent readers may each build the array; any of them is correct
+        private volatile Edge<T>[] liveEdges;
+
+        @Override
+        public Edge<T> get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+            }
+            return removedCount == 0 ? edges[index] : liveEdges()[index];
+        }
+
+        @Override
+        public int size() {
+            return end - removedCount;
+        }
+
+        @Override
+        public boolean add(Edge<T> edge) {
+            if (end == edges.length) {
+                edges = Arrays.copyOf(edges, end * 2);
             }
+            edges[end++] = edge;
+            liveEdges = null;
+            return true;
         }
 
-        throw new IllegalArgumentException("Edge does not exist");
+        /**
+         * Accounts for an edge its starting node has just removed.
+         */
+        void remove(Edge<T> edge) {
+            if (edges[end - 1] == edge) {
+                edges[--end] = null;
+            } else {
+                removedCount++;
+            }
+            liveEdges = null;
+
+            if (removedCount > size()) {
+                compact();
+            }
+        }
+
+        private Edge<T>[] liveEdges() {
+            Edge<T>[] live = liveEdges;
+            if (live == null) {
+                live = newEdges(size());
+                int count = 0;
+                for (int i = 0; i < end; i++) {
+                    if (edges[i].fromSlot >= 0) {
+                        live[count++] = edges[i];
+                    }
+                }
+                liveEdges = live;
+            }
+            return live;
+        }
+
+        private void compact() {
+            int count = 0;
+            for (int i = 0; i < end; i++) {
+                Edge<T> edge = edges[i];
+                if (edge.fromSlot >= 0) {
+                    edges[count++] = edge;
+                }
+            }
+            Arrays.fill(edges, count, end, null);
+            end = count;
+            removedCount = 0;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <T> Edge<T>[] newEdges(int length) {
+            return new Edge[length];
+        }
     }
 
     /**
@@ -89,7 +355,7 @@ public class DirectedGraph<T> implements Graph<T> {
             throw new IllegalArgumentException("Nodes cannot be null");
         }
 
-        if (!nodes.contains(fromNode) || !nodes.contains(toNode)) {
+        if (!containsNode(fromNode) || !containsNode(toNode)) {
             throw new IllegalArgumentException("Both nodes must be part of the graph");
         }
     }
@@ -0,0 +1,100 @@
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only map view of shortest distances kept in arrays indexed by node id. Only reachable
+ * nodes are keys. Lookups are O(1); iteration walks the id range and boxes each entry as it is read.
+ *
+ * @param <T> the type of the node data
+ */
+abstract class DistanceMap<T> extends AbstractMap<Node<T>, Double> {
+
+    /**
+     * @return one more than the largest id that may have a distance
+     */
+    abstract int idBound();
+
+    /**
+     * @param id a node id below {@link #idBound()}
+     * @return the node with that id, or null if there is none
+     */
+    abstract Node<T> nodeAt(int id);
+
+    /**
+     * @param id a node id below {@link #idBound()}
+     * @return the distance of the node, {@code Double.POSITIVE_INFINITY} if unreachable
+     */
+    abstract double distanceAt(int id);
+
+    /**
+     * @return the number of reachable nodes
+     */
+    @Override
+    public abstract int size();
+
+    @Override
+    public Double get(Object key) {
+        int id = idOf(key);
+        return id < 0 ? null : distanceAt(id);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return idOf(key) >= 0;
+    }
+
+    private int idOf(Object key) {
+        if (!(key instanceof Node)) {
+            return -1;
+        }
+
+        int id = ((Node<?>) key).getId();
+        return id < idBound() && nodeAt(id) == key && distanceAt(id) != Double.POSITIVE_INFINITY ? id : -1;
+    }
+
+    @Override
+    public Set<Map.Entry<Node<T>, Double>> entrySet() {
+        return new AbstractSet<Map.Entry<Node<T>, Double>>() {
+            @Override
+            public Iterator<Map.Entry<Node<T>, Double>> iterator() {
+                return new Iterator<Map.Entry<Node<T>, Double>>() {
+                    private int next = advance(0);
+
+                    private int advance(int id) {
+                        while (id < idBound() && (distanceAt(id) == Double.POSITIVE_INFINITY || nodeAt(id) == null)) {
+                            id++;
+                        }
+                        return id;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < idBound();
+                    }
+
+                    @Override
+                    public Map.Entry<Node<T>, Double> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        int id = next;
+                        next = advance(id + 1);
+                        return new AbstractMap.SimpleImmutableEntry<>(nodeAt(id), distanceAt(id));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DistanceMap.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package graph;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A many-to-many shortest distance solver over an {@link IndexedGraph}.
+ * <p>
+ * Each source runs its own Dijkstra search on a fork/join pool. The sources are split into a few
+ * chunks per worker, and each chunk runs its searches one after another on a {@link DijkstraEngine}
+ * of its own, so a query holds at most one engine per chunk however many sources it has. The
+ * searches share the graph and the target set read-only, and stop as soon as all targets are
+ * settled instead of exploring the whole graph. Rows are independent, so the work scales with the
+ * number of workers until memory bandwidth becomes the limit.
+ * <p>
+ * Like {@link GraphAlgorithms#dijkstra(Graph, Node)}, the solver requires non-negative weights. A
+ * solver holds no per-query state and may be shared between threads.
+ */
+public final class DistanceMatrix {
+    // Enough chunks per worker to even out searches of different lengths
+    static final int CHUNKS_PER_WORKER = 4;
+
+    private final IndexedGraph graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a solver on the common fork/join pool.
+     *
+     * @param graph the graph to search
+     */
+    public DistanceMatrix(IndexedGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a solver.
+     *
+     * @param graph the graph to search
+     * @param pool the pool to run the searches on
+     * @throws IllegalArgumentException if graph or pool is null
+     */
+    public DistanceMatrix(IndexedGraph graph, ForkJoinPool pool) {
+        if (graph == null || pool == null) {
+            throw new IllegalArgumentException("Invalid graph or pool");
+        }
+
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the shortest distance from every source to every target.
+     *
+     * @param sources the indices of the source nodes
+     * @param targets the indices of the target nodes
+     * @return a matrix whose element {@code [i][j]} is the distance from {@code sources[i]} to
+     *         {@code targets[j]}, {@code Double.POSITIVE_INFINITY} if unreachable
+     * @throws IllegalArgumentException if sources or targets is null or holds an invalid index
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public double[][] compute(int[] sources, int[] targets) {
+        if (sources == null || targets == null) {
+            throw new IllegalArgumentException("Sources and targets cannot be null");
+        }
+        checkIndices(sources);
+        checkIndices(targets);
+
+        BitSet targetSet = new BitSet(graph.nodeCount());
+        for (int target : targets) {
+            targetSet.set(target);
+        }
+
+        double[][] result = new double[sources.length][];
+        if (targets.length == 0) {
+            for (int i = 0; i < sources.length; i++) {
+                result[i] = new double[0];
+            }
+            return result;
+        }
+
+        // Engines hold O(n) state each, so they are made per chunk rather than per source
+        int maxChunks = Math.max(1, pool.getParallelism() * CHUNKS_PER_WORKER);
+        int chunkSize = Math.max(1, (sources.length + maxChunks - 1) / maxChunks);
+        int chunkCount = (sources.length + chunkSize - 1) / chunkSize;
+        pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            DijkstraEngine engine = new DijkstraEngine(graph);
+
+            for (int i = chunk * chunkSize, end = Math.min(i + chunkSize, sources.length); i < end; i++) {
+                engine.run(sources[i], targetSet);
+
+                double[] row = new double[targets.length];
+                for (int j = 0; j < targets.length; j++) {
+                    row[j] = engine.distance(targets[j]);
+                }
+                result[i] = row;
+            }
+        })).join();
+        return result;
+    }
+
+    private void checkIndices(int[] indices) {
+        int nodeCount = graph.nodeCount();
+        for (int index : indices) {
+            if (index < 0 || index >= nodeCount) {
+                throw new IllegalArgumentException("Node index out of range: " + index);
+            }
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single-source shortest path tree that stays up to date while its graph changes.
+ * <p>
+ * The tree registers itself as a {@link GraphListener} and repairs only the part of the tree a
+ * change affects, in the style of Ramalingam and Reps:
+ * <ul>
+ *     <li>When an arc is added or gets shorter and now offers a shorter path to its ending node, a
+ *     Dijkstra search seeded at that node propagates the improvement to the nodes it reaches.</li>
+ *     <li>When a tree arc is removed or gets longer, the subtree below it is detached, each detached
+ *     node is seeded with its best distance through an in-arc from the rest of the tree, and a
+ *     Dijkstra search restricted to the detached nodes settles their new distances.</li>
+ *     <li>Every other change leaves all distances unchanged and costs O(1).</li>
+ * </ul>
+ * Distances and predecessors are kept in arrays indexed by node id, and the repairs order their
+ * frontier with an {@link IndexedDaryHeap}, so a repair neither hashes nor boxes. In-arcs are read
+ * from the in-edge index of a {@link DirectedGraph} and from the symmetric adjacency of an
+ * undirected graph; only other directed graphs get an in-arc index of the tree's own, so the
+ * repair never scans the whole graph. If a change introduces a negative weight, or the graph
+ * version shows a change the tree was not notified of, the tree is recomputed from scratch on the
+ * next query, which reports negative weights with a {@link NegativeWeightException} just like
+ * {@link GraphAlgorithms#dijkstra(Graph, Node)}.
+ * <p>
+ * Changes must go through the {@link Graph} methods. Instances are not thread-safe.
+ *
+ * @param <T> the type of the node data
+ */
+public class DynamicShortestPaths<T> implements GraphListener<T> {
+    private final Graph<T> graph;
+    private final Node<T> source;
+
+    // By node id; infinity and -1 for unreachable nodes
+    private double[] distances;
+    private int[] parents;
+    private int reachedCount;
+    private final IndexedDaryHeap heap;
+
+    // The nodes detached by the current repair, which are those stamped with its number
+    private int[] detached;
+    private int[] detachedStamps;
+    private int repair;
+
+    // In-arcs by ending node id, as the ids of their starting nodes; null unless the graph is
+    // directed without an in-edge index of its own
+    private int[][] inArcs;
+    private int[] inArcCounts;
+
+    private final Map<Node<T>, Double> distancesView;
+
+    private long version;
+    private boolean stale;
+    private int lastRepairSize;
+
+    /**
+     * Computes the shortest path tree of a source node and registers it on the graph.
+     *
+     * @param graph the graph
+     * @param sourceNode the source node
+     * @throws IllegalArgumentException if graph is null or the source node is not part of the graph
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public DynamicShortestPaths(Graph<T> graph, Node<T> sourceNode) {
+        if (graph == null || !graph.containsNode(sourceNode)) {
+            throw new IllegalArgumentException("Source node must be part of the graph");
+        }
+
+        this.graph = graph;
+        this.source = sourceNode;
+        this.distances = new double[0];
+        this.parents = new int[0];
+        this.heap = new IndexedDaryHeap(0);
+        this.detached = new int[0];
+        this.detachedStamps = new int[0];
+        if (graph.isDirected() && !(graph instanceof DirectedGraph)) {
+            this.inArcs = new int[0][];
+            this.inArcCounts = new int[0];
+        }
+
+        this.distancesView = new DistanceMap<T>() {
+            @Override
+            int idBound() {
+                return distances.length;
+            }
+
+            @Override
+            Node<T> nodeAt(int id) {
+                return graph.getNode(id);
+            }
+
+            @Override
+            double distanceAt(int id) {
+                return distances[id];
+            }
+
+            @Override
+            public int size() {
+                return reachedCount;
+            }
+        };
+
+        recompute();
+        graph.addGraphListener(this);
+    }
+
+    public Node<T> getSource() {
+        return source;
+    }
+
+    /**
+     * @param node the node to look up
+     * @return the shortest distance from the source, or {@code Double.POSITIVE_INFINITY} if unreachable
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public double distanceTo(Node<T> node) {
+        ensureCurrent();
+        int id = idOf(node);
+        return id < 0 ? Double.POSITIVE_INFINITY : distances[id];
+    }
+
+    /**
+     * @param node the node to look up
+     * @return the node before it on its shortest path, or null for the source and unreachable nodes
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Node<T> predecessorOf(Node<T> node) {
+        ensureCurrent();
+        int id = idOf(node);
+        return id < 0 || parents[id] < 0 ? null : graph.getNode(parents[id]);
+    }
+
+    /**
+     * Reconstructs the current shortest path from the source to a node.
+     *
+     * @param node the target node
+     * @return the shortest path, or null if the node is unreachable
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Path<T> pathTo(Node<T> node) {
+        ensureCurrent();
+        int id = idOf(node);
+        if (id < 0 || distances[id] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+
+        List<Node<T>> nodes = new ArrayList<>();
+        for (int current = id; current >= 0; current = parents[current]) {
+            nodes.add(graph.getNode(current));
+        }
+        Collections.reverse(nodes);
+        return Path.of(nodes, distances[id]);
+    }
+
+    /**
+     * @return a read-only view of every reachable node and its current shortest distance
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Map<Node<T>, Double> getDistances() {
+        ensureCurrent();
+        return distancesView;
+    }
+
+    /**
+     * @return the number of nodes whose distance the last repair recomputed
+     */
+    public int getLastRepairSize() {
+        return lastRepairSize;
+    }
+
+    /**
+     * Unregisters the tree from its graph. The tree keeps its last state but no longer changes.
+     */
+    public void close() {
+        graph.removeGraphListener(this);
+    }
+
+    @Override
+    public void nodeAdded(Node<T> node) {
+        // A new node has no arcs, so it is unreachable and changes no distance
+        ensureCapacity(node.getId() + 1);
+        if (isUpToDate()) {
+            version = graph.getVersion();
+        }
+    }
+
+    /**
+     * Forgets a removed node. Its arcs were removed first, so it is already unreachable; removing
+     * the source closes the tree instead, which keeps its last state.
+     */
+    @Override
+    public void nodeRemoved(Node<T> node) {
+        if (inArcs != null && node.getId() < inArcs.length) {
+            inArcs[node.getId()] = null;
+            inArcCounts[node.getId()] = 0;
+        }
+
+        if (node == source) {
+            close();
+        } else if (isUpToDate()) {
+            version = graph.getVersion();
+        }
+    }
+
+    @Override
+    public void edgeAdded(Node<T> fromNode, Node<T> toNode, double weight) {
+        ensureCapacity(Math.max(fromNode.getId(), toNode.getId()) + 1);
+        if (inArcs != null) {
+            addInArc(toNode.getId(), fromNode.getId());
+        }
+        shortened(fromNode, toNode, weight);
+    }
+
+    @Override
+    public void edgeRemoved(Node<T> fromNode, Node<T> toNode, double weight) {
+        ensureCapacity(Math.max(fromNode.getId(), toNode.getId()) + 1);
+        if (inArcs != null) {
+            removeInArc(toNode.getId(), fromNode.getId());
+        }
+        lengthened(fromNode, toNode);
+    }
+
+    @Override
+    public void edgeWeightChanged(Node<T> fromNode, Node<T> toNode, double oldWeight, double newWeight) {
+        ensureCapacity(Math.max(fromNode.getId(), toNode.getId()) + 1);
+        if (newWeight < oldWeight) {
+            shortened(fromNode, toNode, newWeight);
+        } else if (newWeight > oldWeight) {
+            lengthened(fromNode, toNode);
+        } else if (isUpToDate()) {
+            version = graph.getVersion();
+        }
+    }
+
+    /**
+     * Repairs the tree after an arc was added or became shorter.
+     */
+    private void shortened(Node<T> fromNode, Node<T> toNode, double weight) {
+        if (!isUpToDate()) {
+            return;
+        }
+        if (weight < 0) {
+            stale = true;
+            return;
+        }
+
+        lastRepairSize = 0;
+        int to = toNode.getId();
+        double distance = distances[fromNode.getId()] + weight;
+        if (distance < distances[to]) {
+            setDistance(to, distance, fromNode.getId());
+            heap.insert(to, distance);
+            if (!repair(false)) {
+                return;
+            }
+        }
+        version = graph.getVersion();
+    }
+
+    /**
+     * Repairs the tree after an arc was removed or became longer.
+     */
+    private void lengthened(Node<T> fromNode, Node<T> toNode) {
+        if (!isUpToDate()) {
+            return;
+        }
+
+        lastRepairSize = 0;
+        if (parents[toNode.getId()] == fromNode.getId()) {
+            int count = detachSubtree(toNode.getId());
+
+            // Seed every detached node with its best distance through the part of the tree that is still intact
+            for (int i = 0; i < count; i++) {
+                if (!seed(detached[i])) {
+                    heap.clear();
+                    stale = true;
+                    return;
+                }
+            }
+
+            if (!repair(true)) {
+                return;
+            }
+        }
+        version = graph.getVersion();
+    }
+
+    /**
+     * Removes the distances of a node and every node below it in the tree, stamping them as
+     * detached by a new repair.
+     *
+     * @return the number of detached nodes, listed at the start of {@link #detached}
+     */
+    private int detachSubtree(int root) {
+        if (repair == Integer.MAX_VALUE) {
+            Arrays.fill(detachedStamps, 0);
+            repair = 0;
+        }
+        repair++;
+
+        int count = 0;
+        detachedStamps[root] = repair;
+        detached[count++] = root;
+
+        // The list doubles as the queue of a breadth-first walk down the tree
+        for (int head = 0; head < count; head++) {
+            int node = detached[head];
+            for (Edge<T> edge : graph.getNode(node).getEdges()) {
+                int child = edge.getToNode().getId();
+                if (parents[child] == node && detachedStamps[child] != repair) {
+                    detachedStamps[child] = repair;
+                    detached[count++] = child;
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            clearDistance(detached[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Queues a detached node with its best distance through an in-arc from an intact node.
+     *
+     * @return false if an in-arc has a negative weight
+     */
+    private boolean seed(int id) {
+        Node<T> node = graph.getNode(id);
+
+        if (graph instanceof DirectedGraph) {
+            for (Edge<T> edge : ((DirectedGraph<T>) graph).inEdges(node)) {
+                if (!seedFrom(id, edge.getFromNode().getId(), edge.getWeight())) {
+                    return false;
+                }
+            }
+        } else if (inArcs == null) {
+            // Undirected: every arc into the node is the reverse of one of its own
+            for (Edge<T> edge : node.getEdges()) {
+                if (!seedFrom(id, edge.getToNode().getId(), edge.getWeight())) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = 0; i < inArcCounts[id]; i++) {
+                int from = inArcs[id][i];
+                if (!seedFrom(id, from, graph.getNode(from).getEdgeTo(node).getWeight())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean seedFrom(int id, int from, double weight) {
+        if (distances[from] == Double.POSITIVE_INFINITY || detachedStamps[from] == repair) {
+            return true;
+        }
+        if (weight < 0) {
+            return false;
+        }
+
+        double distance = distances[from] + weight;
+        if (distance < distances[id]) {
+            setDistance(id, distance, from);
+            heap.insertOrDecrease(id, distance);
+        }
+        return true;
+    }
+
+    /**
+     * Runs a repair search, marking the tree for recomputation if it meets a negative weight.
+     *
+     * @return false if the search met a negative weight
+     */
+    private boolean repair(boolean detachedOnly) {
+        try {
+            propagate(detachedOnly);
+            return true;
+        } catch (NegativeWeightException e) {
+            heap.clear();
+            stale = true;
+            return false;
+        }
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the queued nodes, relaxing arcs only while they improve a distance.
+     *
+     * @param detachedOnly true if only the nodes detached by the current repair can change
+     * @throws NegativeWeightException - if a reached arc has a negative weight
+     */
+    private void propagate(boolean detachedOnly) {
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            double distance = distances[node];
+
+            lastRepairSize++;
+            for (Edge<T> edge : graph.getNode(node).getEdges()) {
+                double weight = edge.getWeight();
+                if (weight < 0) {
+                    throw GraphAlgorithms.negativeWeight(weight);
+                }
+
+                int neighbour = edge.getToNode().getId();
+                if (detachedOnly && detachedStamps[neighbour] != repair) {
+                    continue;
+                }
+
+                double newDist = distance + weight;
+                if (newDist < distances[neighbour]) {
+                    setDistance(neighbour, newDist, node);
+                    heap.insertOrDecrease(neighbour, newDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that this is the only change since the last one the tree handled. Otherwise the tree
+     * missed a change and is marked for a full recomputation instead of a repair.
+     */
+    private boolean isUpToDate() {
+        if (!stale && version + 1 == graph.getVersion()) {
+            return true;
+        }
+        stale = true;
+        return false;
+    }
+
+    private void ensureCurrent() {
+        if (stale || version != graph.getVersion()) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        ensureCapacity(graph.getIdBound());
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+        reachedCount = 0;
+        heap.clear();
+
+        if (inArcs != null) {
+            // The tree may have missed arcs, so its index is rebuilt along with the distances
+            Arrays.fill(inArcCounts, 0);
+            for (Node<T> node : graph.getNodes()) {
+                for (Edge<T> edge : node.getEdges()) {
+                    addInArc(edge.getToNode().getId(), node.getId());
+                }
+            }
+        }
+
+        // Stays stale if the search fails, so the next query tries again
+        stale = true;
+        lastRepairSize = 0;
+        setDistance(source.getId(), 0.0, -1);
+        heap.insert(source.getId(), 0.0);
+        try {
+            propagate(false);
+        } catch (NegativeWeightException e) {
+            heap.clear();
+            throw e;
+        }
+
+        version = graph.getVersion();
+        stale = false;
+    }
+
+    /**
+     * @return the id of a node of the graph, or -1 for any other node
+     */
+    private int idOf(Node<T> node) {
+        return graph.containsNode(node) && node.getId() < distances.length ? node.getId() : -1;
+    }
+
+    private void setDistance(int id, double distance, int parent) {
+        if (distances[id] == Double.POSITIVE_INFINITY) {
+            reachedCount++;
+        }
+        distances[id] = distance;
+        parents[id] = parent;
+    }
+
+    private void clearDistance(int id) {
+        if (distances[id] != Double.POSITIVE_INFINITY) {
+            reachedCount--;
+        }
+        distances[id] = Double.POSITIVE_INFINITY;
+        parents[id] = -1;
+    }
+
+    /**
+     * Grows the per-node arrays to hold ids below the given bound.
+     */
+    private void ensureCapacity(int idBound) {
+        int oldLength = distances.length;
+        if (idBound <= oldLength) {
+            return;
+        }
+
+        int length = Math.max(idBound, oldLength + (oldLength >> 1));
+        distances = Arrays.copyOf(distances, length);
+        parents = Arrays.copyOf(parents, length);
+        Arrays.fill(distances, oldLength, length, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, oldLength, length, -1);
+        detached = Arrays.copyOf(detached, length);
+        detachedStamps = Arrays.copyOf(detachedStamps, length);
+        heap.ensureCapacity(length);
+
+        if (inArcs != null) {
+            inArcs = Arrays.copyOf(inArcs, length);
+            inArcCounts = Arrays.copyOf(inArcCounts, length);
+        }
+    }
+
+    private void addInArc(int to, int from) {
+        int[] arcs = inArcs[to];
+        int count = inArcCounts[to];
+        if (arcs == null) {
+            arcs = new int[2];
+            inArcs[to] = arcs;
+        } else if (count == arcs.length) {
+            arcs = Arrays.copyOf(arcs, count * 2);
+            inArcs[to] = arcs;
+        }
+        arcs[count] = from;
+        inArcCounts[to] = count + 1;
+    }
+
+    private void removeInArc(int to, int from) {
+        int[] arcs = inArcs[to];
+        int count = inArcCounts[to];
+        for (int i = 0; i < count; i++) {
+            if (arcs[i] == from) {
+                // The order of in-arcs does not matter, so the last one fills the gap
+                arcs[i] = arcs[count - 1];
+                inArcCounts[to] = count - 1;
+                return;
+            }
+        }
+    }
+}
@@ -10,6 +10,11 @@ public class Edge<T> {
     private final Node<T> toNode;
     private double weight;
 
+    // Position of the edge in the edge list of its starting node, kept by that node so it can
+    // remove the edge without a scan, and -1 once removed. With compressed references the int
+    // fills the object's alignment padding, so it costs no memory
+    int fromSlot;
+
     /**
      * Constructs an edge with a specified weight.
      *
@@ -53,4 +58,51 @@ public class Edge<T> {
     public Node<T> getToNode() {
         return toNode;
     }
+
+    /**
+     * The single record of an undirected edge, held by both of its endpoints. It is oriented from
+     * the endpoint that connected it, and also keeps its position in the edge list of the other
+     * endpoint.
+     */
+    static final class Undirected<T> extends Edge<T> {
+        int toSlot;
+
+        Undirected(Node<T> fromNode, Node<T> toNode, double weight) {
+            super(fromNode, toNode, weight);
+        }
+    }
+
+    /**
+     * An undirected edge record as seen from its ending node, created on every read. The weight
+     * stays in the record, so both endpoints always see the same weight, and two views of the same
+     * record are equal.
+     */
+    static final class Reversed<T> extends Edge<T> {
+        private final Edge<T> edge;
+
+        Reversed(Edge<T> edge) {
+            super(edge.getToNode(), edge.getFromNode(), 0.0);
+            this.edge = edge;
+        }
+
+        @Override
+        public double getWeight() {
+            return edge.getWeight();
+        }
+
+        @Override
+        public void setWeight(double weight) {
+            edge.setWeight(weight);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Reversed && ((Reversed<?>) o).edge == edge;
+        }
+
+        @Override
+        public int hashCode() {
+            return ~System.identityHashCode(edge);
+        }
+    }
 }
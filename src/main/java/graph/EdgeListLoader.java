@@ -0,0 +1,558 @@
+package graph;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Bulk-loads a graph from an edge list file.
+ * <p>
+ * Every line holds a source key, a target key and an optional weight, separated by whitespace
+ * and/or commas, so both plain edge lists and CSV files are accepted. Empty lines and lines
+ * starting with {@code #} or {@code %} are skipped. Nodes are created in order of first
+ * appearance, with the parsed key as their data, and every node's edges keep the file order, so
+ * the result is the same graph that replaying the file through {@link Graph#addNode(Object)} and
+ * {@link Graph#connect(Node, Node, double)} would build.
+ * <p>
+ * The file is memory-mapped and parsed in fixed-size chunks on a fork/join pool, each chunk
+ * resolving keys through its own hash index before the indices are merged. The adjacency is then
+ * built node by node in parallel from a counting sort of the edges. Instead of checking every
+ * edge as {@code connect} does, the whole batch is validated once: duplicate edges, and
+ * self-loops in undirected graphs, are reported with an {@link IllegalArgumentException} or, for
+ * duplicates, optionally skipped. Lines of more than {@value #MAX_LINE_LENGTH} bytes are rejected.
+ *
+ * @param <T> the type of the node data
+ */
+public final class EdgeListLoader<T> {
+    static final int CHUNK_SIZE = 8 << 20;
+    static final int MAX_LINE_LENGTH = 1 << 20;
+    private static final int NODE_CHUNK_SIZE = 4096;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    private final Function<String, ? extends T> keyParser;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private double defaultWeight = 1.0;
+    private boolean skipHeader;
+    private boolean skipDuplicates;
+
+    /**
+     * Constructs a loader on the common fork/join pool.
+     *
+     * @param keyParser converts a node key from the file into node data; its results must have
+     *                  consistent equals/hashCode and must not be null
+     * @throws IllegalArgumentException if keyParser is null
+     */
+    public EdgeListLoader(Function<String, ? extends T> keyParser) {
+        if (keyParser == null) {
+            throw new IllegalArgumentException("Key parser cannot be null");
+        }
+
+        this.keyParser = keyParser;
+    }
+
+    /**
+     * @return a loader using the keys themselves as node data
+     */
+    public static EdgeListLoader<String> strings() {
+        return new EdgeListLoader<>(Function.identity());
+    }
+
+    /**
+     * @return a loader parsing the keys as integers
+     */
+    public static EdgeListLoader<Integer> integers() {
+        return new EdgeListLoader<>(Integer::valueOf);
+    }
+
+    /**
+     * @param defaultWeight the weight of edges without one; 1.0 by default
+     * @return this loader
+     */
+    public EdgeListLoader<T> defaultWeight(double defaultWeight) {
+        this.defaultWeight = defaultWeight;
+        return this;
+    }
+
+    /**
+     * @param skipHeader true to ignore the first line of the file, e.g. a CSV header
+     * @return this loader
+     */
+    public EdgeListLoader<T> skipHeader(boolean skipHeader) {
+        this.skipHeader = skipHeader;
+        return this;
+    }
+
+    /**
+     * @param skipDuplicates true to keep only the first of several edges between the same nodes,
+     *                       false to reject the file; false by default
+     * @return this loader
+     */
+    public EdgeListLoader<T> skipDuplicates(boolean skipDuplicates) {
+        this.skipDuplicates = skipDuplicates;
+        return this;
+    }
+
+    /**
+     * @param pool the pool to parse and build on
+     * @return this loader
+     * @throws IllegalArgumentException if pool is null
+     */
+    public EdgeListLoader<T> pool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Loads a file as a directed graph.
+     *
+     * @param file the edge list file
+     * @return the loaded graph
+     * @throws IOException if the file cannot be read or contains a malformed line
+     * @throws IllegalArgumentException if the file contains a duplicate edge and duplicates are not skipped
+     */
+    public DirectedGraph<T> loadDirected(Path file) throws IOException {
+        return load(file, new DirectedGraph<>(), true);
+    }
+
+    /**
+     * Loads a file as an undirected graph.
+     *
+     * @param file the edge list file
+     * @return the loaded graph
+     * @throws IOException if the file cannot be read or contains a malformed line
+     * @throws IllegalArgumentException if the file contains a self-loop, or a duplicate edge and
+     *         duplicates are not skipped
+     */
+    public UndirectedGraph<T> loadUndirected(Path file) throws IOException {
+        return load(file, new UndirectedGraph<>(), false);
+    }
+
+    private <G extends Graph<T>> G load(Path file, G graph, boolean directed) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+
+        List<Chunk<T>> chunks = parse(file);
+
+        // Merge the per-chunk key indices in file order, so nodes are numbered by first appearance
+        Map<T, Integer> index = new HashMap<>();
+        List<T> keys = new ArrayList<>();
+        long edgeCount = 0;
+        for (Chunk<T> chunk : chunks) {
+            chunk.globalIds = new int[chunk.keys.size()];
+            for (int i = 0; i < chunk.keys.size(); i++) {
+                T key = chunk.keys.get(i);
+                Integer id = index.putIfAbsent(key, keys.size());
+                if (id == null) {
+                    id = keys.size();
+                    keys.add(key);
+                }
+                chunk.globalIds[i] = id;
+            }
+            chunk.firstEdge = edgeCount;
+            edgeCount += chunk.edgeCount;
+        }
+
+        long arcCount = directed ? edgeCount : 2 * edgeCount;
+        if (arcCount > Integer.MAX_VALUE - 8) {
+            throw new IOException("Too many edges: " + edgeCount);
+        }
+
+        int[] sources = new int[(int) edgeCount];
+        int[] targets = new int[(int) edgeCount];
+        double[] weights = new double[(int) edgeCount];
+        List<Callable<Void>> copies = new ArrayList<>();
+        for (Chunk<T> chunk : chunks) {
+            copies.add(() -> {
+                for (int i = 0; i < chunk.edgeCount; i++) {
+                    int edge = (int) chunk.firstEdge + i;
+                    sources[edge] = chunk.globalIds[chunk.sources[i]];
+                    targets[edge] = chunk.globalIds[chunk.targets[i]];
+                    weights[edge] = chunk.weights[i];
+                }
+                return null;
+            });
+        }
+        invokeAll(copies);
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<T>[] nodes = new Node[keys.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.addNode(keys.get(i));
+        }
+
+        connectAll(nodes, sources, targets, weights, directed);
+        return graph;
+    }
+
+    /**
+     * Groups the edges by starting node with a counting sort and connects every node's batch,
+     * after checking it for duplicates.
+     */
+    private void connectAll(Node<T>[] nodes, int[] sources, int[] targets, double[] weights, boolean directed) throws IOException {
+        if (!directed) {
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i] == targets[i]) {
+                    throw new IllegalArgumentException("Undirected graphs cannot have self-loops: " + nodes[sources[i]].getData());
+                }
+            }
+        }
+
+        // Arcs of a node stay in file order, as if they had been connected one by one
+        ArcList arcs = ArcList.group(nodes.length, sources, targets, weights, sources.length, !directed, !directed);
+        ArcList.DuplicateHandler onDuplicate = skipDuplicates ? null : (node, target) ->
+                new IllegalArgumentException("Duplicate edge: " + nodes[node].getData() + " -> " + nodes[target].getData());
+
+        if (directed) {
+            forEachNodeChunk(nodes.length, node -> {
+                arcs.removeDuplicates(node, onDuplicate);
+                nodes[node].connectAll(nodes, arcs.targets, arcs.weights, arcs.offsets[node], arcs.ends[node]);
+            });
+            return;
+        }
+
+        // Both endpoints of an undirected edge hold one record, so all records exist before any node takes them
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Edge<T>[] records = new Edge[arcs.edgeCount];
+        forEachNodeChunk(nodes.length, node -> {
+            arcs.removeDuplicates(node, onDuplicate);
+            arcs.createRecords(node, nodes, records);
+        });
+        forEachNodeChunk(nodes.length, node -> nodes[node].connectAll(records, arcs.edgeIds, arcs.offsets[node], arcs.ends[node]));
+    }
+
+    /**
+     * Runs an action for every node index, in parallel chunks of {@value #NODE_CHUNK_SIZE} nodes.
+     */
+    private void forEachNodeChunk(int nodeCount, IntConsumer action) throws IOException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < nodeCount; start += NODE_CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(nodeCount, start + NODE_CHUNK_SIZE);
+            tasks.add(() -> {
+                for (int node = from; node < to; node++) {
+                    action.accept(node);
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Maps the file and parses it in chunks of about {@value #CHUNK_SIZE} bytes. A chunk owns every
+     * line that starts within it.
+     */
+    private List<Chunk<T>> parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Callable<Chunk<T>>> tasks = new ArrayList<>();
+            for (long start = 0; start < size; start += CHUNK_SIZE) {
+                long from = start;
+                tasks.add(() -> {
+                    try {
+                        return parseChunk(channel, size, from, Math.min(size, from + CHUNK_SIZE));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // Fork/join tasks only pass unchecked exceptions through as they are
+                    }
+                });
+            }
+            return invokeAll(tasks);
+        }
+    }
+
+    private Chunk<T> parseChunk(FileChannel channel, long size, long start, long end) throws IOException {
+        // Map one byte before the chunk to tell whether it starts on a line, and enough after it to finish its last line
+        long mapStart = start == 0 ? 0 : start - 1;
+        long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = buffer.limit();
+        int chunkEnd = (int) (end - mapStart);
+
+        Chunk<T> chunk = new Chunk<>();
+        int position = 0;
+        if (start > 0) {
+            position = lineEnd(buffer, 0) + 1;
+        } else if (skipHeader) {
+            position = lineEnd(buffer, 0) + 1;
+        }
+
+        byte[] scratch = new byte[64];
+        int[] tokenStarts = new int[3];
+        int[] tokenEnds = new int[3];
+
+        while (position < chunkEnd) {
+            int lineEnd = lineEnd(buffer, position);
+            if (lineEnd == limit && mapEnd < size) {
+                throw new IOException("Line longer than " + MAX_LINE_LENGTH + " bytes at byte " + (mapStart + position));
+            }
+
+            int tokens = 0;
+            int i = position;
+            while (i < lineEnd) {
+                byte b = buffer.get(i);
+                if (isSeparator(b)) {
+                    i++;
+                    continue;
+                }
+                if (tokens == 0 && (b == '#' || b == '%')) {
+                    break;
+                }
+                if (tokens == 3) {
+                    throw malformed(mapStart + position);
+                }
+
+                tokenStarts[tokens] = i;
+                while (i < lineEnd && !isSeparator(buffer.get(i))) {
+                    i++;
+                }
+                tokenEnds[tokens++] = i;
+            }
+
+            if (tokens == 1) {
+                throw malformed(mapStart + position);
+            }
+
+            if (tokens > 1) {
+                double weight = defaultWeight;
+                try {
+                    if (tokens == 3) {
+                        weight = parseWeight(buffer, tokenStarts[2], tokenEnds[2], scratch);
+                    }
+                    chunk.add(localId(chunk, buffer, tokenStarts[0], tokenEnds[0], scratch),
+                            localId(chunk, buffer, tokenStarts[1], tokenEnds[1], scratch),
+                            weight);
+                } catch (NumberFormatException e) {
+                    throw malformed(mapStart + position);
+                }
+            }
+
+            position = lineEnd + 1;
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Resolves a key to its chunk-local id. Keys are hashed and compared as bytes, so only the
+     * first occurrence of a key in the chunk is decoded and parsed.
+     */
+    private int localId(Chunk<T> chunk, MappedByteBuffer buffer, int start, int end, byte[] scratch) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        hash *= 0x9E3779B9; // Spread similar keys such as consecutive numbers before linear probing
+        hash ^= hash >>> 16;
+
+        int mask = chunk.slots.length - 1;
+        int slot = hash & mask;
+        while (chunk.slots[slot] != 0) {
+            int id = chunk.slots[slot] - 1;
+            if (chunk.keyHashes[id] == hash && sameBytes(buffer, chunk.keyStarts[id], chunk.keyEnds[id], start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String token = token(buffer, start, end, scratch);
+        T key = keyParser.apply(token);
+        if (key == null) {
+            throw new IllegalArgumentException("Key parser returned null for " + token);
+        }
+        return chunk.addKey(key, hash, start, end, slot);
+    }
+
+    /**
+     * Parses a weight. Plain decimals with up to 15 significant digits are converted directly,
+     * which is exact since both the digits and the power of ten are exactly representable;
+     * anything else goes through {@link Double#parseDouble(String)}.
+     */
+    private static double parseWeight(MappedByteBuffer buffer, int start, int end, byte[] scratch) {
+        int i = start;
+        boolean negative = buffer.get(i) == '-';
+        if (negative || buffer.get(i) == '+') {
+            i++;
+        }
+
+        long digits = 0;
+        int digitCount = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits = digits * 10 + (b - '0');
+                digitCount++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (i < end || digitCount == 0 || digitCount > 15) {
+            return Double.parseDouble(token(buffer, start, end, scratch));
+        }
+
+        double value = scale > 0 ? digits / POWERS_OF_TEN[scale] : digits;
+        return negative ? -value : value;
+    }
+
+    private <R> List<R> invokeAll(List<? extends Callable<R>> tasks) throws IOException {
+        List<Future<R>> futures = new ArrayList<>(tasks.size());
+        for (Callable<R> task : tasks) {
+            futures.add(pool.submit(task));
+        }
+
+        List<R> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        return results;
+    }
+
+    /**
+     * @return the position of the newline ending the line at position, or the buffer limit
+     */
+    private static int lineEnd(MappedByteBuffer buffer, int position) {
+        int limit = buffer.limit();
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == ',' || b == '\r';
+    }
+
+    private static String token(MappedByteBuffer buffer, int start, int end, byte[] scratch) {
+        int length = end - start;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean sameBytes(MappedByteBuffer buffer, int start, int end, int otherStart, int otherEnd) {
+        if (end - start != otherEnd - otherStart) {
+            return false;
+        }
+
+        for (int i = 0; i < end - start; i++) {
+            if (buffer.get(start + i) != buffer.get(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IOException malformed(long position) {
+        return new IOException("Malformed edge at byte " + position);
+    }
+
+    /**
+     * The edges of one chunk of the file, over node ids local to the chunk.
+     */
+    private static final class Chunk<T> {
+        final List<T> keys = new ArrayList<>();
+
+        // Open-addressing index from key bytes to local id + 1, with the hash and position of every key in the buffer
+        int[] slots = new int[1024];
+        int[] keyHashes = new int[256];
+        int[] keyStarts = new int[256];
+        int[] keyEnds = new int[256];
+
+        int[] sources = new int[256];
+        int[] targets = new int[256];
+        double[] weights = new double[256];
+        int edgeCount;
+
+        // Filled in while merging
+        int[] globalIds;
+        long firstEdge;
+
+        int addKey(T key, int hash, int start, int end, int slot) {
+            int id = keys.size();
+            if (id == keyHashes.length) {
+                keyHashes = Arrays.copyOf(keyHashes, id * 2);
+                keyStarts = Arrays.copyOf(keyStarts, id * 2);
+                keyEnds = Arrays.copyOf(keyEnds, id * 2);
+            }
+
+            keys.add(key);
+            keyHashes[id] = hash;
+            keyStarts[id] = start;
+            keyEnds[id] = end;
+            slots[slot] = id + 1;
+
+            if (keys.size() * 2 > slots.length) {
+                int[] old = slots;
+                slots = new int[old.length * 2];
+                int mask = slots.length - 1;
+                for (int entry : old) {
+                    if (entry != 0) {
+                        int index = keyHashes[entry - 1] & mask;
+                        while (slots[index] != 0) {
+                            index = (index + 1) & mask;
+                        }
+                        slots[index] = entry;
+                    }
+                }
+            }
+            return id;
+        }
+
+        void add(int source, int target, double weight) {
+            if (edgeCount == sources.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+                weights = Arrays.copyOf(weights, edgeCount * 2);
+            }
+
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            weights[edgeCount] = weight;
+            edgeCount++;
+        }
+    }
+}
@@ -9,8 +9,64 @@ import java.util.List;
  */
 public interface Graph<T> {
 
+    /**
+     * Returns a read-only view of the nodes in the graph, in insertion order. Node ids are
+     * assigned in the same order, so the node at position i has id i until a node is removed,
+     * which {@link DirectedGraph} and {@link UndirectedGraph} support.
+     *
+     * @return an unmodifiable view of the nodes in the graph
+     */
     List<Node<T>> getNodes();
 
+    /**
+     * Returns one more than the largest id this graph has assigned, so every node id is below it.
+     * Algorithms size per-node state by it. Equals the number of nodes unless nodes were removed.
+     *
+     * @return the bound on the node ids of the graph
+     */
+    default int getIdBound() {
+        return getNodes().size();
+    }
+
+    /**
+     * Checks whether the edges of this graph are directed. An undirected edge is stored as a pair
+     * of arcs, one in each direction.
+     *
+     * @return true if the graph is directed, false otherwise
+     */
+    boolean isDirected();
+
+    /**
+     * Returns the node with the specified id.
+     *
+     * @param id the id of the node
+     * @return the node with that id, or null if the graph has no such node
+     */
+    Node<T> getNode(int id);
+
+    /**
+     * Returns the outgoing edges of a node as this graph sees them. Algorithms that take a graph
+     * read edges through this method, so that views such as a {@link GraphSnapshot} can show a
+     * different state than the live node.
+     *
+     * @param node a node of this graph
+     * @return an unmodifiable list of the outgoing edges of the node
+     */
+    default List<Edge<T>> getEdges(Node<T> node) {
+        return node.getEdges();
+    }
+
+    /**
+     * Checks whether the specified node is part of this graph. Node ids index the graph, so
+     * membership is a single lookup of the node's id.
+     *
+     * @param node the node to look up
+     * @return true if the node was added to this graph, false otherwise
+     */
+    default boolean containsNode(Node<T> node) {
+        return node != null && getNode(node.getId()) == node;
+    }
+
     /**
      * Adds a new node with the specified data to the graph.
      *
@@ -29,12 +85,14 @@ public interface Graph<T> {
     Node<T> addNode(T data, String name);
 
     /**
-     * Connects two nodes in the graph with a specified weight.
+     * Connects two nodes in the graph with a specified weight. Undirected graphs have no
+     * self-loops, so they reject connecting a node to itself.
      *
      * @param fromNode the starting node
      * @param toNode the ending node
      * @param weight the weight of the connection
-     * @throws IllegalArgumentException if either node is not part of the graph
+     * @throws IllegalArgumentException if either node is not part of the graph, or the graph is
+     *                                  undirected and both nodes are the same
      */
     void connect(Node<T> fromNode, Node<T> toNode, double weight);
 
@@ -106,6 +164,30 @@ public interface Graph<T> {
         }
     }
 
+    /**
+     * Returns the version of the graph. The version increases every time a node is added or
+     * removed, or an edge is connected, disconnected or has its weight updated through this graph.
+     *
+     * @return the current version of the graph
+     */
+    long getVersion();
+
+    /**
+     * Registers a listener to be notified of structural changes made through this graph.
+     * Registering the same listener twice has no effect.
+     *
+     * @param listener the listener to add
+     * @throws IllegalArgumentException if listener is null
+     */
+    void addGraphListener(GraphListener<T> listener);
+
+    /**
+     * Unregisters a listener. Does nothing if the listener is not registered.
+     *
+     * @param listener the listener to remove
+     */
+    void removeGraphListener(GraphListener<T> listener);
+
     /**
      * Updates data of a node
      *
@@ -124,4 +206,14 @@ public interface Graph<T> {
      * @throws IllegalArgumentException if either start and end nodes are not part of the graph or the edge doesn't exist between the two nodes
      */
     void updateEdgeWeight(Node<T> fromNode, Node<T> toNode, double newWeight);
+
+    /**
+     * Freezes the current state of the graph into an immutable CSR snapshot.
+     *
+     * @return a compressed-sparse-row snapshot of the graph
+     * @see CsrGraph#of(Graph)
+     */
+    default CsrGraph<T> freeze() {
+        return CsrGraph.of(this);
+    }
 }
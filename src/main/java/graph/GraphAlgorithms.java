@@ -2,21 +2,51 @@ package graph;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.ArrayDeque;
-import java.util.Set;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.PriorityQueue;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 /**
  * Provides common graph algorithms such as BFS, DFS, and Dijkstra's algorithm.
+ * <p>
+ * Searches can be instrumented: {@link SearchListener}s registered with an instance receive the
+ * nodes settled, edges relaxed, heap operations and wall time of every BFS, DFS and Dijkstra search
+ * it runs, and every such search is also recorded as a {@code graph.Search} JDK Flight Recorder
+ * event while a recording enables it. Without listeners or a recording the searches skip all
+ * measuring.
  *
  * @param <T> the type of the node data
  */
 public class GraphAlgorithms<T> {
+    private final CopyOnWriteArrayList<SearchListener> searchListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener to receive the statistics of every search run by this instance.
+     * Registering a listener that is already registered has no effect.
+     *
+     * @param listener the listener to register
+     * @throws IllegalArgumentException if listener is null
+     * @see SearchMetrics
+     */
+    public void addSearchListener(SearchListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        searchListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Unregisters a search listener. Unregistering a listener that is not registered has no effect.
+     *
+     * @param listener the listener to unregister
+     */
+    public void removeSearchListener(SearchListener listener) {
+        searchListeners.remove(listener);
+    }
 
     /**
      * Performs breadth-first search (BFS) starting from the given node.
@@ -25,63 +55,197 @@ public class GraphAlgorithms<T> {
      * @return a list of nodes visited in BFS order
      */
     public List<Node<T>> bfs(Node<T> startNode) {
+        return breadthFirst(null, startNode, false);
+    }
+
+    /**
+     * Performs breadth-first search (BFS) starting from the given node, reading edges through the
+     * graph, e.g. to traverse a {@link GraphSnapshot}.
+     *
+     * @param graph the graph
+     * @param startNode the starting node
+     * @return a list of nodes visited in BFS order
+     * @throws IllegalArgumentException if the start node is not part of the graph
+     */
+    public List<Node<T>> bfs(Graph<T> graph, Node<T> startNode) {
+        if (!graph.containsNode(startNode)) {
+            throw new IllegalArgumentException("Start node must be part of the graph");
+        }
+        return breadthFirst(graph, startNode, false);
+    }
+
+    /**
+     * Performs depth-first search (DFS) starting from the given node.
+     *
+     * @param startNode the starting node
+     * @return a list of nodes visited in DFS order
+     */
+    public List<Node<T>> dfs(Node<T> startNode) {
+        return depthFirst(null, startNode, false);
+    }
+
+    /**
+     * Performs depth-first search (DFS) starting from the given node, reading edges through the
+     * graph, e.g. to traverse a {@link GraphSnapshot}.
+     *
+     * @param graph the graph
+     * @param startNode the starting node
+     * @return a list of nodes visited in DFS order
+     * @throws IllegalArgumentException if the start node is not part of the graph
+     */
+    public List<Node<T>> dfs(Graph<T> graph, Node<T> startNode) {
+        if (!graph.containsNode(startNode)) {
+            throw new IllegalArgumentException("Start node must be part of the graph");
+        }
+        return depthFirst(graph, startNode, false);
+    }
+
+    /**
+     * Performs breadth-first search (BFS) against the direction of the edges, following in-edges
+     * from the given node, so the result is every node that can reach it.
+     *
+     * @param graph the graph
+     * @param startNode the starting node
+     * @return a list of nodes visited in BFS order
+     * @throws IllegalArgumentException if the start node is not part of the graph
+     */
+    public List<Node<T>> reverseBfs(DirectedGraph<T> graph, Node<T> startNode) {
+        if (!graph.containsNode(startNode)) {
+            throw new IllegalArgumentException("Start node must be part of the graph");
+        }
+        return breadthFirst(graph, startNode, true);
+    }
+
+    /**
+     * Performs depth-first search (DFS) against the direction of the edges, following in-edges
+     * from the given node, so the result is every node that can reach it.
+     *
+     * @param graph the graph
+     * @param startNode the starting node
+     * @return a list of nodes visited in DFS order
+     * @throws IllegalArgumentException if the start node is not part of the graph
+     */
+    public List<Node<T>> reverseDfs(DirectedGraph<T> graph, Node<T> startNode) {
+        if (!graph.containsNode(startNode)) {
+            throw new IllegalArgumentException("Start node must be part of the graph");
+        }
+        return depthFirst(graph, startNode, true);
+    }
+
+    /**
+     * @param graph the graph to read edges through, or null to follow the nodes' own edges
+     * @param reverse true to follow the in-edges of a {@link DirectedGraph} instead
+     */
+    private List<Node<T>> breadthFirst(Graph<T> graph, Node<T> startNode, boolean reverse) {
+        if (graph instanceof IndexedGraph) {
+            TraversalContext context = TraversalContext.current();
+            return toNodes(graph, context, bfs((IndexedGraph) graph, startNode.getId(), context));
+        }
+
+        SearchRecorder recorder = SearchRecorder.start(reverse ? "reverseBfs" : "bfs", searchListeners);
         List<Node<T>> result = new ArrayList<>();
+        long scanned = 0;
 
-        Deque<Node<T>> queue = new ArrayDeque<>();
-        Set<Node<T>> visited = new HashSet<>();
+        // Visited marks are keyed by node id in the thread's context; the result doubles as the queue
+        TraversalContext visited = TraversalContext.current();
+        visited.reset(startNode.getId() + 1);
 
-        queue.offerLast(startNode);
-        visited.add(startNode);
+        result.add(startNode);
+        visited.mark(startNode.getId());
 
-        while(!queue.isEmpty()) {
-            Node<T> currentNode = queue.pollFirst();
-            result.add(currentNode);
+        for(int head = 0; head < result.size(); head++) {
+            Node<T> currentNode = result.get(head);
+            List<Edge<T>> edges = edges(graph, currentNode, reverse);
+            scanned += edges.size();
 
-            for(Edge<T> edge: currentNode.getEdges()) {
-                Node<T> neighbour = edge.getToNode();
+            for(Edge<T> edge: edges) {
+                Node<T> neighbour = reverse ? edge.getFromNode() : edge.getToNode();
 
-                if(!visited.contains(neighbour)) {
-                    visited.add(neighbour);
-                    queue.offerLast(neighbour);
+                if(visited.mark(neighbour.getId())) {
+                    result.add(neighbour);
                 }
             }
         }
 
+        if (recorder != null) {
+            recorder.finish(result.size(), scanned);
+        }
         return result;
     }
 
     /**
-     * Performs depth-first search (DFS) starting from the given node.
-     *
-     * @param startNode the starting node
-     * @return a list of nodes visited in DFS order
+     * @param graph the graph to read edges through, or null to follow the nodes' own edges
+     * @param reverse true to follow the in-edges of a {@link DirectedGraph} instead
      */
-    public List<Node<T>> dfs(Node<T> startNode) {
+    private List<Node<T>> depthFirst(Graph<T> graph, Node<T> startNode, boolean reverse) {
+        if (graph instanceof IndexedGraph) {
+            TraversalContext context = TraversalContext.current();
+            return toNodes(graph, context, dfs((IndexedGraph) graph, startNode.getId(), context));
+        }
+
+        SearchRecorder recorder = SearchRecorder.start(reverse ? "reverseDfs" : "dfs", searchListeners);
         List<Node<T>> result = new ArrayList<>();
+        long scanned = 0;
 
-        Deque<Node<T>> stack = new ArrayDeque<>();
-        Set<Node<T>> visited = new HashSet<>();
+        // Visited marks are keyed by node id in the thread's context, which also holds the stack
+        TraversalContext context = TraversalContext.current();
+        context.reset(startNode.getId() + 1);
 
-        stack.push(startNode);
-        visited.add(startNode);
+        context.pushNode(startNode);
+        context.mark(startNode.getId());
 
-        while(!stack.isEmpty()) {
-            Node<T> curr = stack.pop();
+        while(context.hasNodes()) {
+            Node<T> curr = context.popNode();
             result.add(curr);
+            List<Edge<T>> edges = edges(graph, curr, reverse);
+            scanned += edges.size();
 
-            for(Edge<T> edge: curr.getEdges()) {
-                Node<T> neighbour = edge.getToNode();
+            for(Edge<T> edge: edges) {
+                Node<T> neighbour = reverse ? edge.getFromNode() : edge.getToNode();
 
-                if(!visited.contains(neighbour)) {
-                    visited.add(neighbour);
-                    stack.push(neighbour);
+                if(context.mark(neighbour.getId())) {
+                    context.pushNode(neighbour);
                 }
             }
         }
 
+        if (recorder != null) {
+            recorder.finish(result.size(), scanned);
+        }
         return result;
     }
 
+    private List<Edge<T>> edges(Graph<T> graph, Node<T> node, boolean reverse) {
+        if (reverse) {
+            return ((DirectedGraph<T>) graph).inEdges(node);
+        }
+        return graph == null ? node.getEdges() : graph.getEdges(node);
+    }
+
+    /**
+     * Lazily performs breadth-first search (BFS) starting from the given node. Nodes are only
+     * discovered as the stream consumes them, so short-circuiting operations stop the search early.
+     *
+     * @param startNode the starting node
+     * @return a stream of the nodes visited in BFS order
+     * @see Traversal
+     */
+    public Stream<Node<T>> bfsStream(Node<T> startNode) {
+        return Traversal.breadthFirst(startNode).stream();
+    }
+
+    /**
+     * Lazily performs depth-first search (DFS) starting from the given node. Nodes are only
+     * discovered as the stream consumes them, so short-circuiting operations stop the search early.
+     *
+     * @param startNode the starting node
+     * @return a stream of the nodes visited in DFS order
+     * @see Traversal
+     */
+    public Stream<Node<T>> dfsStream(Node<T> startNode) {
+        return Traversal.depthFirst(startNode).stream();
+    }
+
     /**
      * Performs Dijkstra's algorithm to find the shortest paths from the source node.
      *
@@ -91,47 +255,631 @@ public class GraphAlgorithms<T> {
      * @throws NegativeWeightException - if any of the weights are negative
      */
     public Map<Node<T>, Double> dijkstra(Graph<T> graph, Node<T> sourceNode) {
-        if (!graph.getNodes().contains(sourceNode)) {
+        if (!graph.containsNode(sourceNode)) {
             throw new IllegalArgumentException("Source node must be part of the graph");
         }
 
-        Map<Node<T>, Double> distances = new HashMap<>();
+        TraversalContext context = TraversalContext.current();
+        search(graph, sourceNode, null, context, "dijkstra");
+
+        // Nodes hash by identity, so keep the graph's node order for a deterministic iteration order
+        Map<Node<T>, Double> distances = new LinkedHashMap<>();
         for(Node<T> node: graph.getNodes()) {
-            distances.put(node, Double.POSITIVE_INFINITY);
+            distances.put(node, context.distance(node.getId()));
+        }
+        return distances;
+    }
+
+    /**
+     * Performs Dijkstra's algorithm to find the shortest paths from the source node, keeping the
+     * predecessor of every node so that the paths themselves can be reconstructed.
+     *
+     * @param graph the graph
+     * @param sourceNode the source node
+     * @return the shortest path tree rooted at the source node
+     * @throws IllegalArgumentException if the source node is not part of the graph
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public ShortestPathTree<T> shortestPathTree(Graph<T> graph, Node<T> sourceNode) {
+        if (!graph.containsNode(sourceNode)) {
+            throw new IllegalArgumentException("Source node must be part of the graph");
         }
 
-        distances.put(sourceNode, 0.0);
+        TraversalContext context = TraversalContext.current();
+        int settled = search(graph, sourceNode, null, context, "shortestPathTree");
+
+        int idBound = graph.getIdBound();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<T>[] nodes = new Node[idBound];
+        double[] distances = new double[idBound];
+        int[] parents = new int[idBound];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
 
-        PriorityQueue<Node<T>> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<Node<T>> visited = new HashSet<>();
+        for(int i = 0; i < settled; i++) {
+            int id = context.visited(i);
+            nodes[id] = graph.getNode(id);
+            distances[id] = context.distance(id);
+            parents[id] = context.parent(id);
+        }
+        return new ShortestPathTree<>(sourceNode, nodes, distances, parents, settled);
+    }
+
+    /**
+     * Finds the shortest path between two nodes, stopping as soon as the target is settled.
+     *
+     * @param graph the graph
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest path from the source to the target, or null if the target is unreachable
+     * @throws IllegalArgumentException if either node is not part of the graph
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Path<T> shortestPath(Graph<T> graph, Node<T> sourceNode, Node<T> targetNode) {
+        if (!graph.containsNode(sourceNode) || !graph.containsNode(targetNode)) {
+            throw new IllegalArgumentException("Source and target nodes must be part of the graph");
+        }
 
-        priorityQueue.add(sourceNode);
+        TraversalContext context = TraversalContext.current();
+        search(graph, sourceNode, targetNode, context, "shortestPath");
+        if (!context.isVisited(targetNode.getId())) {
+            return null;
+        }
 
-        while(!priorityQueue.isEmpty()) {
-            Node<T> currentNode = priorityQueue.poll();
+        List<Node<T>> nodes = new ArrayList<>();
+        for(int id = targetNode.getId(); id >= 0; id = context.parent(id)) {
+            nodes.add(graph.getNode(id));
+        }
+        Collections.reverse(nodes);
+        return Path.of(nodes, context.distance(targetNode.getId()));
+    }
 
-            if(visited.contains(currentNode)) {
-                continue;
+    /**
+     * Runs Dijkstra's algorithm on a live graph from the source node. All per-node state is kept in
+     * the context, keyed by node id, so the search neither hashes nodes nor allocates in steady state.
+     * Graphs that are also indexed, with node ids as indices, are searched through their indices,
+     * so their edges are never materialized.
+     *
+     * @param graph the graph
+     * @param sourceNode the source node
+     * @param targetNode the node to stop at once it is settled, or null to settle every reachable node
+     * @param context the scratch state to record distances, parents and the settling order in
+     * @param algorithm the name to report the search under
+     * @return the number of nodes settled
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    private int search(Graph<T> graph, Node<T> sourceNode, Node<T> targetNode, TraversalContext context, String algorithm) {
+        if (graph instanceof IndexedGraph) {
+            int target = targetNode == null ? -1 : targetNode.getId();
+            return dijkstra((IndexedGraph) graph, sourceNode.getId(), target, context, algorithm);
+        }
+
+        SearchRecorder recorder = SearchRecorder.start(algorithm, searchListeners);
+        int nodeCount = graph.getIdBound();
+        context.reset(nodeCount);
+        IndexedDaryHeap heap = context.heap();
+        int[] settled = context.order;
+        int count = 0;
+        long scanned = 0;
+        if (recorder != null) {
+            recorder.before(heap);
+        }
+
+        context.reach(sourceNode.getId(), 0, -1);
+        heap.insert(sourceNode.getId(), 0);
+
+        while(!heap.isEmpty()) {
+            int currentId = heap.poll();
+            Node<T> currentNode = graph.getNode(currentId);
+            double distance = context.distances[currentId];
+            context.visit(currentId);
+            settled[count++] = currentId;
+
+            if(currentNode == targetNode) {
+                break;
             }
 
-            visited.add(currentNode);
+            List<Edge<T>> edges = graph.getEdges(currentNode);
+            scanned += edges.size();
 
-            for(Edge<T> edge: currentNode.getEdges()) {
+            for(Edge<T> edge: edges) {
                 double edgeWeight = edge.getWeight();
                 if(edgeWeight < 0) {
-                    throw new NegativeWeightException("Graph contains a negative weight edge: " + edgeWeight + "\nSee: https://stackoverflow.com/questions/13159337/why-doesnt-dijkstras-algorithm-work-for-negative-weight-edges");
+                    context.orderSize = count;
+                    throw negativeWeight(edgeWeight);
                 }
 
-                Node<T> neighbour = edge.getToNode();
-                double newDist = distances.get(currentNode) + edgeWeight;
+                int neighbour = edge.getToNode().getId();
+                if(neighbour >= nodeCount) {
+                    continue; // Added by a concurrent writer after the search started
+                }
+
+                double newDist = distance + edgeWeight;
 
-                if(newDist < distances.get(neighbour)) {
-                    distances.put(neighbour, newDist);
-                    priorityQueue.add(neighbour);
+                if(!context.isReached(neighbour)) {
+                    context.reach(neighbour, newDist, currentId);
+                    heap.insert(neighbour, newDist);
+                } else if(newDist < context.distances[neighbour] && !context.isVisited(neighbour)) {
+                    context.reach(neighbour, newDist, currentId);
+                    heap.decreaseKey(neighbour, newDist);
                 }
             }
         }
 
-        return distances;
+        context.orderSize = count;
+        if (recorder != null) {
+            recorder.after(heap).finish(count, scanned);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the shortest path between two nodes of a CSR snapshot, stopping as soon as the target is settled.
+     *
+     * @param graph the snapshot
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest path from the source to the target, or null if the target is unreachable
+     * @throws IllegalArgumentException if either node is not part of the snapshot
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Path<T> shortestPath(CsrGraph<T> graph, Node<T> sourceNode, Node<T> targetNode) {
+        int target = indexOf(graph, targetNode);
+        DijkstraEngine engine = new DijkstraEngine(graph);
+
+        if (!run(engine, indexOf(graph, sourceNode), target, "shortestPath")) {
+            return null;
+        }
+        return Path.of(graph, engine.pathTo(target), engine.distance(target));
+    }
+
+    /**
+     * Finds the shortest path between two nodes of a CSR snapshot by searching from both ends at once.
+     * Callers running many queries on the same snapshot should reuse a {@link BidirectionalDijkstra} instead.
+     *
+     * @param graph the snapshot
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest path from the source to the target, or null if the target is unreachable
+     * @throws IllegalArgumentException if either node is not part of the snapshot
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Path<T> bidirectionalShortestPath(CsrGraph<T> graph, Node<T> sourceNode, Node<T> targetNode) {
+        BidirectionalDijkstra engine = new BidirectionalDijkstra(graph);
+
+        double distance = engine.run(indexOf(graph, sourceNode), indexOf(graph, targetNode));
+        if (distance == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return Path.of(graph, engine.path(), distance);
+    }
+
+    /**
+     * Performs breadth-first search (BFS) on a CSR snapshot starting from the given node.
+     *
+     * @param graph the snapshot to traverse
+     * @param startNode the starting node
+     * @return a list of nodes visited in BFS order
+     * @throws IllegalArgumentException if the start node is not part of the snapshot
+     */
+    public List<Node<T>> bfs(CsrGraph<T> graph, Node<T> startNode) {
+        return toNodes(graph, bfs(graph, indexOf(graph, startNode)));
+    }
+
+    /**
+     * Performs breadth-first search (BFS) on an indexed graph starting from the given node index.
+     *
+     * @param graph the graph to traverse
+     * @param startNode the index of the starting node
+     * @return the indices of the nodes visited, in BFS order
+     */
+    public int[] bfs(IndexedGraph graph, int startNode) {
+        TraversalContext context = TraversalContext.current();
+        int count = bfs(graph, startNode, context);
+        return Arrays.copyOf(context.order, count);
+    }
+
+    /**
+     * Performs breadth-first search (BFS) on an indexed graph using reusable scratch state, so
+     * repeated searches allocate nothing. The visit order, BFS levels and parent links can be read
+     * from the context until its next query.
+     *
+     * @param graph the graph to traverse
+     * @param startNode the index of the starting node
+     * @param context the scratch state to use, e.g. {@link TraversalContext#current()}
+     * @return the number of nodes visited
+     */
+    public int bfs(IndexedGraph graph, int startNode, TraversalContext context) {
+        SearchRecorder recorder = SearchRecorder.start("bfs", searchListeners);
+        context.reset(graph.nodeCount());
+        int[] queue = context.order;
+        long scanned = 0;
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startNode;
+        context.visit(startNode);
+        context.reach(startNode, 0, -1);
+
+        while(head < tail) {
+            int currentNode = queue[head++];
+            double level = context.distances[currentNode] + 1;
+            scanned += graph.edgeEnd(currentNode) - graph.edgeStart(currentNode);
+
+            for(int edge = graph.edgeStart(currentNode), end = graph.edgeEnd(currentNode); edge < end; edge++) {
+                int neighbour = graph.edgeTarget(edge);
+
+                if(context.visit(neighbour)) {
+                    context.reach(neighbour, level, currentNode);
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        context.orderSize = tail;
+        if (recorder != null) {
+            recorder.finish(tail, scanned);
+        }
+        return tail;
+    }
+
+    /**
+     * Performs a parallel, direction-optimizing breadth-first search on a CSR snapshot, using the
+     * common fork/join pool. Nodes are visited level by level; the order within a level is unspecified.
+     *
+     * @param graph the snapshot to traverse
+     * @param startNode the starting node
+     * @return the visitation order, BFS levels and parent links by node index of the snapshot
+     * @throws IllegalArgumentException if the start node is not part of the snapshot
+     * @see ParallelBfs
+     */
+    public BfsResult parallelBfs(CsrGraph<T> graph, Node<T> startNode) {
+        return new ParallelBfs(graph).run(indexOf(graph, startNode));
+    }
+
+    /**
+     * Performs depth-first search (DFS) on a CSR snapshot starting from the given node.
+     *
+     * @param graph the snapshot to traverse
+     * @param startNode the starting node
+     * @return a list of nodes visited in DFS order
+     * @throws IllegalArgumentException if the start node is not part of the snapshot
+     */
+    public List<Node<T>> dfs(CsrGraph<T> graph, Node<T> startNode) {
+        return toNodes(graph, dfs(graph, indexOf(graph, startNode)));
+    }
+
+    /**
+     * Performs depth-first search (DFS) on an indexed graph starting from the given node index.
+     * Visits nodes in the same order as {@link #dfs(Node)}.
+     *
+     * @param graph the graph to traverse
+     * @param startNode the index of the starting node
+     * @return the indices of the nodes visited, in DFS order
+     */
+    public int[] dfs(IndexedGraph graph, int startNode) {
+        TraversalContext context = TraversalContext.current();
+        int count = dfs(graph, startNode, context);
+        return Arrays.copyOf(context.order, count);
+    }
+
+    /**
+     * Performs depth-first search (DFS) on an indexed graph using reusable scratch state, so
+     * repeated searches allocate nothing. Visits nodes in the same order as {@link #dfs(Node)}.
+     * The visit order, depths and parent links can be read from the context until its next query.
+     *
+     * @param graph the graph to traverse
+     * @param startNode the index of the starting node
+     * @param context the scratch state to use, e.g. {@link TraversalContext#current()}
+     * @return the number of nodes visited
+     */
+    public int dfs(IndexedGraph graph, int startNode, TraversalContext context) {
+        SearchRecorder recorder = SearchRecorder.start("dfs", searchListeners);
+        context.reset(graph.nodeCount());
+        int[] result = context.order;
+        int[] stack = context.stack;
+        long scanned = 0;
+
+        int count = 0;
+        int top = 0;
+        stack[top++] = startNode;
+        context.visit(startNode);
+        context.reach(startNode, 0, -1);
+
+        while(top > 0) {
+            int curr = stack[--top];
+            result[count++] = curr;
+            double depth = context.distances[curr] + 1;
+            scanned += graph.edgeEnd(curr) - graph.edgeStart(curr);
+
+            for(int edge = graph.edgeStart(curr), end = graph.edgeEnd(curr); edge < end; edge++) {
+                int neighbour = graph.edgeTarget(edge);
+
+                if(context.visit(neighbour)) {
+                    context.reach(neighbour, depth, curr);
+                    stack[top++] = neighbour;
+                }
+            }
+        }
+
+        context.orderSize = count;
+        if (recorder != null) {
+            recorder.finish(count, scanned);
+        }
+        return count;
+    }
+
+    /**
+     * Performs Dijkstra's algorithm on a CSR snapshot to find the shortest paths from the source node.
+     *
+     * @param graph the snapshot
+     * @param sourceNode the source node
+     * @return a map of nodes to their shortest distance from the source node
+     * @throws IllegalArgumentException if the source node is not part of the snapshot
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public Map<Node<T>, Double> dijkstra(CsrGraph<T> graph, Node<T> sourceNode) {
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        run(engine, indexOf(graph, sourceNode), -1, "dijkstra");
+        return engine.toDistanceMap(graph);
+    }
+
+    /**
+     * Performs Dijkstra's algorithm on an indexed graph to find the shortest paths from the source node index.
+     * Callers running many queries on the same graph should reuse a {@link DijkstraEngine} instead.
+     *
+     * @param graph the graph
+     * @param sourceNode the index of the source node
+     * @return the shortest distance to every node index, {@code Double.POSITIVE_INFINITY} if unreachable
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public double[] dijkstra(IndexedGraph graph, int sourceNode) {
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        run(engine, sourceNode, -1, "dijkstra");
+        return engine.copyDistances();
+    }
+
+    /**
+     * Performs Dijkstra's algorithm on an indexed graph using reusable scratch state, so repeated
+     * searches allocate nothing. Settled nodes, in settling order, and their distances and parent
+     * links can be read from the context until its next query.
+     *
+     * @param graph the graph to search
+     * @param sourceNode the index of the source node
+     * @param context the scratch state to use, e.g. {@link TraversalContext#current()}
+     * @return the number of nodes settled, i.e. reachable from the source
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     */
+    public int dijkstra(IndexedGraph graph, int sourceNode, TraversalContext context) {
+        return dijkstra(graph, sourceNode, -1, context, "dijkstra");
+    }
+
+    /**
+     * @param targetNode the index of the node to stop at once it is settled, or -1 to settle every reachable node
+     * @param algorithm the name to report the search under
+     */
+    private int dijkstra(IndexedGraph graph, int sourceNode, int targetNode, TraversalContext context, String algorithm) {
+        SearchRecorder recorder = SearchRecorder.start(algorithm, searchListeners);
+        context.reset(graph.nodeCount());
+        IndexedDaryHeap heap = context.heap();
+        int[] settled = context.order;
+        int count = 0;
+        long scanned = 0;
+        if (recorder != null) {
+            recorder.before(heap);
+        }
+
+        context.reach(sourceNode, 0, -1);
+        heap.insert(sourceNode, 0);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            double distance = context.distances[node];
+            context.visit(node);
+            settled[count++] = node;
+
+            if (node == targetNode) {
+                break;
+            }
+
+            scanned += graph.edgeEnd(node) - graph.edgeStart(node);
+
+            for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                double edgeWeight = graph.edgeWeight(edge);
+                if (edgeWeight < 0) {
+                    context.orderSize = count;
+                    throw negativeWeight(edgeWeight);
+                }
+
+                int neighbour = graph.edgeTarget(edge);
+                double newDist = distance + edgeWeight;
+                if (!context.isReached(neighbour)) {
+                    context.reach(neighbour, newDist, node);
+                    heap.insert(neighbour, newDist);
+                } else if (newDist < context.distances[neighbour] && !context.isVisited(neighbour)) {
+                    context.reach(neighbour, newDist, node);
+                    heap.decreaseKey(neighbour, newDist);
+                }
+            }
+        }
+
+        context.orderSize = count;
+        if (recorder != null) {
+            recorder.after(heap).finish(count, scanned);
+        }
+        return count;
+    }
+
+    /**
+     * Computes the shortest distances from the source node of a CSR snapshot with the parallel
+     * delta-stepping algorithm on the common fork/join pool, using an automatically selected bucket width.
+     *
+     * @param graph the snapshot
+     * @param sourceNode the source node
+     * @return a map of nodes to their shortest distance from the source node
+     * @throws IllegalArgumentException if the source node is not part of the snapshot
+     * @throws NegativeWeightException - if any of the weights are negative
+     * @see DeltaStepping
+     */
+    public Map<Node<T>, Double> deltaStepping(CsrGraph<T> graph, Node<T> sourceNode) {
+        double[] distances = new DeltaStepping(graph).run(indexOf(graph, sourceNode));
+
+        Map<Node<T>, Double> result = new HashMap<>(distances.length * 2);
+        for(int i = 0; i < distances.length; i++) {
+            result.put(graph.getNode(i), distances[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the shortest distance from every source node to every target node of a CSR snapshot,
+     * running the per-source searches in parallel on the common fork/join pool.
+     *
+     * @param graph the snapshot
+     * @param sourceNodes the source nodes
+     * @param targetNodes the target nodes
+     * @return a matrix whose element {@code [i][j]} is the distance from the i-th source node to
+     *         the j-th target node, {@code Double.POSITIVE_INFINITY} if unreachable
+     * @throws IllegalArgumentException if any of the nodes is not part of the snapshot
+     * @throws NegativeWeightException - if a reachable edge has a negative weight
+     * @see DistanceMatrix
+     */
+    public double[][] distanceMatrix(CsrGraph<T> graph, List<Node<T>> sourceNodes, List<Node<T>> targetNodes) {
+        int[] sources = new int[sourceNodes.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = indexOf(graph, sourceNodes.get(i));
+        }
+
+        int[] targets = new int[targetNodes.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = indexOf(graph, targetNodes.get(i));
+        }
+
+        return new DistanceMatrix(graph).compute(sources, targets);
+    }
+
+    /**
+     * Computes the connected components of a graph in parallel on the common fork/join pool. Edge
+     * directions are ignored, so a directed graph yields its weakly connected components.
+     *
+     * <p>
+     * An {@link OffHeapGraph} is analyzed in place. Any other graph is copied with
+     * {@link Graph#freeze()} first, which takes a consistent snapshot of a {@link ConcurrentGraph}.
+     *
+     * @param graph the graph
+     * @return the component id of every node id, or -1 for ids without a node; component ids are
+     *         dense from 0 and numbered in the order the components first appear in the node list
+     * @throws IllegalArgumentException if graph is null
+     * @see ConnectedComponents
+     */
+    public int[] connectedComponents(Graph<T> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+
+        if (graph instanceof IndexedGraph) {
+            // Graphs that are also indexed use their node ids as node indices
+            return new ConnectedComponents((IndexedGraph) graph).run();
+        }
+
+        CsrGraph<T> snapshot = graph.freeze();
+        return byId(graph, snapshot, new ConnectedComponents(snapshot).run());
+    }
+
+    /**
+     * Computes the strongly connected components of a directed graph, with the parallel
+     * forward-backward algorithm on the common fork/join pool for large graphs and Tarjan's
+     * algorithm otherwise.
+     *
+     * <p>
+     * The graph is copied with {@link Graph#freeze()}, which takes a consistent snapshot of a
+     * {@link ConcurrentGraph} and copies an {@link OffHeapGraph} without creating edges; the
+     * parallel algorithm also needs the transpose of the copy.
+     *
+     * @param graph the graph
+     * @return the component id of every node id, or -1 for ids without a node; component ids are
+     *         dense from 0 and numbered in the order the components first appear in the node list
+     * @throws IllegalArgumentException if graph is null or undirected
+     * @see StronglyConnectedComponents
+     */
+    public int[] stronglyConnectedComponents(Graph<T> graph) {
+        if (graph == null || !graph.isDirected()) {
+            throw new IllegalArgumentException("Graph must be directed");
+        }
+
+        CsrGraph<T> snapshot = graph.freeze();
+        return byId(graph, snapshot, new StronglyConnectedComponents(snapshot).run());
+    }
+
+    /**
+     * Re-keys per-index results of a snapshot by the ids of the graph it was taken from.
+     */
+    private int[] byId(Graph<T> graph, CsrGraph<T> snapshot, int[] components) {
+        int[] result = new int[graph.getIdBound()];
+        Arrays.fill(result, -1);
+        for (int i = 0; i < components.length; i++) {
+            result[snapshot.getNode(i).getId()] = components[i];
+        }
+        return result;
+    }
+
+    /**
+     * Creates the exception thrown when a shortest path search meets a negative edge weight.
+     *
+     * @param edgeWeight the offending weight
+     * @return the exception to throw
+     */
+    static NegativeWeightException negativeWeight(double edgeWeight) {
+        return new NegativeWeightException("Graph contains a negative weight edge: " + edgeWeight + "\nSee: https://stackoverflow.com/questions/13159337/why-doesnt-dijkstras-algorithm-work-for-negative-weight-edges");
+    }
+
+    /**
+     * Runs a query of a Dijkstra engine, reporting it to the search listeners.
+     *
+     * @param target the node to stop at once it is settled, or -1 to settle every reachable node
+     * @return true if the target was reached, or always for a search without a target
+     */
+    private boolean run(DijkstraEngine engine, int source, int target, String algorithm) {
+        SearchRecorder recorder = SearchRecorder.start(algorithm, searchListeners);
+        if (recorder != null) {
+            recorder.before(engine.heap());
+        }
+
+        boolean reached = true;
+        if (target < 0) {
+            engine.run(source);
+        } else {
+            reached = engine.run(source, target);
+        }
+
+        if (recorder != null) {
+            recorder.after(engine.heap()).finish(engine.settledCount(), engine.scannedEdges());
+        }
+        return reached;
+    }
+
+    private int indexOf(CsrGraph<T> graph, Node<T> node) {
+        int index = graph.indexOf(node);
+        if (index < 0) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+        return index;
+    }
+
+    private List<Node<T>> toNodes(Graph<T> graph, TraversalContext context, int count) {
+        List<Node<T>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(graph.getNode(context.order[i]));
+        }
+        return result;
+    }
+
+    private List<Node<T>> toNodes(CsrGraph<T> graph, int[] indices) {
+        List<Node<T>> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(graph.getNode(index));
+        }
+        return result;
     }
 }
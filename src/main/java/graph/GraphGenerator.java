@@ -0,0 +1,635 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Generates large synthetic graphs for testing and sizing, in parallel and reproducibly.
+ * <p>
+ * Four random graph models are available: {@link #erdosRenyi Erdos-Renyi}, {@link #rmat R-MAT},
+ * {@link #grid road-like grids} and {@link #barabasiAlbert Barabasi-Albert}. Nodes are numbered
+ * {@code 0..n-1}, node {@code i} having id {@code i} and holding the data {@code i}. Edge weights
+ * are drawn uniformly from the range set with {@link #weights(double, double)}, 1.0 by default.
+ * No model generates self-loops or more than one edge between the same nodes.
+ * <p>
+ * The edges are generated in fixed-size blocks on a fork/join pool, every block drawing from its
+ * own random generator seeded from the {@link #seed(long) seed} and the block number. The same
+ * model, parameters and seed therefore give the same graph, with its edges in the same order,
+ * whatever the pool or the machine. The graph is then built like {@link EdgeListLoader} builds
+ * it, from a counting sort of the edges and one batch per node, or laid out directly as a
+ * {@link CsrGraph} without creating a live graph at all.
+ */
+public final class GraphGenerator {
+    // Edges, or sources for Erdos-Renyi, per random block; fixed so that results do not depend on the pool
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int NODE_CHUNK_SIZE = 4096;
+    private static final long MAX_EDGES = Integer.MAX_VALUE - 8;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // Grid coordinates are moved by up to this much in each axis
+    private static final double GRID_JITTER = 0.25;
+
+    private final Model model;
+    private long seed;
+    private double minWeight = 1.0;
+    private double maxWeight = 1.0;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private GraphGenerator(Model model) {
+        this.model = model;
+    }
+
+    /**
+     * Creates an Erdos-Renyi generator: every pair of distinct nodes is connected independently
+     * with the same probability. In directed graphs ordered pairs are drawn, so both arcs between
+     * two nodes may exist. The expected number of edges is {@code p * n * (n - 1)} in directed
+     * graphs and half of it in undirected ones.
+     *
+     * @param nodeCount the number of nodes
+     * @param edgeProbability the probability of every edge
+     * @return the generator
+     * @throws IllegalArgumentException if nodeCount is negative or edgeProbability is not in [0, 1]
+     */
+    public static GraphGenerator erdosRenyi(int nodeCount, double edgeProbability) {
+        if (nodeCount < 0) {
+            throw new IllegalArgumentException("Node count cannot be negative");
+        }
+
+        if (!(edgeProbability >= 0 && edgeProbability <= 1)) {
+            throw new IllegalArgumentException("Edge probability must be between 0 and 1");
+        }
+
+        return new GraphGenerator(new ErdosRenyi(nodeCount, edgeProbability));
+    }
+
+    /**
+     * Creates an R-MAT generator with the Graph500 parameters a = 0.57, b = c = 0.19.
+     *
+     * @param scale the base-2 logarithm of the number of nodes
+     * @param edgeCount the number of edges to draw
+     * @return the generator
+     * @throws IllegalArgumentException if scale is not between 0 and 30 or edgeCount is negative
+     * @see #rmat(int, long, double, double, double)
+     */
+    public static GraphGenerator rmat(int scale, long edgeCount) {
+        return rmat(scale, edgeCount, 0.57, 0.19, 0.19);
+    }
+
+    /**
+     * Creates an R-MAT (recursive matrix) generator, a Kronecker graph model giving power-law
+     * degrees and community structure like social and web graphs. Every edge is placed by
+     * recursively picking one quadrant of the adjacency matrix, with probabilities a (top left),
+     * b (top right), c (bottom left) and {@code 1 - a - b - c} (bottom right). Low ids are the hubs.
+     * <p>
+     * Drawn self-loops and repeated edges are dropped, so the graph has somewhat fewer than
+     * edgeCount edges, the more so the more skewed the parameters are.
+     *
+     * @param scale the base-2 logarithm of the number of nodes
+     * @param edgeCount the number of edges to draw
+     * @param a the probability of the top left quadrant
+     * @param b the probability of the top right quadrant
+     * @param c the probability of the bottom left quadrant
+     * @return the generator
+     * @throws IllegalArgumentException if scale is not between 0 and 30, edgeCount is negative or
+     *         too large, or the probabilities are negative or add up to more than 1
+     */
+    public static GraphGenerator rmat(int scale, long edgeCount, double a, double b, double c) {
+        if (scale < 0 || scale > 30) {
+            throw new IllegalArgumentException("Scale must be between 0 and 30");
+        }
+
+        if (edgeCount < 0 || edgeCount > MAX_EDGES) {
+            throw new IllegalArgumentException("Edge count must be between 0 and " + MAX_EDGES);
+        }
+
+        if (!(a >= 0 && b >= 0 && c >= 0 && a + b + c <= 1)) {
+            throw new IllegalArgumentException("Quadrant probabilities must be non-negative and add up to at most 1");
+        }
+
+        return new GraphGenerator(new Rmat(scale, edgeCount, a, b, c));
+    }
+
+    /**
+     * Creates a road-like grid generator: a width by height lattice whose nodes are connected to
+     * their horizontal and vertical neighbours, in both directions in directed graphs. Node
+     * {@code i} lies in column {@code i % width} and row {@code i / width}, moved by a random
+     * offset of up to {@value #GRID_JITTER} in each axis; see {@link #x(int)} and {@link #y(int)}.
+     * <p>
+     * The weight of an edge is the Euclidean distance between its nodes times a factor drawn from
+     * the {@linkplain #weights(double, double) weight range}, like the travel time of a road, so the
+     * straight-line distance is a consistent A* heuristic as long as the minimum weight is at least 1.
+     *
+     * @param width the number of columns
+     * @param height the number of rows
+     * @return the generator
+     * @throws IllegalArgumentException if width or height is negative, or the grid has too many nodes
+     */
+    public static GraphGenerator grid(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Grid dimensions cannot be negative");
+        }
+
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many nodes: " + (long) width * height);
+        }
+
+        return new GraphGenerator(new Grid(width, height));
+    }
+
+    /**
+     * Creates a Barabasi-Albert generator: nodes arrive one by one, each drawing edgesPerNode edges
+     * to earlier nodes with a probability proportional to their degree, which gives power-law
+     * degrees with exponent 3. In directed graphs the arcs point from the new node to the earlier one.
+     * <p>
+     * Edges are drawn with the parallel copy model of Sanders and Schulz: the target of every edge
+     * copies an endpoint of a uniformly chosen earlier edge, found through a hash of its position, so
+     * edges are independent of each other and need no shared state. Drawn self-loops and repeated
+     * edges are dropped, so nodes, and the first ones especially, have slightly fewer edges than asked.
+     *
+     * @param nodeCount the number of nodes
+     * @param edgesPerNode the number of edges every node draws
+     * @return the generator
+     * @throws IllegalArgumentException if nodeCount is negative, edgesPerNode is not positive, or
+     *         the graph has too many edges
+     */
+    public static GraphGenerator barabasiAlbert(int nodeCount, int edgesPerNode) {
+        if (nodeCount < 0) {
+            throw new IllegalArgumentException("Node count cannot be negative");
+        }
+
+        if (edgesPerNode <= 0) {
+            throw new IllegalArgumentException("Edges per node must be positive");
+        }
+
+        if ((long) nodeCount * edgesPerNode > MAX_EDGES) {
+            throw new IllegalArgumentException("Too many edges: " + (long) nodeCount * edgesPerNode);
+        }
+
+        return new GraphGenerator(new BarabasiAlbert(nodeCount, edgesPerNode));
+    }
+
+    /**
+     * @param seed the seed of the random generators; 0 by default
+     * @return this generator
+     */
+    public GraphGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the range edge weights, or for grids the factors applied to distances, are drawn from.
+     *
+     * @param minWeight the smallest weight
+     * @param maxWeight the largest weight; equal to minWeight for constant weights
+     * @return this generator
+     * @throws IllegalArgumentException if a weight is not finite or minWeight exceeds maxWeight
+     */
+    public GraphGenerator weights(double minWeight, double maxWeight) {
+        if (!Double.isFinite(minWeight) || !Double.isFinite(maxWeight)) {
+            throw new IllegalArgumentException("Weights must be finite");
+        }
+
+        if (minWeight > maxWeight) {
+            throw new IllegalArgumentException("Minimum weight cannot exceed maximum weight");
+        }
+
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    /**
+     * @param pool the pool to generate and build on
+     * @return this generator
+     * @throws IllegalArgumentException if pool is null
+     */
+    public GraphGenerator pool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * @return the number of nodes of the generated graphs
+     */
+    public int nodeCount() {
+        return model.nodeCount();
+    }
+
+    /**
+     * Returns the horizontal coordinate of a node of a grid.
+     *
+     * @param node the id of the node
+     * @return its column, moved by the node's random offset
+     * @throws UnsupportedOperationException if this generator does not generate grids
+     * @throws IllegalArgumentException if the node is out of range
+     */
+    public double x(int node) {
+        return model.coordinate(seed, node, 0);
+    }
+
+    /**
+     * Returns the vertical coordinate of a node of a grid.
+     *
+     * @param node the id of the node
+     * @return its row, moved by the node's random offset
+     * @throws UnsupportedOperationException if this generator does not generate grids
+     * @throws IllegalArgumentException if the node is out of range
+     */
+    public double y(int node) {
+        return model.coordinate(seed, node, 1);
+    }
+
+    /**
+     * Generates a directed graph.
+     *
+     * @return the new graph
+     */
+    public DirectedGraph<Integer> directed() {
+        return build(new DirectedGraph<>(), true);
+    }
+
+    /**
+     * Generates an undirected graph.
+     *
+     * @return the new graph
+     */
+    public UndirectedGraph<Integer> undirected() {
+        return build(new UndirectedGraph<>(), false);
+    }
+
+    /**
+     * Generates a graph directly as a CSR snapshot, which takes far less time and memory than
+     * generating a live graph and freezing it. The nodes belong to no live graph and have no edges
+     * of their own; the edges exist only in the snapshot, and paths found on it hold new edges.
+     *
+     * @param directed true for a directed graph
+     * @return the new snapshot, numbering node i as i
+     */
+    public CsrGraph<Integer> csr(boolean directed) {
+        return pool.submit(() -> {
+            ArcList arcs = arcs(directed, false).compact();
+
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Node<Integer>[] nodes = new Node[arcs.nodeCount];
+            IntStream.range(0, nodes.length).parallel().forEach(i -> nodes[i] = new Node<>(i, i));
+            return CsrGraph.of(nodes, arcs.offsets, arcs.targets, arcs.weights, directed);
+        }).join();
+    }
+
+    private <G extends Graph<Integer>> G build(G graph, boolean directed) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<Integer>[] nodes = new Node[model.nodeCount()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.addNode(i);
+        }
+
+        pool.submit(() -> {
+            ArcList arcs = arcs(directed, !directed);
+            if (directed) {
+                forEachNode(nodes.length, node -> nodes[node].connectAll(nodes, arcs.targets, arcs.weights, arcs.offsets[node], arcs.ends[node]));
+                return;
+            }
+
+            // Both endpoints of an undirected edge hold one record, so all records exist before any node takes them
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Edge<Integer>[] records = new Edge[arcs.edgeCount];
+            forEachNode(nodes.length, node -> arcs.createRecords(node, nodes, records));
+            forEachNode(nodes.length, node -> nodes[node].connectAll(records, arcs.edgeIds, arcs.offsets[node], arcs.ends[node]));
+        }).join();
+        return graph;
+    }
+
+    /**
+     * Runs an action for every node index, in parallel chunks of {@value #NODE_CHUNK_SIZE} nodes.
+     * Must run on the pool.
+     */
+    private static void forEachNode(int nodeCount, IntConsumer action) {
+        int chunkCount = (nodeCount + NODE_CHUNK_SIZE - 1) / NODE_CHUNK_SIZE;
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            for (int node = chunk * NODE_CHUNK_SIZE, end = Math.min(node + NODE_CHUNK_SIZE, nodeCount); node < end; node++) {
+                action.accept(node);
+            }
+        });
+    }
+
+    /**
+     * Generates the edges in parallel blocks, concatenates them in block order and groups them by
+     * starting node, dropping repeated edges. Must run on the pool.
+     *
+     * @param keepEdgeIds true to record the edge every arc came from
+     */
+    private ArcList arcs(boolean directed, boolean keepEdgeIds) {
+        int nodeCount = model.nodeCount();
+        EdgeBlock[] blocks = IntStream.range(0, model.blockCount()).parallel().mapToObj(block -> {
+            EdgeBlock edges = new EdgeBlock();
+            model.generate(this, block, directed, new SplittableRandom(hash(seed, block)), edges);
+            return edges;
+        }).toArray(EdgeBlock[]::new);
+
+        long[] firstEdges = new long[blocks.length + 1];
+        for (int i = 0; i < blocks.length; i++) {
+            firstEdges[i + 1] = firstEdges[i] + blocks[i].size;
+        }
+        long edgeCount = firstEdges[blocks.length];
+        if (edgeCount > MAX_EDGES) {
+            throw new IllegalArgumentException("Too many edges: " + edgeCount);
+        }
+
+        int[] sources = new int[(int) edgeCount];
+        int[] targets = new int[(int) edgeCount];
+        double[] weights = new double[(int) edgeCount];
+        IntStream.range(0, blocks.length).parallel().forEach(i -> {
+            EdgeBlock block = blocks[i];
+            System.arraycopy(block.sources, 0, sources, (int) firstEdges[i], block.size);
+            System.arraycopy(block.targets, 0, targets, (int) firstEdges[i], block.size);
+            System.arraycopy(block.weights, 0, weights, (int) firstEdges[i], block.size);
+            blocks[i] = null; // Let the block go before the arcs are allocated
+        });
+
+        ArcList arcs = ArcList.group(nodeCount, sources, targets, weights, (int) edgeCount, !directed, keepEdgeIds);
+        forEachNode(nodeCount, node -> arcs.removeDuplicates(node, null));
+        return arcs;
+    }
+
+    private double weight(SplittableRandom random) {
+        return minWeight == maxWeight ? minWeight : minWeight + (maxWeight - minWeight) * random.nextDouble();
+    }
+
+    /**
+     * @return a well-mixed 64-bit hash of a seed and an index (the SplitMix64 finalizer)
+     */
+    private static long hash(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A random graph model, generating its edges block by block.
+     */
+    private abstract static class Model {
+        abstract int nodeCount();
+
+        abstract int blockCount();
+
+        /**
+         * Appends the edges of one block. In undirected graphs every edge is appended once.
+         */
+        abstract void generate(GraphGenerator generator, int block, boolean directed, SplittableRandom random, EdgeBlock edges);
+
+        double coordinate(long seed, int node, int axis) {
+            throw new UnsupportedOperationException("Only grid graphs have coordinates");
+        }
+    }
+
+    private static final class ErdosRenyi extends Model {
+        private final int nodeCount;
+        private final double edgeProbability;
+        private final int sourcesPerBlock;
+
+        ErdosRenyi(int nodeCount, double edgeProbability) {
+            this.nodeCount = nodeCount;
+            this.edgeProbability = edgeProbability;
+            // About BLOCK_SIZE edges per block
+            this.sourcesPerBlock = (int) Math.max(1, Math.min(BLOCK_SIZE, BLOCK_SIZE / (edgeProbability * nodeCount + 1)));
+        }
+
+        @Override
+        int nodeCount() {
+            return nodeCount;
+        }
+
+        @Override
+        int blockCount() {
+            return (int) (((long) nodeCount + sourcesPerBlock - 1) / sourcesPerBlock);
+        }
+
+        @Override
+        void generate(GraphGenerator generator, int block, boolean directed, SplittableRandom random, EdgeBlock edges) {
+            if (edgeProbability == 0) {
+                return;
+            }
+
+            double logSkip = Math.log1p(-edgeProbability);
+            int end = (int) Math.min(nodeCount, (long) (block + 1) * sourcesPerBlock);
+            for (int source = block * sourcesPerBlock; source < end; source++) {
+                // Candidates are the other nodes, or in undirected graphs the nodes after the source
+                long candidates = directed ? nodeCount - 1 : nodeCount - 1 - source;
+
+                // The gap to the next edge is geometric, so only the edges drawn cost time
+                long candidate = -1;
+                while (true) {
+                    double gap = Math.log1p(-random.nextDouble()) / logSkip;
+                    candidate += 1 + (long) Math.min(gap, candidates);
+                    if (candidate >= candidates) {
+                        break;
+                    }
+
+                    int target = directed ? (int) (candidate < source ? candidate : candidate + 1) : (int) (source + 1 + candidate);
+                    edges.add(source, target, generator.weight(random));
+                }
+            }
+        }
+    }
+
+    private static final class Rmat extends Model {
+        private final int scale;
+        private final long edgeCount;
+        // Cumulative quadrant probabilities, scaled to 32-bit draws
+        private final long a;
+        private final long ab;
+        private final long abc;
+
+        Rmat(int scale, long edgeCount, double a, double b, double c) {
+            this.scale = scale;
+            this.edgeCount = edgeCount;
+            this.a = (long) (a * 0x1.0p32);
+            this.ab = (long) ((a + b) * 0x1.0p32);
+            this.abc = (long) ((a + b + c) * 0x1.0p32);
+        }
+
+        @Override
+        int nodeCount() {
+            return 1 << scale;
+        }
+
+        @Override
+        int blockCount() {
+            return (int) ((edgeCount + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        }
+
+        @Override
+        void generate(GraphGenerator generator, int block, boolean directed, SplittableRandom random, EdgeBlock edges) {
+            int count = (int) Math.min(BLOCK_SIZE, edgeCount - (long) block * BLOCK_SIZE);
+            for (int edge = 0; edge < count; edge++) {
+                // Two levels per 64 random bits; an odd scale draws one level too many and drops it
+                int source = 0;
+                int target = 0;
+                for (int level = 0; level < scale; level += 2) {
+                    long bits = random.nextLong();
+                    int first = quadrant(bits >>> 32);
+                    int second = quadrant(bits & 0xffffffffL);
+                    source = source << 2 | first & 2 | second >> 1;
+                    target = target << 2 | (first & 1) << 1 | second & 1;
+                }
+                source >>>= scale & 1;
+                target >>>= scale & 1;
+
+                double weight = generator.weight(random);
+                if (source != target) {
+                    edges.add(source, target, weight);
+                }
+            }
+        }
+
+        /**
+         * Picks a quadrant from a 32-bit draw without branching, by counting the thresholds it
+         * reaches: reaching ab means the bottom half, reaching an odd number the right half.
+         *
+         * @return the quadrant, bit 1 set for the bottom half and bit 0 for the right half
+         */
+        private int quadrant(long draw) {
+            int bottom = (int) ((ab - 1 - draw) >>> 63);
+            int reached = (int) ((a - 1 - draw) >>> 63) + bottom + (int) ((abc - 1 - draw) >>> 63);
+            return bottom << 1 | reached & 1;
+        }
+    }
+
+    private static final class Grid extends Model {
+        private final int width;
+        private final int height;
+        private final int rowsPerBlock;
+
+        Grid(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.rowsPerBlock = Math.max(1, BLOCK_SIZE / Math.max(1, 2 * width));
+        }
+
+        @Override
+        int nodeCount() {
+            return width * height;
+        }
+
+        @Override
+        int blockCount() {
+            return (height + rowsPerBlock - 1) / rowsPerBlock;
+        }
+
+        @Override
+        void generate(GraphGenerator generator, int block, boolean directed, SplittableRandom random, EdgeBlock edges) {
+            int end = (int) Math.min(height, (long) (block + 1) * rowsPerBlock);
+            for (int row = block * rowsPerBlock; row < end; row++) {
+                for (int column = 0; column < width; column++) {
+                    int node = row * width + column;
+                    if (column + 1 < width) {
+                        connect(generator, node, node + 1, directed, random, edges);
+                    }
+                    if (row + 1 < height) {
+                        connect(generator, node, node + width, directed, random, edges);
+                    }
+                }
+            }
+        }
+
+        private void connect(GraphGenerator generator, int node, int neighbour, boolean directed, SplittableRandom random, EdgeBlock edges) {
+            double weight = Math.hypot(position(generator.seed, neighbour, 0) - position(generator.seed, node, 0),
+                    position(generator.seed, neighbour, 1) - position(generator.seed, node, 1)) * generator.weight(random);
+            edges.add(node, neighbour, weight);
+            if (directed) {
+                edges.add(neighbour, node, weight);
+            }
+        }
+
+        @Override
+        double coordinate(long seed, int node, int axis) {
+            if (node < 0 || node >= nodeCount()) {
+                throw new IllegalArgumentException("Node must be part of the graph");
+            }
+
+            return position(seed, node, axis);
+        }
+
+        private double position(long seed, int node, int axis) {
+            // Hashed rather than drawn, so any node's position can be computed on its own
+            double offset = (hash(seed, 2L * node + axis) >>> 11) * 0x1.0p-53 * 2 - 1;
+            return (axis == 0 ? node % width : node / width) + GRID_JITTER * offset;
+        }
+    }
+
+    private static final class BarabasiAlbert extends Model {
+        private final int nodeCount;
+        private final int edgesPerNode;
+
+        BarabasiAlbert(int nodeCount, int edgesPerNode) {
+            this.nodeCount = nodeCount;
+            this.edgesPerNode = edgesPerNode;
+        }
+
+        @Override
+        int nodeCount() {
+            return nodeCount;
+        }
+
+        @Override
+        int blockCount() {
+            return (int) (((long) nodeCount * edgesPerNode + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        }
+
+        @Override
+        void generate(GraphGenerator generator, int block, boolean directed, SplittableRandom random, EdgeBlock edges) {
+            long end = Math.min((long) nodeCount * edgesPerNode, (long) (block + 1) * BLOCK_SIZE);
+            for (long edge = (long) block * BLOCK_SIZE; edge < end; edge++) {
+                int source = (int) (edge / edgesPerNode);
+                int target = endpoint(generator.seed, 2 * edge + 1);
+
+                double weight = generator.weight(random);
+                if (source != target) {
+                    edges.add(source, target, weight);
+                }
+            }
+        }
+
+        /**
+         * Resolves an entry of the virtual list holding the source and target of every edge in
+         * turn. Sources are known; a target copies a uniformly chosen earlier entry.
+         */
+        private int endpoint(long seed, long position) {
+            while ((position & 1) != 0) {
+                position = (hash(seed, position) >>> 1) % position;
+            }
+            return (int) (position / 2 / edgesPerNode);
+        }
+    }
+
+    /**
+     * The edges of one block, in parallel growable arrays.
+     */
+    private static final class EdgeBlock {
+        int[] sources = new int[16];
+        int[] targets = new int[16];
+        double[] weights = new double[16];
+        int size;
+
+        void add(int source, int target, double weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
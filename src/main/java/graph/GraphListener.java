@@ -0,0 +1,62 @@
+package graph;
+
+/**
+ * Receives notifications about structural changes made through a {@link Graph}.
+ * <p>
+ * Notifications are delivered synchronously on the mutating thread, after the change has been
+ * applied and the graph version has been bumped. Edge notifications always describe a directed
+ * arc: a change to an undirected edge is reported once for each direction. All methods do nothing
+ * by default, so listeners only override what they need.
+ *
+ * @param <T> the type of the node data
+ */
+public interface GraphListener<T> {
+
+    /**
+     * Called after a node has been added to the graph.
+     *
+     * @param node the new node
+     */
+    default void nodeAdded(Node<T> node) {
+    }
+
+    /**
+     * Called after a node has been removed from the graph. Its arcs have been reported removed
+     * before, so the node has no arcs left.
+     *
+     * @param node the removed node
+     */
+    default void nodeRemoved(Node<T> node) {
+    }
+
+    /**
+     * Called after an arc has been added to the graph.
+     *
+     * @param fromNode the starting node
+     * @param toNode the ending node
+     * @param weight the weight of the arc
+     */
+    default void edgeAdded(Node<T> fromNode, Node<T> toNode, double weight) {
+    }
+
+    /**
+     * Called after an arc has been removed from the graph.
+     *
+     * @param fromNode the starting node
+     * @param toNode the ending node
+     * @param weight the weight the arc had
+     */
+    default void edgeRemoved(Node<T> fromNode, Node<T> toNode, double weight) {
+    }
+
+    /**
+     * Called after the weight of an arc has changed.
+     *
+     * @param fromNode the starting node
+     * @param toNode the ending node
+     * @param oldWeight the previous weight
+     * @param newWeight the new weight
+     */
+    default void edgeWeightChanged(Node<T> fromNode, Node<T> toNode, double oldWeight, double newWeight) {
+    }
+}
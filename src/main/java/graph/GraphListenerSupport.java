@@ -0,0 +1,65 @@
+package graph;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the version counter and registered listeners of a graph, and dispatches notifications.
+ *
+ * @param <T> the type of the node data
+ */
+final class GraphListenerSupport<T> {
+    private final CopyOnWriteArrayList<GraphListener<T>> listeners = new CopyOnWriteArrayList<>();
+    // Atomic so that concurrent writers to a ConcurrentGraph never lose an increment
+    private final AtomicLong version = new AtomicLong();
+
+    long getVersion() {
+        return version.get();
+    }
+
+    void addListener(GraphListener<T> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.addIfAbsent(listener);
+    }
+
+    void removeListener(GraphListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    void nodeAdded(Node<T> node) {
+        version.incrementAndGet();
+        for (GraphListener<T> listener : listeners) {
+            listener.nodeAdded(node);
+        }
+    }
+
+    void nodeRemoved(Node<T> node) {
+        version.incrementAndGet();
+        for (GraphListener<T> listener : listeners) {
+            listener.nodeRemoved(node);
+        }
+    }
+
+    void edgeAdded(Node<T> fromNode, Node<T> toNode, double weight) {
+        version.incrementAndGet();
+        for (GraphListener<T> listener : listeners) {
+            listener.edgeAdded(fromNode, toNode, weight);
+        }
+    }
+
+    void edgeRemoved(Node<T> fromNode, Node<T> toNode, double weight) {
+        version.incrementAndGet();
+        for (GraphListener<T> listener : listeners) {
+            listener.edgeRemoved(fromNode, toNode, weight);
+        }
+    }
+
+    void edgeWeightChanged(Node<T> fromNode, Node<T> toNode, double oldWeight, double newWeight) {
+        version.incrementAndGet();
+        for (GraphListener<T> listener : listeners) {
+            listener.edgeWeightChanged(fromNode, toNode, oldWeight, newWeight);
+        }
+    }
+}
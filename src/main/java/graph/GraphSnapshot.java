@@ -0,0 +1,178 @@
+package graph;
+
+import java.lang.ref.Cleaner;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A consistent, read-only view of a {@link ConcurrentGraph} at one version, taken with
+ * {@link ConcurrentGraph#snapshot()}.
+ * <p>
+ * The snapshot shares the nodes and adjacency arrays of the live graph instead of copying them.
+ * Its {@link #getEdges(Node)} returns the edges of a node as of the snapshot's version, however the
+ * graph has changed since, and algorithms that take a {@link Graph} read edges through it. Following
+ * {@link Node#getEdges()} directly reads the live graph instead. Node data is not versioned, so
+ * data updated after the snapshot was taken is visible through it.
+ * <p>
+ * The view is immutable: mutators throw {@link UnsupportedOperationException} and listeners are
+ * never notified. A snapshot is thread-safe and should be closed once no longer needed, so the live
+ * graph can drop the old adjacency versions it keeps for it.
+ *
+ * @param <T> the type of the node data
+ */
+public final class GraphSnapshot<T> implements Graph<T>, AutoCloseable {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    // Shared with the live graph; slots below nodeCount never change
+    private final ConcurrentNode<T>[] nodes;
+    private final int nodeCount;
+    private final List<Node<T>> nodesView;
+    private final boolean directed;
+    private final long version;
+
+    private final Cleaner.Cleanable cleanable;
+    private volatile boolean closed;
+
+    GraphSnapshot(ConcurrentNode<T>[] nodes, int nodeCount, boolean directed, long version,
+                  Registration registration, ConcurrentGraph<T> graph) {
+        this.nodes = nodes;
+        this.nodeCount = nodeCount;
+        this.nodesView = new NodeList();
+        this.directed = directed;
+        this.version = version;
+        // The action must not reference the snapshot, or it would never become unreachable
+        this.cleanable = CLEANER.register(this, () -> graph.release(registration));
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public List<Node<T>> getNodes() {
+        return nodesView;
+    }
+
+    @Override
+    public Node<T> getNode(int id) {
+        return id >= 0 && id < nodeCount ? nodes[id] : null;
+    }
+
+    /**
+     * Returns the outgoing edges of a node as of the version of this snapshot.
+     *
+     * @param node the node
+     * @return an unmodifiable list of the edges of the node at this version
+     * @throws IllegalArgumentException if the node is not part of this snapshot
+     * @throws IllegalStateException if the snapshot has been closed
+     */
+    @Override
+    public List<Edge<T>> getEdges(Node<T> node) {
+        if (closed) {
+            throw new IllegalStateException("Snapshot has been closed");
+        }
+
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+
+        return nodes[node.getId()].getEdges(version);
+    }
+
+    /**
+     * Returns the version of the live graph this snapshot shows. Snapshots of the same graph taken
+     * later have the same or a higher version. The version of a snapshot never changes. A snapshot
+     * taken while no change is in progress has the same version as {@link ConcurrentGraph#getVersion()}.
+     *
+     * @return the version of this snapshot
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Does nothing, as a snapshot never changes.
+     */
+    @Override
+    public void addGraphListener(GraphListener<T> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+    }
+
+    /**
+     * Does nothing, as a snapshot never changes.
+     */
+    @Override
+    public void removeGraphListener(GraphListener<T> listener) {
+    }
+
+    @Override
+    public Node<T> addNode(T data) {
+        throw readOnly();
+    }
+
+    @Override
+    public Node<T> addNode(T data, String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public void connect(Node<T> fromNode, Node<T> toNode, double weight) {
+        throw readOnly();
+    }
+
+    @Override
+    public void disconnect(Node<T> fromNode, Node<T> toNode) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNodeData(Node<T> node, T newData) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateEdgeWeight(Node<T> fromNode, Node<T> toNode, double newWeight) {
+        throw readOnly();
+    }
+
+    /**
+     * Releases the snapshot, letting the live graph drop the adjacency versions kept for it.
+     * Reading edges afterwards fails. Closing a snapshot again has no effect.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        cleanable.clean();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Graph snapshots are read-only");
+    }
+
+    /**
+     * Marks an open snapshot in its graph, with the version it reads or -1 while that is not known yet.
+     */
+    static final class Registration {
+        volatile long version = -1;
+    }
+
+    private final class NodeList extends AbstractList<Node<T>> implements RandomAccess {
+        @Override
+        public Node<T> get(int index) {
+            if (index < 0 || index >= nodeCount) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + nodeCount);
+            }
+            return nodes[index];
+        }
+
+        @Override
+        public int size() {
+            return nodeCount;
+        }
+    }
+}
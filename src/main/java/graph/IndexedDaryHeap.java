@@ -0,0 +1,279 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A d-ary min-heap of integer ids in {@code [0, capacity)} keyed by primitive doubles, with
+ * {@code O(log_d n)} decrease-key.
+ * <p>
+ * Each id may be in the heap at most once. The heap keeps all of its state in primitive arrays
+ * and never allocates after construction, unless {@link #ensureCapacity(int)} has to grow it.
+ * {@link #clear()} only touches the ids still in the heap, so a heap can be reused across
+ * queries without paying for its full capacity.
+ */
+public final class IndexedDaryHeap {
+    /**
+     * The default arity. Four children per node keeps the tree shallow while the sift-down
+     * comparisons for a node's children stay within one or two cache lines.
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private int[] heap;
+    private int[] positions;
+    private double[] keys;
+    private int size;
+
+    // Cumulative operation counts, read by SearchRecorder; plain fields, as a heap is confined to one thread
+    long pushes;
+    long pops;
+    long decreases;
+
+    /**
+     * Constructs an empty heap of the default arity.
+     *
+     * @param capacity the number of distinct ids the heap can hold
+     */
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param capacity the number of distinct ids the heap can hold
+     * @param arity the number of children per heap node
+     * @throws IllegalArgumentException if capacity is negative or arity is less than 2
+     */
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (capacity < 0 || arity < 2) {
+            throw new IllegalArgumentException("Invalid capacity or arity");
+        }
+
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return positions.length;
+    }
+
+    /**
+     * @param id the id to look up
+     * @return true if the id is currently in the heap
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * @param id an id currently in the heap
+     * @return the key of the id
+     */
+    public double key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * @return the id with the smallest key
+     * @throws IllegalStateException if the heap is empty
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * @return the smallest key in the heap
+     * @throws IllegalStateException if the heap is empty
+     */
+    public double peekKey() {
+        return keys[peek()];
+    }
+
+    /**
+     * Inserts an id that is not yet in the heap.
+     *
+     * @param id the id to insert
+     * @param key the key of the id
+     * @throws IllegalArgumentException if the id is already in the heap
+     */
+    public void insert(int id, double key) {
+        if (positions[id] >= 0) {
+            throw new IllegalArgumentException("Id is already in the heap: " + id);
+        }
+
+        keys[id] = key;
+        positions[id] = size;
+        heap[size] = id;
+        siftUp(size++);
+        pushes++;
+    }
+
+    /**
+     * Lowers the key of an id already in the heap.
+     *
+     * @param id the id to update
+     * @param key the new key, which must not be greater than the current one
+     * @throws IllegalArgumentException if the id is not in the heap or the key would increase
+     */
+    public void decreaseKey(int id, double key) {
+        int position = positions[id];
+        if (position < 0 || key > keys[id]) {
+            throw new IllegalArgumentException("Cannot decrease key of id: " + id);
+        }
+
+        keys[id] = key;
+        siftUp(position);
+        decreases++;
+    }
+
+    /**
+     * Inserts an id or lowers its key, whichever applies.
+     *
+     * @param id the id to insert or update
+     * @param key the new key
+     * @return true if the heap changed, false if the id was present with a smaller or equal key
+     */
+    public boolean insertOrDecrease(int id, double key) {
+        int position = positions[id];
+        if (position < 0) {
+            keys[id] = key;
+            positions[id] = size;
+            heap[size] = id;
+            siftUp(size++);
+            pushes++;
+            return true;
+        }
+
+        if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(position);
+            decreases++;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the id with the smallest key.
+     *
+     * @return the removed id
+     * @throws IllegalStateException if the heap is empty
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+
+        int min = heap[0];
+        positions[min] = -1;
+        pops++;
+
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+
+        return min;
+    }
+
+    /**
+     * Removes every id from the heap in time proportional to the current size.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Grows the heap so it can hold ids in {@code [0, capacity)}. Existing entries are kept.
+     *
+     * @param capacity the required capacity
+     */
+    public void ensureCapacity(int capacity) {
+        int oldCapacity = positions.length;
+        if (capacity <= oldCapacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, oldCapacity + (oldCapacity >> 1));
+        heap = Arrays.copyOf(heap, newCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+        Arrays.fill(positions, oldCapacity, newCapacity, -1);
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        double key = keys[id];
+
+        while (position > 0) {
+            int parentPosition = (position - 1) / arity;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        double key = keys[id];
+
+        while (true) {
+            int firstChild = position * arity + 1;
+            if (firstChild >= size) {
+                break;
+            }
+
+            int lastChild = Math.min(firstChild + arity, size);
+            int minChildPosition = firstChild;
+            double minChildKey = keys[heap[firstChild]];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childKey = keys[heap[child]];
+                if (childKey < minChildKey) {
+                    minChildKey = childKey;
+                    minChildPosition = child;
+                }
+            }
+
+            if (key <= minChildKey) {
+                break;
+            }
+
+            int minChild = heap[minChildPosition];
+            heap[position] = minChild;
+            positions[minChild] = position;
+            position = minChildPosition;
+        }
+
+        heap[position] = id;
+        positions[id] = position;
+    }
+}
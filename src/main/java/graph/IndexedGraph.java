@@ -0,0 +1,62 @@
+package graph;
+
+/**
+ * Represents a read-only graph whose nodes are dense integer indices in {@code [0, nodeCount())}
+ * and whose edges are integer indices grouped by their starting node.
+ * <p>
+ * The outgoing edges of node {@code n} are the indices in {@code [edgeStart(n), edgeEnd(n))}.
+ * Snapshots number their edges densely from 0, but a mutable graph such as {@link OffHeapGraph}
+ * may leave unused indices between the edges of different nodes, so edges are enumerated node by
+ * node rather than over {@code [0, edgeCount())}.
+ * Algorithms written against this interface work on primitive indices only and never touch
+ * {@link Node} or {@link Edge} objects.
+ */
+public interface IndexedGraph {
+
+    /**
+     * @return the number of nodes in the graph
+     */
+    int nodeCount();
+
+    /**
+     * @return the number of directed edges in the graph (an undirected edge counts twice)
+     */
+    int edgeCount();
+
+    /**
+     * @param node the node index
+     * @return the index of the first outgoing edge of the node
+     */
+    int edgeStart(int node);
+
+    /**
+     * @param node the node index
+     * @return one past the index of the last outgoing edge of the node
+     */
+    int edgeEnd(int node);
+
+    /**
+     * @param edge the edge index
+     * @return the index of the node the edge points to
+     */
+    int edgeTarget(int edge);
+
+    /**
+     * @param edge the edge index
+     * @return the weight of the edge
+     */
+    double edgeWeight(int edge);
+
+    /**
+     * @return true if the edges are directed, false if every edge is stored in both directions
+     */
+    boolean isDirected();
+
+    /**
+     * @param node the node index
+     * @return the number of outgoing edges of the node
+     */
+    default int degree(int node) {
+        return edgeEnd(node) - edgeStart(node);
+    }
+}
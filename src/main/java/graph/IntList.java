@@ -0,0 +1,48 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A minimal growable int list, for the buckets, frontiers and per-task results of the parallel
+ * algorithms, which would otherwise box every node index.
+ */
+final class IntList {
+    int[] values = new int[16];
+    int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Joins the results of parallel tasks in task order.
+     *
+     * @param parts the arrays to join
+     * @return a new array holding the elements of every part, one part after another
+     */
+    static int[] concat(int[][] parts) {
+        int length = 0;
+        for (int[] part : parts) {
+            length += part.length;
+        }
+
+        int[] result = new int[length];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,436 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only graph backed by a memory-mapped binary file.
+ * <p>
+ * {@link #write(CsrGraph, Path, NodeDataSerializer)} stores a CSR snapshot in a compact binary
+ * format, and {@link #open(Path, NodeDataSerializer)} maps that file into memory with
+ * {@link FileChannel#map}. Opening reads only the header: no {@link Node} or {@link Edge}
+ * objects are created, and the operating system pages the adjacency in on first access. A graph
+ * is queryable through {@link IndexedGraph} right after opening, and JVMs mapping the same file
+ * share its pages.
+ * <p>
+ * All numbers are little-endian. The file starts with a {@value #HEADER_SIZE}-byte header
+ * holding a magic number, the format version, flags, the node and edge counts and the position
+ * of every section, followed by these sections, each aligned to 8 bytes:
+ * <ol>
+ *     <li>offsets: {@code nodeCount + 1} ints, as in {@link CsrGraph}</li>
+ *     <li>targets: {@code edgeCount} ints</li>
+ *     <li>weights: {@code edgeCount} doubles</li>
+ *     <li>node names: the UTF-8 names back to back, followed by {@code nodeCount + 1} longs
+ *     giving the position of each name in the blob</li>
+ *     <li>node data (optional): the serialized data back to back, followed by
+ *     {@code nodeCount + 1} longs giving the position of each entry in the blob</li>
+ * </ol>
+ * The file is mapped in chunks of at most 1 GiB, so files larger than 2 GiB are supported.
+ * Instances are immutable and safe for concurrent use. The mapping stays valid until the graph
+ * is garbage collected.
+ *
+ * @param <T> the type of the node data
+ */
+public final class MappedGraph<T> implements IndexedGraph {
+    static final int MAGIC = 0x4A475246; // "JGRF"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 96;
+
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_NODE_DATA = 2;
+
+    // A multiple of 8, so that no int, long or double in an aligned section straddles two chunks
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final NodeDataSerializer<T> serializer;
+    private final boolean directed;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long offsetsPosition;
+    private final long targetsPosition;
+    private final long weightsPosition;
+    private final long namesPosition;
+    private final long nameIndexPosition;
+    private final long dataPosition;
+    private final long dataIndexPosition;
+
+    private MappedGraph(ByteBuffer[] chunks, NodeDataSerializer<T> serializer, ByteBuffer header) {
+        this.chunks = chunks;
+        this.serializer = serializer;
+        int flags = header.getInt(8);
+        this.directed = (flags & FLAG_DIRECTED) != 0;
+        this.nodeCount = header.getInt(12);
+        this.edgeCount = header.getInt(16);
+        this.offsetsPosition = header.getLong(24);
+        this.targetsPosition = header.getLong(32);
+        this.weightsPosition = header.getLong(40);
+        this.namesPosition = header.getLong(48);
+        this.nameIndexPosition = header.getLong(56);
+        this.dataPosition = (flags & FLAG_NODE_DATA) != 0 ? header.getLong(64) : -1;
+        this.dataIndexPosition = (flags & FLAG_NODE_DATA) != 0 ? header.getLong(72) : -1;
+    }
+
+    /**
+     * Maps a graph file without a serializer; node data is not available.
+     *
+     * @param file the file to open
+     * @return the mapped graph
+     * @throws IOException if the file cannot be read or is not a valid graph file
+     */
+    public static MappedGraph<Void> open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Maps a graph file.
+     *
+     * @param file the file to open
+     * @param serializer the serializer to read node data with, or null if node data is not needed
+     * @param <T> the type of the node data
+     * @return the mapped graph
+     * @throws IOException if the file cannot be read or is not a valid graph file
+     */
+    public static <T> MappedGraph<T> open(Path file, NodeDataSerializer<T> serializer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a graph file: " + file);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                channel.read(header, header.position());
+            }
+            validateHeader(header, size, file);
+
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i << CHUNK_SHIFT;
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_MASK + 1, size - position));
+                chunks[i] = chunk.order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            return new MappedGraph<>(chunks, serializer, header);
+        }
+    }
+
+    /**
+     * Writes a snapshot to a graph file without node data.
+     *
+     * @param graph the snapshot to write
+     * @param file the file to create or overwrite
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CsrGraph<?> graph, Path file) throws IOException {
+        writeFile(graph, file, null);
+    }
+
+    /**
+     * Writes a snapshot, including the data of every node, to a graph file.
+     *
+     * @param graph the snapshot to write
+     * @param file the file to create or overwrite
+     * @param serializer the serializer to store node data with
+     * @param <T> the type of the node data
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if serializer is null
+     */
+    public static <T> void write(CsrGraph<T> graph, Path file, NodeDataSerializer<T> serializer) throws IOException {
+        if (serializer == null) {
+            throw new IllegalArgumentException("Serializer cannot be null");
+        }
+        writeFile(graph, file, serializer);
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int edgeStart(int node) {
+        return getInt(offsetsPosition + 4L * node);
+    }
+
+    @Override
+    public int edgeEnd(int node) {
+        return getInt(offsetsPosition + 4L * (node + 1));
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return getInt(targetsPosition + 4L * edge);
+    }
+
+    @Override
+    public double edgeWeight(int edge) {
+        long position = weightsPosition + 8L * edge;
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getDouble((int) (position & CHUNK_MASK));
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * @return true if the file contains node data
+     */
+    public boolean hasNodeData() {
+        return dataPosition >= 0;
+    }
+
+    /**
+     * @param node the node index
+     * @return the name of the node
+     * @throws IndexOutOfBoundsException if the node index is out of range
+     */
+    public String getName(int node) {
+        ByteBuffer bytes = entry(namesPosition, nameIndexPosition, node);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * Deserializes the data of a node. Every call creates a new object.
+     *
+     * @param node the node index
+     * @return the data of the node
+     * @throws IndexOutOfBoundsException if the node index is out of range
+     * @throws IllegalStateException if the file has no node data or the graph was opened without a serializer
+     */
+    public T getData(int node) {
+        if (!hasNodeData() || serializer == null) {
+            throw new IllegalStateException("Node data is not available");
+        }
+        return serializer.deserialize(entry(dataPosition, dataIndexPosition, node));
+    }
+
+    private int getInt(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getInt((int) (position & CHUNK_MASK));
+    }
+
+    private long getLong(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Returns the bytes of a node's entry in a blob section, as a view of the mapping if the entry
+     * lies within one chunk and as a copy otherwise.
+     */
+    private ByteBuffer entry(long blobPosition, long indexPosition, int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node: " + node + ", nodes: " + nodeCount);
+        }
+
+        long start = blobPosition + getLong(indexPosition + 8L * node);
+        int length = (int) (blobPosition + getLong(indexPosition + 8L * (node + 1)) - start);
+        int chunk = (int) (start >>> CHUNK_SHIFT);
+        int offset = (int) (start & CHUNK_MASK);
+
+        if (offset + length <= chunks[chunk].limit()) {
+            return chunks[chunk].slice(offset, length).asReadOnlyBuffer();
+        }
+
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            long position = start + i;
+            copy[i] = chunks[(int) (position >>> CHUNK_SHIFT)].get((int) (position & CHUNK_MASK));
+        }
+        return ByteBuffer.wrap(copy).asReadOnlyBuffer();
+    }
+
+    private static void validateHeader(ByteBuffer header, long size, Path file) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a graph file: " + file);
+        }
+        if (header.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported graph file version " + header.getInt(4) + ": " + file);
+        }
+
+        int flags = header.getInt(8);
+        long nodes = header.getInt(12);
+        long edges = header.getInt(16);
+        boolean valid = nodes >= 0 && edges >= 0
+                && fits(header.getLong(24), 4 * (nodes + 1), size)
+                && fits(header.getLong(32), 4 * edges, size)
+                && fits(header.getLong(40), 8 * edges, size)
+                && fits(header.getLong(48), header.getLong(56) - header.getLong(48), size)
+                && fits(header.getLong(56), 8 * (nodes + 1), size);
+        if ((flags & FLAG_NODE_DATA) != 0) {
+            valid &= fits(header.getLong(64), header.getLong(72) - header.getLong(64), size)
+                    && fits(header.getLong(72), 8 * (nodes + 1), size);
+        }
+
+        if (!valid || header.getLong(80) != size) {
+            throw new IOException("Corrupt graph file: " + file);
+        }
+    }
+
+    private static boolean fits(long position, long length, long size) {
+        return position >= HEADER_SIZE && length >= 0 && position + length <= size;
+    }
+
+    private static <T> void writeFile(CsrGraph<T> graph, Path file, NodeDataSerializer<T> serializer) throws IOException {
+        if (graph == null || file == null) {
+            throw new IllegalArgumentException("Graph and file cannot be null");
+        }
+
+        int nodeCount = graph.nodeCount();
+        int edgeCount = graph.edgeCount();
+        long[] positions = new long[7];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             SectionWriter out = new SectionWriter(channel)) {
+            out.skip(HEADER_SIZE);
+
+            positions[0] = out.position();
+            for (int node = 0; node <= nodeCount; node++) {
+                out.putInt(node < nodeCount ? graph.edgeStart(node) : edgeCount);
+            }
+
+            out.align();
+            positions[1] = out.position();
+            for (int edge = 0; edge < edgeCount; edge++) {
+                out.putInt(graph.edgeTarget(edge));
+            }
+
+            out.align();
+            positions[2] = out.position();
+            for (int edge = 0; edge < edgeCount; edge++) {
+                out.putDouble(graph.edgeWeight(edge));
+            }
+
+            long[] index = new long[nodeCount + 1];
+            out.align();
+            positions[3] = out.position();
+            for (int node = 0; node < nodeCount; node++) {
+                index[node] = out.position() - positions[3];
+                out.putBytes(graph.getNode(node).getName().getBytes(StandardCharsets.UTF_8));
+            }
+            index[nodeCount] = out.position() - positions[3];
+
+            out.align();
+            positions[4] = out.position();
+            for (long position : index) {
+                out.putLong(position);
+            }
+
+            if (serializer != null) {
+                positions[5] = out.position();
+                for (int node = 0; node < nodeCount; node++) {
+                    index[node] = out.position() - positions[5];
+                    out.putBytes(serializer.serialize(graph.getNode(node).getData()));
+                }
+                index[nodeCount] = out.position() - positions[5];
+
+                out.align();
+                positions[6] = out.position();
+                for (long position : index) {
+                    out.putLong(position);
+                }
+            }
+
+            out.flush();
+            long size = out.position();
+
+            // The header goes last, so that an interrupted write never leaves a file that looks complete
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION)
+                    .putInt((graph.isDirected() ? FLAG_DIRECTED : 0) | (serializer != null ? FLAG_NODE_DATA : 0))
+                    .putInt(nodeCount).putInt(edgeCount).putInt(0);
+            for (long position : positions) {
+                header.putLong(position);
+            }
+            header.putLong(size);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Buffers sequential little-endian writes to a channel and tracks the file position.
+     */
+    private static final class SectionWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed;
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void skip(int bytes) throws IOException {
+            for (int i = 0; i < bytes; i++) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        void align() throws IOException {
+            skip((int) (-position() & 7));
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int written = 0;
+            while (written < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, length);
+                written += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer, flushed);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -1,45 +1,100 @@
 package graph;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.RandomAccess;
 
 /**
  * Represents a node in a graph.
+ * <p>
+ * Every node gets a stable id when it is added to a graph: ids are dense, starting at 0 in the
+ * order nodes were added, and never change. Nodes are compared by identity, so changing the data
+ * or name of a node never affects the hash-based collections holding it, and two nodes with the
+ * same data and name stay distinct.
+ * <p>
+ * An undirected edge is a single record held by both of its endpoints, so its weight is stored
+ * once. The record is oriented from the endpoint that connected it; the other endpoint sees it
+ * through a reversed view, created on every read, that reads and writes the shared weight. Views of
+ * the same record are equal, but not the same object.
  *
  * @param <T> the type of the node data
  */
 public class Node<T> {
-    private T data;
+    /**
+     * Degree above which the node keeps a target-keyed index of its edges.
+     * Below it a linear scan of the edge list is cheaper than hashing.
+     */
+    static final int EDGE_INDEX_THRESHOLD = 16;
+
+    private final int id;
+    // Volatile so that updates made through a ConcurrentGraph reach lock-free readers
+    private volatile T data;
     private String name;
-    private final List<Node<T>> neighbors;
-    private final List<Edge<T>> edges;
+    // The edge records held by this node, some of which may point to it from the other endpoint.
+    // A removed record leaves a null tombstone, so removal never shifts the records after it
+    private final ArrayList<Edge<T>> edges;
+    private int removedCount;
+    // The live records in order while tombstones remain, built by the first read that needs them
+    private volatile Edge<T>[] liveEdges;
+    private final List<Node<T>> neighborsView;
+    private final List<Edge<T>> edgesView;
+
+    // Lazily built once the degree exceeds EDGE_INDEX_THRESHOLD, keyed by the other endpoint's identity
+    private Map<Node<T>, Edge<T>> edgeIndex;
 
     /**
      * Constructs a node with specified data and specified node name.
      *
      * @param data the data of the node
      * @param name the name of the node
-     * @throws IllegalArgumentException if data or name is null
+     * @param id the id of the node within its graph
+     * @throws IllegalArgumentException if data or name is null, or id is negative
      */
-    Node(T data, String name) {
+    Node(T data, String name, int id) {
+        this(data, name, id, true);
+    }
+
+    /**
+     * Constructs a node, optionally without the list-based adjacency, for subclasses that keep
+     * their own and override every method using it.
+     */
+    Node(T data, String name, int id, boolean adjacencyLists) {
         if (data == null || name == null) {
             throw new IllegalArgumentException("Data and name cannot be null");
         }
 
+        if (id < 0) {
+            throw new IllegalArgumentException("Id cannot be negative");
+        }
+
+        this.id = id;
         this.data = data;
         this.name = name;
-        this.neighbors = new ArrayList<>();
-        this.edges = new ArrayList<>();
+        this.edges = adjacencyLists ? new ArrayList<>() : null;
+        this.neighborsView = adjacencyLists ? new Neighbors() : null;
+        this.edgesView = adjacencyLists ? new Edges() : null;
     }
 
     /**
      * Constructs a node with specified data.
      *
      * @param data the data of the node
+     * @param id the id of the node within its graph
+     */
+    Node(T data, int id) {
+        this(data, "n" + data, id);
+    }
+
+    /**
+     * Returns the id of this node, which algorithms use to key per-node state in arrays.
+     *
+     * @return the stable id of this node within its graph
      */
-    Node(T data) {
-        this(data, "n" + data);
+    public int getId() {
+        return id;
     }
 
     public String getName() {
@@ -66,12 +121,111 @@ public class Node<T> {
         this.data = data;
     }
 
+    /**
+     * Returns a read-only view of the outgoing edges of this node, in the order they were connected.
+     *
+     * @return an unmodifiable view of the edges of this node
+     */
     public List<Edge<T>> getEdges() {
-        return edges;
+        return edgesView;
     }
 
+    /**
+     * Returns a read-only view of the neighbors of this node, in the order they were connected.
+     *
+     * @return an unmodifiable view of the neighbors of this node
+     */
     public List<Node<T>> getNeighbors() {
-        return neighbors;
+        return neighborsView;
+    }
+
+    /**
+     * Returns the edge from this node to the specified node.
+     *
+     * @param toNode the ending node of the edge
+     * @return the edge to toNode, or null if the nodes are not connected
+     */
+    public Edge<T> getEdgeTo(Node<T> toNode) {
+        Edge<T> edge = recordTo(toNode);
+        return edge == null ? null : oriented(edge);
+    }
+
+    /**
+     * @return the edge record this node holds for its connection to toNode, in either orientation
+     */
+    private Edge<T> recordTo(Node<T> toNode) {
+        if (edgeIndex != null) {
+            return edgeIndex.get(toNode);
+        }
+
+        for (Edge<T> edge : edges) {
+            if (edge != null && other(edge) == toNode) {
+                return edge;
+            }
+        }
+
+        return null;
+    }
+
+    private int degree() {
+        return edges.size() - removedCount;
+    }
+
+    /**
+     * @return the index-th live record, in connection order
+     */
+    private Edge<T> recordAt(int index) {
+        return removedCount == 0 ? edges.get(index) : liveEdges()[index];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Edge<T>[] liveEdges() {
+        // Concurrent readers may each build the array; any of them is correct
+        Edge<T>[] live = liveEdges;
+        if (live == null) {
+            live = new Edge[degree()];
+            int count = 0;
+            for (Edge<T> edge : edges) {
+                if (edge != null) {
+                    live[count++] = edge;
+                }
+            }
+            liveEdges = live;
+        }
+        return live;
+    }
+
+    /**
+     * @return the position of a record in this node's edge list, which the record keeps per endpoint
+     */
+    private int slotOf(Edge<T> edge) {
+        return edge.getFromNode() == this ? edge.fromSlot : ((Edge.Undirected<T>) edge).toSlot;
+    }
+
+    private void setSlot(Edge<T> edge, int slot) {
+        if (edge.getFromNode() == this) {
+            edge.fromSlot = slot;
+        } else {
+            ((Edge.Undirected<T>) edge).toSlot = slot;
+        }
+    }
+
+    private Node<T> other(Edge<T> edge) {
+        return edge.getFromNode() == this ? edge.getToNode() : edge.getFromNode();
+    }
+
+    private Edge<T> oriented(Edge<T> edge) {
+        return edge.getFromNode() == this ? edge : new Edge.Reversed<>(edge);
+    }
+
+    /**
+     * Checks whether this node has an edge to the specified node.
+     *
+     * @param toNode the node to look up
+     * @return true if this node is connected to toNode, false otherwise
+     */
+    public boolean isConnectedTo(Node<T> toNode) {
+        return getEdgeTo(toNode) != null;
     }
 
     /**
@@ -79,50 +233,222 @@ public class Node<T> {
      *
      * @param toNode the node to connect to
      * @param weight the weight of the connection
+     * @return the new edge
      * @throws IllegalArgumentException if toNode is null or if nodes are already connected
      */
-    void connect(Node<T> toNode, double weight) {
+    Edge<T> connect(Node<T> toNode, double weight) {
         if (toNode == null) {
             throw new IllegalArgumentException("Target node cannot be null");
         }
 
-        if (neighbors.contains(toNode)) {
+        if (isConnectedTo(toNode)) {
             throw new IllegalArgumentException("Nodes are already connected");
         }
 
-        edges.add(new Edge<>(this, toNode, weight));
-        neighbors.add(toNode);
+        Edge<T> edge = new Edge<>(this, toNode, weight);
+        add(edge, toNode);
+        return edge;
+    }
+
+    /**
+     * Connects this node and another node with one undirected edge record, held by both of them.
+     *
+     * @param toNode the node to connect to; not this node
+     * @param weight the weight of the connection
+     * @throws IllegalArgumentException if toNode is null or if nodes are already connected
+     */
+    void connectBoth(Node<T> toNode, double weight) {
+        if (toNode == null) {
+            throw new IllegalArgumentException("Target node cannot be null");
+        }
+
+        if (isConnectedTo(toNode)) {
+            throw new IllegalArgumentException("Nodes are already connected");
+        }
+
+        Edge<T> edge = new Edge.Undirected<>(this, toNode, weight);
+        add(edge, toNode);
+        toNode.add(edge, this);
+    }
+
+    private void add(Edge<T> edge, Node<T> toNode) {
+        setSlot(edge, edges.size());
+        edges.add(edge);
+        if (removedCount != 0) {
+            liveEdges = null;
+        }
+
+        if (edgeIndex != null) {
+            edgeIndex.put(toNode, edge);
+        } else if (degree() > EDGE_INDEX_THRESHOLD) {
+            buildEdgeIndex();
+        }
+    }
+
+    /**
+     * Connects this node to a batch of nodes without checking for existing connections. Used by
+     * bulk loaders, which validate the whole batch up front.
+     *
+     * @param toNodes the nodes to pick targets from, by id
+     * @param targets the ids of the nodes to connect to; distinct and not yet connected to this node
+     * @param weights the weights of the connections, parallel to targets
+     * @param from the first position in targets and weights to use
+     * @param to one past the last position in targets and weights to use
+     */
+    void connectAll(Node<T>[] toNodes, int[] targets, double[] weights, int from, int to) {
+        edges.ensureCapacity(edges.size() + to - from);
+
+        for (int i = from; i < to; i++) {
+            Edge<T> edge = new Edge<>(this, toNodes[targets[i]], weights[i]);
+            edge.fromSlot = edges.size();
+            edges.add(edge);
+        }
+        liveEdges = null;
+
+        if (edgeIndex != null || degree() > EDGE_INDEX_THRESHOLD) {
+            buildEdgeIndex();
+        }
+    }
+
+    /**
+     * Adds a batch of undirected edge records, which the other endpoint holds as well, without
+     * checking for existing connections. Used by bulk loaders of undirected graphs.
+     *
+     * @param records the records to pick from, by edge id
+     * @param edgeIds the ids of the records to add; not yet held by this node
+     * @param from the first position in edgeIds to use
+     * @param to one past the last position in edgeIds to use
+     */
+    void connectAll(Edge<T>[] records, int[] edgeIds, int from, int to) {
+        edges.ensureCapacity(edges.size() + to - from);
+
+        for (int i = from; i < to; i++) {
+            Edge<T> edge = records[edgeIds[i]];
+            setSlot(edge, edges.size());
+            edges.add(edge);
+        }
+        liveEdges = null;
+
+        if (edgeIndex != null || degree() > EDGE_INDEX_THRESHOLD) {
+            buildEdgeIndex();
+        }
     }
 
     /**
      * Disconnects this node from another node.
      *
      * @param toNode the node to disconnect from
+     * @return the weight of the removed edge
      * @throws IllegalArgumentException if toNode is null ot if nodes are not already connected
      */
-    void disconnect(Node<T> toNode) {
+    double disconnect(Node<T> toNode) {
         if (toNode == null) {
             throw new IllegalArgumentException("Target node cannot be null");
         }
 
-        if (!neighbors.contains(toNode)) {
+        Edge<T> edge = recordTo(toNode);
+        if (edge == null) {
             throw new IllegalArgumentException("Nodes are not connected");
         }
 
-        edges.removeIf(edge -> edge.getToNode().equals(toNode));
-        neighbors.remove(toNode);
+        remove(edge, toNode);
+        return edge.getWeight();
+    }
+
+    /**
+     * Disconnects this node and another node connected by {@link #connectBoth}, removing the shared
+     * record from both of them.
+     *
+     * @param toNode the node to disconnect from
+     * @return the weight of the removed edge
+     * @throws IllegalArgumentException if toNode is null or if nodes are not already connected
+     */
+    double disconnectBoth(Node<T> toNode) {
+        double weight = disconnect(toNode);
+        toNode.remove(toNode.recordTo(this), this);
+        return weight;
+    }
+
+    private void remove(Edge<T> edge, Node<T> toNode) {
+        int slot = slotOf(edge);
+        if (slot == edges.size() - 1) {
+            edges.remove(slot);
+        } else {
+            edges.set(slot, null);
+            removedCount++;
+        }
+        setSlot(edge, -1);
+        if (removedCount != 0) {
+            liveEdges = null;
+        }
+
+        // Compacting once the tombstones outnumber the live records keeps removal amortized O(1)
+        if (removedCount > degree()) {
+            compact();
+        }
+
+        if (edgeIndex != null) {
+            edgeIndex.remove(toNode);
+            if (degree() <= EDGE_INDEX_THRESHOLD / 2) {
+                edgeIndex = null; // Back to a compact list for low-degree nodes
+            }
+        }
+    }
+
+    /**
+     * Drops the tombstones from the edge list, keeping the live records in order.
+     */
+    private void compact() {
+        int count = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            Edge<T> edge = edges.get(i);
+            if (edge != null) {
+                setSlot(edge, count);
+                edges.set(count++, edge);
+            }
+        }
+
+        edges.subList(count, edges.size()).clear();
+        removedCount = 0;
+        liveEdges = null;
+    }
+
+    /**
+     * Builds the target-keyed edge index from the current edge list.
+     */
+    private void buildEdgeIndex() {
+        edgeIndex = new IdentityHashMap<>(degree() * 2);
+        for (Edge<T> edge : edges) {
+            if (edge != null) {
+                edgeIndex.put(other(edge), edge);
+            }
+        }
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Node<?> node = (Node<?>) o;
-        return Objects.equals(data, node.data) && Objects.equals(name, node.name);
+    /**
+     * The edges of this node, each oriented away from it.
+     */
+    private final class Edges extends AbstractList<Edge<T>> implements RandomAccess {
+        @Override
+        public Edge<T> get(int index) {
+            return oriented(recordAt(index));
+        }
+
+        @Override
+        public int size() {
+            return degree();
+        }
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(data, name);
+    private final class Neighbors extends AbstractList<Node<T>> implements RandomAccess {
+        @Override
+        public Node<T> get(int index) {
+            return other(recordAt(index));
+        }
+
+        @Override
+        public int size() {
+            return degree();
+        }
     }
 }
@@ -0,0 +1,60 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts node data to and from bytes for the node-data section of a {@link MappedGraph} file.
+ *
+ * @param <T> the type of the node data
+ */
+public interface NodeDataSerializer<T> {
+
+    /**
+     * @param data the data of a node, never null
+     * @return the bytes to store for the data
+     */
+    byte[] serialize(T data);
+
+    /**
+     * @param bytes a read-only buffer whose remaining bytes are exactly the ones returned by
+     *              {@link #serialize(Object)}; it may be a view of the mapped file and must not be
+     *              retained
+     * @return the data read back
+     */
+    T deserialize(ByteBuffer bytes);
+
+    /**
+     * @return a serializer storing strings as UTF-8
+     */
+    static NodeDataSerializer<String> strings() {
+        return new NodeDataSerializer<>() {
+            @Override
+            public byte[] serialize(String data) {
+                return data.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(ByteBuffer bytes) {
+                return StandardCharsets.UTF_8.decode(bytes).toString();
+            }
+        };
+    }
+
+    /**
+     * @return a serializer storing integers as four big-endian bytes
+     */
+    static NodeDataSerializer<Integer> integers() {
+        return new NodeDataSerializer<>() {
+            @Override
+            public byte[] serialize(Integer data) {
+                return ByteBuffer.allocate(Integer.BYTES).putInt(data).array();
+            }
+
+            @Override
+            public Integer deserialize(ByteBuffer bytes) {
+                return bytes.getInt(bytes.position());
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * The nodes of a graph that supports removing them: a table by id, with null tombstones for
+ * removed nodes, which is also a read-only list of the live nodes in id order.
+ * <p>
+ * Until a node is removed, positional access reads the table directly. The first removal builds a
+ * Fenwick tree over the live nodes by id, which every later change updates in O(log n), so
+ * positional access after removals costs O(log n) and never copies the table. Iteration skips the
+ * tombstones in place.
+ *
+ * @param <T> the type of the node data
+ */
+final class NodeList<T> extends AbstractList<Node<T>> implements RandomAccess {
+    // Nodes by id, null for removed nodes
+    private final ArrayList<Node<T>> nodes = new ArrayList<>();
+    private int removedCount;
+
+    // 1-based Fenwick tree counting the live nodes by id; null until the first removal
+    private int[] liveCounts;
+
+    /**
+     * @return the number of ids handed out, including those of removed nodes
+     */
+    int idBound() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the node with the id, or null if the id is out of range or its node was removed
+     */
+    Node<T> byId(int id) {
+        return id >= 0 && id < nodes.size() ? nodes.get(id) : null;
+    }
+
+    /**
+     * Appends a node, whose id must be the current {@link #idBound()}.
+     */
+    void append(Node<T> node) {
+        nodes.add(node);
+
+        if (liveCounts != null) {
+            int index = nodes.size();
+            if (index == liveCounts.length) {
+                liveCounts = Arrays.copyOf(liveCounts, index * 2);
+            }
+
+            // The new entry covers the ids (index - lowbit(index), index], the last of which is the new node
+            int lowest = index & -index;
+            liveCounts[index] = 1 + prefixCount(index - 1) - prefixCount(index - lowest);
+        }
+    }
+
+    /**
+     * Replaces a live node with a tombstone. Its id is never reused.
+     */
+    void remove(Node<T> node) {
+        int id = node.getId();
+        nodes.set(id, null);
+        removedCount++;
+
+        if (liveCounts == null) {
+            buildLiveCounts();
+        } else {
+            for (int i = id + 1; i <= nodes.size(); i += i & -i) {
+                liveCounts[i]--;
+            }
+        }
+    }
+
+    @Override
+    public Node<T> get(int index) {
+        if (removedCount == 0) {
+            return nodes.get(index);
+        }
+
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+
+        // Descends the tree to the id whose prefix holds index + 1 live nodes
+        int id = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(nodes.size()); step > 0; step >>= 1) {
+            int next = id + step;
+            if (next <= nodes.size() && liveCounts[next] <= remaining) {
+                id = next;
+                remaining -= liveCounts[next];
+            }
+        }
+        return nodes.get(id);
+    }
+
+    @Override
+    public int size() {
+        return nodes.size() - removedCount;
+    }
+
+    @Override
+    public Iterator<Node<T>> iterator() {
+        if (removedCount == 0) {
+            return super.iterator();
+        }
+
+        return new Iterator<Node<T>>() {
+            private int next = advance(0);
+
+            private int advance(int id) {
+                while (id < nodes.size() && nodes.get(id) == null) {
+                    id++;
+                }
+                return id;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < nodes.size();
+            }
+
+            @Override
+            public Node<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                Node<T> node = nodes.get(next);
+                next = advance(next + 1);
+                return node;
+            }
+        };
+    }
+
+    private int prefixCount(int id) {
+        int count = 0;
+        for (int i = id; i > 0; i -= i & -i) {
+            count += liveCounts[i];
+        }
+        return count;
+    }
+
+    private void buildLiveCounts() {
+        int size = nodes.size();
+        int[] counts = new int[Math.max(16, Integer.highestOneBit(size) * 2)];
+
+        for (int i = 1; i <= size; i++) {
+            if (nodes.get(i - 1) != null) {
+                counts[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                counts[parent] += counts[i];
+            }
+        }
+        liveCounts = counts;
+    }
+}
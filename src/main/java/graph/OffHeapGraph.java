@@ -0,0 +1,613 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A mutable graph whose edges are stored outside the Java heap, for graphs too large to keep one
+ * {@link Edge} object per edge.
+ * <p>
+ * Nodes are ordinary objects, but the adjacency lives in direct byte buffers: the target and
+ * weight of every edge are a slot in segments of 2^20 slots, and every node owns a block of
+ * consecutive slots whose start, degree and capacity are kept in an off-heap node table. A full
+ * block is moved to one twice its size, and the old block goes to a free list from which other
+ * nodes reuse it. The garbage collector therefore only ever sees a few thousand buffers, however
+ * many edges the graph holds.
+ * <p>
+ * Edges are materialized only on demand: {@link #getEdges(Node)} and {@link Node#getEdges()}
+ * return live views that create an edge for every element read. These edges are copies, so
+ * {@link #updateEdgeWeight} rather than {@link Edge#setWeight} changes a weight. The graph is also
+ * an {@link IndexedGraph} whose node indices are the node ids and whose edge indices are slots;
+ * the edges of a node are contiguous, but the slots of the whole graph are not dense. Searches of
+ * {@link GraphAlgorithms} read the slots directly and create no edges.
+ * <p>
+ * Every edge takes 12 bytes of direct memory per endpoint that stores it, and a block is at most
+ * twice the degree of its node. Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which
+ * defaults to the maximum heap size, so huge graphs need a higher limit. The memory is released
+ * when the graph is garbage collected. Instances are not thread-safe.
+ *
+ * @param <T> the type of the node data
+ */
+public final class OffHeapGraph<T> implements Graph<T>, IndexedGraph {
+    // Blocks up to a segment never straddle two segments; larger ones start at a segment boundary
+    private static final int SEGMENT_SHIFT = 20;
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SLOTS - 1;
+    // Slots are int indices, so the storage ends at the last whole segment below 2^31
+    private static final long MAX_SLOTS = (long) (Integer.MAX_VALUE >>> SEGMENT_SHIFT) << SEGMENT_SHIFT;
+
+    // The block a node gets for its first edge; every block is a power of two at least this large
+    private static final int MIN_BLOCK = 4;
+
+    // Ints per node in the node table: the start of its block, its degree and the block's capacity
+    private static final int NODE_FIELDS = 3;
+    private static final int START = 0;
+    private static final int DEGREE = 1;
+    private static final int CAPACITY = 2;
+    private static final int MAX_NODES = Integer.MAX_VALUE / NODE_FIELDS;
+
+    private final boolean directed;
+    private final List<OffHeapNode<T>> nodes;
+    private final List<Node<T>> nodesView;
+    private final GraphListenerSupport<T> listeners;
+
+    private final Segments targets = new Segments(SEGMENT_SHIFT, 2);
+    private final Segments weights = new Segments(SEGMENT_SHIFT, 3);
+    private final Segments nodeTable = new Segments(16, 2);
+
+    // The first slot never handed out; everything from here on is unused
+    private int top;
+    // Heads of the free lists by log2 of the block size, -1 if empty. A free block stores the
+    // next block of its list in its first target slot
+    private final int[] freeBlocks = new int[31];
+    private int edgeCount;
+
+    private OffHeapGraph(boolean directed) {
+        this.directed = directed;
+        this.nodes = new ArrayList<>();
+        this.nodesView = Collections.unmodifiableList(nodes); // Read-only view to prevent external modification
+        this.listeners = new GraphListenerSupport<>();
+        Arrays.fill(freeBlocks, -1);
+    }
+
+    /**
+     * @return a new, empty directed graph
+     */
+    public static <T> OffHeapGraph<T> directed() {
+        return new OffHeapGraph<>(true);
+    }
+
+    /**
+     * @return a new, empty undirected graph, which stores every edge at both of its endpoints
+     */
+    public static <T> OffHeapGraph<T> undirected() {
+        return new OffHeapGraph<>(false);
+    }
+
+    @Override
+    public List<Node<T>> getNodes() {
+        return nodesView;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public Node<T> getNode(int id) {
+        return id >= 0 && id < nodes.size() ? nodes.get(id) : null;
+    }
+
+    @Override
+    public Node<T> addNode(T data) {
+        return add(data, "n" + data);
+    }
+
+    @Override
+    public Node<T> addNode(T data, String name) {
+        if (data == null) {
+            throw new IllegalArgumentException("Node data cannot be null");
+        }
+
+        return add(data, name);
+    }
+
+    private Node<T> add(T data, String name) {
+        int id = nodes.size();
+        if (id == MAX_NODES) {
+            throw new IllegalStateException("Too many nodes: " + id);
+        }
+
+        OffHeapNode<T> node = new OffHeapNode<>(this, data, name, id);
+        // New table entries are zero: an empty block at slot 0
+        nodeTable.ensureCapacity((long) (id + 1) * NODE_FIELDS);
+        nodes.add(node);
+        listeners.nodeAdded(node);
+        return node;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if either node is not part of the graph, the nodes are
+     *                                  already connected, or the edge is a self-loop of an undirected graph
+     * @throws IllegalStateException if the edge storage is full
+     */
+    @Override
+    public void connect(Node<T> fromNode, Node<T> toNode, double weight) {
+        validateNodesInGraph(fromNode, toNode);
+        int from = fromNode.getId();
+        int to = toNode.getId();
+
+        if (!directed && from == to) {
+            throw new IllegalArgumentException("Undirected graphs cannot have self-loops: " + fromNode.getData());
+        }
+
+        if (find(from, to) >= 0) {
+            throw new IllegalArgumentException("Nodes are already connected");
+        }
+
+        append(from, to, weight);
+        if (!directed) {
+            try {
+                append(to, from, weight);
+            } catch (IllegalStateException e) {
+                removeAt(from, degree(from) - 1); // Leave no half of an undirected edge behind
+                throw e;
+            }
+        }
+
+        listeners.edgeAdded(fromNode, toNode, weight);
+        if (!directed) {
+            listeners.edgeAdded(toNode, fromNode, weight);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if either node is not part of the graph or the nodes are not connected
+     */
+    @Override
+    public void disconnect(Node<T> fromNode, Node<T> toNode) {
+        validateNodesInGraph(fromNode, toNode);
+        int from = fromNode.getId();
+        int to = toNode.getId();
+
+        int position = find(from, to);
+        if (position < 0) {
+            throw new IllegalArgumentException("Nodes are not connected");
+        }
+
+        double weight = weights.getDouble(start(from) + position);
+        removeAt(from, position);
+        if (!directed) {
+            removeAt(to, find(to, from));
+        }
+
+        listeners.edgeRemoved(fromNode, toNode, weight);
+        if (!directed) {
+            listeners.edgeRemoved(toNode, fromNode, weight);
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return listeners.getVersion();
+    }
+
+    @Override
+    public void addGraphListener(GraphListener<T> listener) {
+        listeners.addListener(listener);
+    }
+
+    @Override
+    public void removeGraphListener(GraphListener<T> listener) {
+        listeners.removeListener(listener);
+    }
+
+    @Override
+    public void updateNodeData(Node<T> node, T newData) {
+        if (node == null || newData == null) {
+            throw new IllegalArgumentException("Node and new data cannot be null");
+        }
+
+        if (!containsNode(node)) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+
+        node.setData(newData);
+    }
+
+    @Override
+    public void updateEdgeWeight(Node<T> fromNode, Node<T> toNode, double newWeight) {
+        validateNodesInGraph(fromNode, toNode);
+        int from = fromNode.getId();
+        int to = toNode.getId();
+
+        int position = find(from, to);
+        if (position < 0) {
+            throw new IllegalArgumentException("Edge does not exist");
+        }
+
+        int slot = start(from) + position;
+        double oldWeight = weights.getDouble(slot);
+        weights.putDouble(slot, newWeight);
+        if (!directed) {
+            weights.putDouble(start(to) + find(to, from), newWeight);
+        }
+
+        listeners.edgeWeightChanged(fromNode, toNode, oldWeight, newWeight);
+        if (!directed) {
+            listeners.edgeWeightChanged(toNode, fromNode, oldWeight, newWeight);
+        }
+    }
+
+    /**
+     * Copies the slots straight into a CSR snapshot, without materializing any edges.
+     *
+     * @return a compressed-sparse-row snapshot of the graph
+     */
+    @Override
+    public CsrGraph<T> freeze() {
+        int nodeCount = nodes.size();
+        int[] offsets = new int[nodeCount + 1];
+        int[] snapshotTargets = new int[edgeCount];
+        double[] snapshotWeights = new double[edgeCount];
+
+        for (int node = 0; node < nodeCount; node++) {
+            int start = start(node);
+            int degree = degree(node);
+            for (int i = 0; i < degree; i++) {
+                snapshotTargets[offsets[node] + i] = targets.getInt(start + i);
+                snapshotWeights[offsets[node] + i] = weights.getDouble(start + i);
+            }
+            offsets[node + 1] = offsets[node] + degree;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<T>[] snapshotNodes = nodes.toArray(new Node[0]);
+        return CsrGraph.of(snapshotNodes, offsets, snapshotTargets, snapshotWeights, directed);
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int edgeStart(int node) {
+        return start(node);
+    }
+
+    @Override
+    public int edgeEnd(int node) {
+        return start(node) + degree(node);
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return targets.getInt(edge);
+    }
+
+    @Override
+    public double edgeWeight(int edge) {
+        return weights.getDouble(edge);
+    }
+
+    @Override
+    public int degree(int node) {
+        return nodeTable.getInt(node * NODE_FIELDS + DEGREE);
+    }
+
+    /**
+     * @return the edge from a node of this graph to another node, or null if they are not connected
+     */
+    Edge<T> edgeTo(OffHeapNode<T> fromNode, Node<T> toNode) {
+        if (!containsNode(toNode)) {
+            return null;
+        }
+
+        int position = find(fromNode.getId(), toNode.getId());
+        return position < 0 ? null : new Edge<>(fromNode, toNode, weights.getDouble(start(fromNode.getId()) + position));
+    }
+
+    /**
+     * @return a new edge holding the target and weight at a position of the node's block
+     * @throws IndexOutOfBoundsException if the position is not below the degree of the node
+     */
+    Edge<T> edgeAt(OffHeapNode<T> node, int index) {
+        int slot = slotAt(node.getId(), index);
+        return new Edge<>(node, nodes.get(targets.getInt(slot)), weights.getDouble(slot));
+    }
+
+    /**
+     * @return the target at a position of the node's block
+     * @throws IndexOutOfBoundsException if the position is not below the degree of the node
+     */
+    Node<T> neighborAt(OffHeapNode<T> node, int index) {
+        return nodes.get(targets.getInt(slotAt(node.getId(), index)));
+    }
+
+    private int slotAt(int node, int index) {
+        int degree = degree(node);
+        if (index < 0 || index >= degree) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + degree);
+        }
+        return start(node) + index;
+    }
+
+    private int start(int node) {
+        return nodeTable.getInt(node * NODE_FIELDS + START);
+    }
+
+    private int capacity(int node) {
+        return nodeTable.getInt(node * NODE_FIELDS + CAPACITY);
+    }
+
+    /**
+     * @return the position of the edge to the target within the node's block, or -1 if there is none
+     */
+    private int find(int node, int target) {
+        int start = start(node);
+        int[] index = nodes.get(node).edgeIndex;
+
+        if (index != null) {
+            int mask = index.length - 1;
+            for (int i = hash(target) & mask; index[i] != 0; i = (i + 1) & mask) {
+                if (targets.getInt(start + index[i] - 1) == target) {
+                    return index[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        for (int i = 0, degree = degree(node); i < degree; i++) {
+            if (targets.getInt(start + i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void append(int node, int target, double weight) {
+        int start = start(node);
+        int degree = degree(node);
+        int capacity = capacity(node);
+
+        if (degree == capacity) {
+            int grown = capacity == 0 ? MIN_BLOCK : capacity << 1;
+            if (grown < 0) {
+                throw new IllegalStateException("Off-heap edge storage is full");
+            }
+
+            int block = allocate(grown);
+            for (int i = 0; i < degree; i++) {
+                targets.putInt(block + i, targets.getInt(start + i));
+                weights.putDouble(block + i, weights.getDouble(start + i));
+            }
+            if (capacity > 0) {
+                release(start, capacity);
+            }
+
+            start = block;
+            nodeTable.putInt(node * NODE_FIELDS + START, block);
+            nodeTable.putInt(node * NODE_FIELDS + CAPACITY, grown);
+        }
+
+        targets.putInt(start + degree, target);
+        weights.putDouble(start + degree, weight);
+        nodeTable.putInt(node * NODE_FIELDS + DEGREE, degree + 1);
+        edgeCount++;
+
+        OffHeapNode<T> owner = nodes.get(node);
+        if (owner.edgeIndex != null && 2 * (degree + 1) <= owner.edgeIndex.length) {
+            insert(owner.edgeIndex, target, degree);
+        } else if (degree + 1 > Node.EDGE_INDEX_THRESHOLD) {
+            owner.edgeIndex = buildEdgeIndex(node); // First index, or one at no more than half load
+        }
+    }
+
+    private void removeAt(int node, int position) {
+        int start = start(node);
+        int degree = degree(node) - 1;
+
+        // Shift the later edges down, so the rest keep the order they were connected in
+        for (int slot = start + position; slot < start + degree; slot++) {
+            targets.putInt(slot, targets.getInt(slot + 1));
+            weights.putDouble(slot, weights.getDouble(slot + 1));
+        }
+        nodeTable.putInt(node * NODE_FIELDS + DEGREE, degree);
+        edgeCount--;
+
+        if (degree == 0) {
+            release(start, capacity(node));
+            nodeTable.putInt(node * NODE_FIELDS + START, 0);
+            nodeTable.putInt(node * NODE_FIELDS + CAPACITY, 0);
+        }
+
+        OffHeapNode<T> owner = nodes.get(node);
+        if (owner.edgeIndex != null) {
+            // Positions after the removed edge moved, so the index is rebuilt, or dropped for low degrees
+            owner.edgeIndex = degree <= Node.EDGE_INDEX_THRESHOLD / 2 ? null : buildEdgeIndex(node);
+        }
+    }
+
+    private int[] buildEdgeIndex(int node) {
+        int start = start(node);
+        int degree = degree(node);
+        int[] index = new int[Integer.highestOneBit(degree) << 2];
+        for (int i = 0; i < degree; i++) {
+            insert(index, targets.getInt(start + i), i);
+        }
+        return index;
+    }
+
+    private static void insert(int[] index, int target, int position) {
+        int mask = index.length - 1;
+        int i = hash(target) & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = position + 1;
+    }
+
+    private static int hash(int target) {
+        int h = target * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Takes a block of the given size from its free list, or else from the unused end of the storage.
+     *
+     * @param size a power of two, at least {@link #MIN_BLOCK}
+     * @return the first slot of the block
+     * @throws IllegalStateException if the storage is full
+     */
+    private int allocate(int size) {
+        int sizeClass = Integer.numberOfTrailingZeros(size);
+        int block = freeBlocks[sizeClass];
+        if (block >= 0) {
+            freeBlocks[sizeClass] = targets.getInt(block);
+            return block;
+        }
+
+        int remaining = SEGMENT_SLOTS - (top & SEGMENT_MASK);
+        long end = (long) (remaining < SEGMENT_SLOTS && size > remaining ? top + remaining : top) + size;
+        if (end > MAX_SLOTS) {
+            throw new IllegalStateException("Off-heap edge storage is full");
+        }
+
+        if (remaining < SEGMENT_SLOTS && size > remaining) {
+            retire(remaining);
+        }
+
+        targets.ensureCapacity(end);
+        weights.ensureCapacity(end);
+        block = top;
+        top += size;
+        return block;
+    }
+
+    /**
+     * Skips the rest of the current segment, handing it to the free lists as the largest blocks that fit.
+     */
+    private void retire(int remaining) {
+        targets.ensureCapacity((long) top + remaining);
+        weights.ensureCapacity((long) top + remaining);
+
+        while (remaining >= MIN_BLOCK) {
+            int size = Integer.highestOneBit(remaining);
+            release(top, size);
+            top += size;
+            remaining -= size;
+        }
+        top += remaining;
+    }
+
+    private void release(int block, int size) {
+        int sizeClass = Integer.numberOfTrailingZeros(size);
+        targets.putInt(block, freeBlocks[sizeClass]);
+        freeBlocks[sizeClass] = block;
+    }
+
+    /**
+     * Validates that both nodes are part of the graph.
+     *
+     * @param fromNode the starting node
+     * @param toNode the ending node
+     * @throws IllegalArgumentException if either node is not part of the graph
+     */
+    private void validateNodesInGraph(Node<T> fromNode, Node<T> toNode) {
+        if (fromNode == null || toNode == null) {
+            throw new IllegalArgumentException("Nodes cannot be null");
+        }
+
+        if (!containsNode(fromNode) || !containsNode(toNode)) {
+            throw new IllegalArgumentException("Both nodes must be part of the graph");
+        }
+    }
+
+    /**
+     * A growable array of ints or doubles in direct buffers of 2^shift elements each. The first
+     * buffer starts small and doubles until it reaches full size, so small graphs stay small;
+     * after that, full-size buffers are added and elements never move again.
+     */
+    private static final class Segments {
+        private static final int INITIAL_SIZE = 1024;
+
+        private final int shift;
+        private final int mask;
+        private final int widthShift;
+        private ByteBuffer[] buffers = new ByteBuffer[0];
+        private long capacity;
+
+        /**
+         * @param widthShift log2 of the element size in bytes
+         */
+        Segments(int shift, int widthShift) {
+            this.shift = shift;
+            this.mask = (1 << shift) - 1;
+            this.widthShift = widthShift;
+        }
+
+        int getInt(int index) {
+            return buffers[index >>> shift].getInt((index & mask) << widthShift);
+        }
+
+        void putInt(int index, int value) {
+            buffers[index >>> shift].putInt((index & mask) << widthShift, value);
+        }
+
+        double getDouble(int index) {
+            return buffers[index >>> shift].getDouble((index & mask) << widthShift);
+        }
+
+        void putDouble(int index, double value) {
+            buffers[index >>> shift].putDouble((index & mask) << widthShift, value);
+        }
+
+        void ensureCapacity(long size) {
+            if (size <= capacity) {
+                return;
+            }
+
+            int fullSize = 1 << shift;
+            if (capacity < fullSize) {
+                int length = (int) Math.max(capacity, Math.min(INITIAL_SIZE, fullSize));
+                while (length < size && length < fullSize) {
+                    length <<= 1;
+                }
+
+                ByteBuffer buffer = allocate(length);
+                if (buffers.length > 0) {
+                    buffer.put(buffers[0].duplicate().clear());
+                } else {
+                    buffers = new ByteBuffer[1];
+                }
+                buffers[0] = buffer;
+                capacity = length;
+            }
+
+            while (capacity < size) {
+                buffers = Arrays.copyOf(buffers, buffers.length + 1);
+                buffers[buffers.length - 1] = allocate(fullSize);
+                capacity += fullSize;
+            }
+        }
+
+        private ByteBuffer allocate(int length) {
+            return ByteBuffer.allocateDirect(length << widthShift).order(ByteOrder.nativeOrder());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A node of an {@link OffHeapGraph}. The node keeps no edges of its own: its adjacency is a block
+ * of off-heap slots owned by the graph, and the lists it returns create {@link Edge} and neighbor
+ * views on every read.
+ *
+ * @param <T> the type of the node data
+ */
+final class OffHeapNode<T> extends Node<T> {
+    private final OffHeapGraph<T> graph;
+
+    // Built once the degree exceeds EDGE_INDEX_THRESHOLD: an open-addressing table of positions in
+    // the node's block plus one, keyed by target, so positions survive the block being moved
+    int[] edgeIndex;
+
+    OffHeapNode(OffHeapGraph<T> graph, T data, String name, int id) {
+        super(data, name, id, false);
+        this.graph = graph;
+    }
+
+    @Override
+    public List<Edge<T>> getEdges() {
+        return new Edges();
+    }
+
+    @Override
+    public List<Node<T>> getNeighbors() {
+        return new Neighbors();
+    }
+
+    @Override
+    public Edge<T> getEdgeTo(Node<T> toNode) {
+        return graph.edgeTo(this, toNode);
+    }
+
+    @Override
+    Edge<T> connect(Node<T> toNode, double weight) {
+        throw new UnsupportedOperationException("Off-heap nodes are changed through their graph");
+    }
+
+    @Override
+    void connectAll(Node<T>[] toNodes, int[] targets, double[] weights, int from, int to) {
+        throw new UnsupportedOperationException("Off-heap nodes are changed through their graph");
+    }
+
+    @Override
+    void connectBoth(Node<T> toNode, double weight) {
+        throw new UnsupportedOperationException("Off-heap nodes are changed through their graph");
+    }
+
+    @Override
+    void connectAll(Edge<T>[] records, int[] edgeIds, int from, int to) {
+        throw new UnsupportedOperationException("Off-heap nodes are changed through their graph");
+    }
+
+    @Override
+    double disconnect(Node<T> toNode) {
+        throw new UnsupportedOperationException("Off-heap nodes are changed through their graph");
+    }
+
+    @Override
+    double disconnectBoth(Node<T> toNode) {
+        throw new UnsupportedOperationException("Off-heap nodes are changed through their graph");
+    }
+
+    /**
+     * A live view of the node's edges, reading the graph's slots on every access.
+     */
+    private final class Edges extends AbstractList<Edge<T>> implements RandomAccess {
+        @Override
+        public Edge<T> get(int index) {
+            return graph.edgeAt(OffHeapNode.this, index);
+        }
+
+        @Override
+        public int size() {
+            return graph.degree(getId());
+        }
+    }
+
+    private final class Neighbors extends AbstractList<Node<T>> implements RandomAccess {
+        @Override
+        public Node<T> get(int index) {
+            return graph.neighborAt(OffHeapNode.this, index);
+        }
+
+        @Override
+        public int size() {
+            return graph.degree(getId());
+        }
+    }
+}
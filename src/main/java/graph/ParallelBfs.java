@@ -0,0 +1,207 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * A parallel, level-synchronous, direction-optimizing breadth-first search over an
+ * {@link IndexedGraph}.
+ * <p>
+ * Each level is expanded by splitting the work into chunks processed on a {@link ForkJoinPool}.
+ * While the frontier is small the search runs top-down: frontier nodes claim their unvisited
+ * out-neighbors through an atomic bitset. Once the edges leaving the frontier outnumber a fraction
+ * of the edges leaving unvisited nodes, it switches to bottom-up: every unvisited node scans its
+ * in-neighbors (edges of the reverse graph) and stops at the first one in the frontier, which
+ * avoids touching most edges on the large middle levels of low-diameter graphs. It switches back
+ * once the frontier shrinks again.
+ * <p>
+ * A search object holds no per-query state and may be shared between threads.
+ */
+public final class ParallelBfs {
+    /**
+     * Switch to bottom-up when the frontier's outgoing edges exceed the unexplored edges divided by this.
+     */
+    static final int TOP_DOWN_FACTOR = 14;
+
+    /**
+     * Switch back to top-down when the frontier holds fewer than the node count divided by this.
+     */
+    static final int BOTTOM_UP_FACTOR = 24;
+
+    /**
+     * Nodes per task; small enough to balance skewed degrees, large enough to amortize task overhead.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    private final IndexedGraph graph;
+    private final IndexedGraph reverse;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a search over a CSR snapshot on the common fork/join pool, using the snapshot's
+     * transpose for bottom-up steps.
+     *
+     * @param graph the snapshot to search
+     */
+    public ParallelBfs(CsrGraph<?> graph) {
+        this(graph, graph.transpose(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a search.
+     *
+     * @param graph the graph to search
+     * @param reverse the same graph with every edge reversed, using the same node indices
+     * @param pool the pool to run the search on
+     * @throws IllegalArgumentException if any argument is null or the node counts differ
+     */
+    public ParallelBfs(IndexedGraph graph, IndexedGraph reverse, ForkJoinPool pool) {
+        if (graph == null || reverse == null || pool == null || graph.nodeCount() != reverse.nodeCount()) {
+            throw new IllegalArgumentException("Invalid graph, reverse graph or pool");
+        }
+
+        this.graph = graph;
+        this.reverse = reverse;
+        this.pool = pool;
+    }
+
+    /**
+     * Performs a breadth-first search from the given node.
+     *
+     * @param source the index of the starting node
+     * @return the visitation order, levels and parent links of the search
+     */
+    public BfsResult run(int source) {
+        return pool.submit(() -> search(source)).join();
+    }
+
+    private BfsResult search(int source) {
+        int nodeCount = graph.nodeCount();
+        AtomicLongArray visited = new AtomicLongArray((nodeCount + 63) >>> 6);
+        int[] levels = new int[nodeCount];
+        int[] parents = new int[nodeCount];
+        Arrays.fill(levels, -1);
+        Arrays.fill(parents, -1);
+
+        int[] order = new int[nodeCount];
+        int visitedCount = 0;
+
+        tryVisit(visited, source);
+        levels[source] = 0;
+        order[visitedCount++] = source;
+
+        int[] frontier = {source};
+        long unexploredEdges = graph.edgeCount();
+        boolean bottomUp = false;
+        int level = 0;
+
+        while (frontier.length > 0) {
+            long frontierEdges = frontierEdges(frontier);
+            unexploredEdges -= frontierEdges;
+
+            if (!bottomUp && frontierEdges > unexploredEdges / TOP_DOWN_FACTOR) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < nodeCount / BOTTOM_UP_FACTOR) {
+                bottomUp = false;
+            }
+
+            int nextLevel = level + 1;
+            int[] next = bottomUp
+                    ? bottomUpStep(visited, levels, parents, level, nextLevel)
+                    : topDownStep(frontier, visited, levels, parents, nextLevel);
+
+            System.arraycopy(next, 0, order, visitedCount, next.length);
+            visitedCount += next.length;
+            frontier = next;
+            level = nextLevel;
+        }
+
+        return new BfsResult(source, Arrays.copyOf(order, visitedCount), levels, parents, level);
+    }
+
+    private long frontierEdges(int[] frontier) {
+        return IntStream.range(0, chunkCount(frontier.length)).parallel().mapToLong(chunk -> {
+            long edges = 0;
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, frontier.length); i < end; i++) {
+                edges += graph.degree(frontier[i]);
+            }
+            return edges;
+        }).sum();
+    }
+
+    private int[] topDownStep(int[] frontier, AtomicLongArray visited, int[] levels, int[] parents, int nextLevel) {
+        int[][] found = IntStream.range(0, chunkCount(frontier.length)).parallel().mapToObj(chunk -> {
+            IntList local = new IntList();
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, frontier.length); i < end; i++) {
+                int node = frontier[i];
+                for (int edge = graph.edgeStart(node), edgeEnd = graph.edgeEnd(node); edge < edgeEnd; edge++) {
+                    int neighbour = graph.edgeTarget(edge);
+                    if (!isVisited(visited, neighbour) && tryVisit(visited, neighbour)) {
+                        levels[neighbour] = nextLevel;
+                        parents[neighbour] = node;
+                        local.add(neighbour);
+                    }
+                }
+            }
+            return local.toArray();
+        }).toArray(int[][]::new);
+
+        return IntList.concat(found);
+    }
+
+    private int[] bottomUpStep(AtomicLongArray visited, int[] levels, int[] parents, int level, int nextLevel) {
+        int nodeCount = graph.nodeCount();
+        int[][] found = IntStream.range(0, chunkCount(nodeCount)).parallel().mapToObj(chunk -> {
+            IntList local = new IntList();
+            for (int node = chunk * CHUNK_SIZE, end = Math.min(node + CHUNK_SIZE, nodeCount); node < end; node++) {
+                if (isVisited(visited, node)) {
+                    continue;
+                }
+
+                for (int edge = reverse.edgeStart(node), edgeEnd = reverse.edgeEnd(node); edge < edgeEnd; edge++) {
+                    int parent = reverse.edgeTarget(edge);
+                    // Levels of earlier frontiers were published by the join that ended their step
+                    if (levels[parent] == level) {
+                        tryVisit(visited, node);
+                        levels[node] = nextLevel;
+                        parents[node] = parent;
+                        local.add(node);
+                        break;
+                    }
+                }
+            }
+            return local.toArray();
+        }).toArray(int[][]::new);
+
+        return IntList.concat(found);
+    }
+
+    private static boolean isVisited(AtomicLongArray visited, int node) {
+        return (visited.get(node >>> 6) & (1L << node)) != 0;
+    }
+
+    /**
+     * Atomically marks a node as visited.
+     *
+     * @return true if this call marked the node, false if it was already visited
+     */
+    private static boolean tryVisit(AtomicLongArray visited, int node) {
+        int word = node >>> 6;
+        long bit = 1L << node;
+        while (true) {
+            long current = visited.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private static int chunkCount(int size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+}
@@ -0,0 +1,124 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a path through a graph as its sequence of nodes and the edges between them.
+ *
+ * @param <T> the type of the node data
+ */
+public final class Path<T> {
+    private final List<Node<T>> nodes;
+    private final List<Edge<T>> edges;
+    private final double weight;
+
+    /**
+     * Constructs a path from its nodes and edges.
+     *
+     * @param nodes the nodes on the path, from source to target
+     * @param edges the edges on the path, one fewer than the nodes
+     * @param weight the total weight of the path
+     */
+    Path(List<Node<T>> nodes, List<Edge<T>> edges, double weight) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.edges = Collections.unmodifiableList(edges);
+        this.weight = weight;
+    }
+
+    /**
+     * Builds a path from a sequence of node indices of a CSR snapshot. The edges are looked up on
+     * the nodes themselves, so the path reports the edges of the live graph. A standalone snapshot
+     * has no live graph; its path gets new edges with the snapshot's weights.
+     *
+     * @param graph the snapshot the indices belong to
+     * @param indices the node indices on the path, from source to target
+     * @param weight the total weight of the path
+     * @param <T> the type of the node data
+     * @return the path
+     * @throws IllegalStateException if an edge on the path no longer exists in the live graph
+     */
+    static <T> Path<T> of(CsrGraph<T> graph, int[] indices, double weight) {
+        List<Node<T>> nodes = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            nodes.add(graph.getNode(index));
+        }
+
+        if (!graph.isStandalone()) {
+            return of(nodes, weight);
+        }
+
+        List<Edge<T>> edges = new ArrayList<>(Math.max(indices.length - 1, 0));
+        for (int i = 1; i < indices.length; i++) {
+            edges.add(new Edge<>(nodes.get(i - 1), nodes.get(i), lightestEdge(graph, indices[i - 1], indices[i])));
+        }
+        return new Path<>(nodes, edges, weight);
+    }
+
+    private static double lightestEdge(CsrGraph<?> graph, int from, int to) {
+        double weight = Double.POSITIVE_INFINITY;
+        for (int edge = graph.edgeStart(from), end = graph.edgeEnd(from); edge < end; edge++) {
+            if (graph.edgeTarget(edge) == to) {
+                weight = Math.min(weight, graph.edgeWeight(edge));
+            }
+        }
+        if (weight == Double.POSITIVE_INFINITY) {
+            throw new IllegalStateException("Nodes on the path are not connected");
+        }
+        return weight;
+    }
+
+    /**
+     * Builds a path from a sequence of nodes, looking up the edge between each consecutive pair.
+     *
+     * @param nodes the nodes on the path, from source to target
+     * @param weight the total weight of the path
+     * @param <T> the type of the node data
+     * @return the path
+     * @throws IllegalStateException if two consecutive nodes are not connected
+     */
+    static <T> Path<T> of(List<Node<T>> nodes, double weight) {
+        List<Edge<T>> edges = new ArrayList<>(Math.max(nodes.size() - 1, 0));
+        for (int i = 1; i < nodes.size(); i++) {
+            Edge<T> edge = nodes.get(i - 1).getEdgeTo(nodes.get(i));
+            if (edge == null) {
+                throw new IllegalStateException("Graph changed since the path was computed");
+            }
+            edges.add(edge);
+        }
+        return new Path<>(nodes, edges, weight);
+    }
+
+    public Node<T> getSource() {
+        return nodes.get(0);
+    }
+
+    public Node<T> getTarget() {
+        return nodes.get(nodes.size() - 1);
+    }
+
+    public List<Node<T>> getNodes() {
+        return nodes;
+    }
+
+    public List<Edge<T>> getEdges() {
+        return edges;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Node<T> node : nodes) {
+            if (sb.length() > 0) {
+                sb.append(" -> ");
+            }
+            sb.append(node.getName());
+        }
+        return sb.append(" (").append(weight).append(')').toString();
+    }
+}
@@ -0,0 +1,36 @@
+package graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for one search of {@link GraphAlgorithms}, spanning the search itself.
+ * Enable {@code graph.Search} in a recording to collect it, optionally with a threshold so only slow
+ * searches are recorded.
+ */
+@Name("graph.Search")
+@Label("Graph Search")
+@Category("Graph")
+@Description("A search run by GraphAlgorithms, with the work it did")
+final class SearchEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Nodes Settled")
+    int nodesSettled;
+
+    @Label("Edges Relaxed")
+    long edgesRelaxed;
+
+    @Label("Heap Pushes")
+    long heapPushes;
+
+    @Label("Heap Pops")
+    long heapPops;
+
+    @Label("Decrease-Keys")
+    long decreaseKeys;
+}
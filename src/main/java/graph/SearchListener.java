@@ -0,0 +1,19 @@
+package graph;
+
+/**
+ * Receives the statistics of every search completed through a {@link GraphAlgorithms} instance it
+ * is registered with, see {@link GraphAlgorithms#addSearchListener(SearchListener)}.
+ * <p>
+ * Notifications are delivered synchronously on the searching thread once the search has finished,
+ * so a listener shared by several threads must be thread-safe and should return quickly. Searches
+ * that fail, e.g. on a negative edge weight, are not reported.
+ */
+public interface SearchListener {
+
+    /**
+     * Called after a search has completed.
+     *
+     * @param statistics the counters and wall time of the search
+     */
+    void searchCompleted(SearchStatistics statistics);
+}
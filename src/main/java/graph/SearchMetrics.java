@@ -0,0 +1,155 @@
+package graph;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link SearchListener} that aggregates the statistics of all reported searches per algorithm,
+ * e.g. to be exported to a metrics system periodically.
+ * <p>
+ * Recording is thread-safe and contention-free, so one instance can be registered with the
+ * {@link GraphAlgorithms} instances of many threads. Summaries are read without stopping
+ * recording, so a summary taken while searches complete may mix counters of consecutive searches.
+ */
+public final class SearchMetrics implements SearchListener {
+    private final ConcurrentHashMap<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    @Override
+    public void searchCompleted(SearchStatistics statistics) {
+        Aggregate aggregate = aggregates.get(statistics.getAlgorithm());
+        if (aggregate == null) {
+            aggregate = aggregates.computeIfAbsent(statistics.getAlgorithm(), algorithm -> new Aggregate());
+        }
+        aggregate.add(statistics);
+    }
+
+    /**
+     * @param algorithm the name of the algorithm, as in {@link SearchStatistics#getAlgorithm()}
+     * @return the totals of the algorithm's searches so far; all zero if it has not run
+     */
+    public Summary getSummary(String algorithm) {
+        Aggregate aggregate = aggregates.get(algorithm);
+        return aggregate == null ? new Summary(0, 0, 0, 0, 0, 0, 0, 0) : aggregate.summary();
+    }
+
+    /**
+     * @return the totals of every algorithm that has run, by algorithm name in alphabetical order
+     */
+    public Map<String, Summary> getSummaries() {
+        Map<String, Summary> summaries = new TreeMap<>();
+        aggregates.forEach((algorithm, aggregate) -> summaries.put(algorithm, aggregate.summary()));
+        return summaries;
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset() {
+        aggregates.clear();
+    }
+
+    /**
+     * The totals of the searches of one algorithm.
+     */
+    public static final class Summary {
+        private final long searches;
+        private final long nodesSettled;
+        private final long edgesRelaxed;
+        private final long heapPushes;
+        private final long heapPops;
+        private final long decreaseKeys;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Summary(long searches, long nodesSettled, long edgesRelaxed, long heapPushes, long heapPops,
+                long decreaseKeys, long totalNanos, long maxNanos) {
+            this.searches = searches;
+            this.nodesSettled = nodesSettled;
+            this.edgesRelaxed = edgesRelaxed;
+            this.heapPushes = heapPushes;
+            this.heapPops = heapPops;
+            this.decreaseKeys = decreaseKeys;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getSearches() {
+            return searches;
+        }
+
+        public long getNodesSettled() {
+            return nodesSettled;
+        }
+
+        public long getEdgesRelaxed() {
+            return edgesRelaxed;
+        }
+
+        public long getHeapPushes() {
+            return heapPushes;
+        }
+
+        public long getHeapPops() {
+            return heapPops;
+        }
+
+        public long getDecreaseKeys() {
+            return decreaseKeys;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return the wall time of the slowest search in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * @return the mean wall time of a search in nanoseconds, or 0 if there were none
+         */
+        public double getMeanNanos() {
+            return searches == 0 ? 0 : (double) totalNanos / searches;
+        }
+
+        @Override
+        public String toString() {
+            return searches + " searches, " + nodesSettled + " nodes settled, " + edgesRelaxed + " edges relaxed, "
+                    + heapPushes + " pushes, " + heapPops + " pops, " + decreaseKeys + " decrease-keys, mean "
+                    + Math.round(getMeanNanos() / 1000) + " us, max " + maxNanos / 1000 + " us";
+        }
+    }
+
+    private static final class Aggregate {
+        final LongAdder searches = new LongAdder();
+        final LongAdder nodesSettled = new LongAdder();
+        final LongAdder edgesRelaxed = new LongAdder();
+        final LongAdder heapPushes = new LongAdder();
+        final LongAdder heapPops = new LongAdder();
+        final LongAdder decreaseKeys = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void add(SearchStatistics statistics) {
+            searches.increment();
+            nodesSettled.add(statistics.getNodesSettled());
+            edgesRelaxed.add(statistics.getEdgesRelaxed());
+            heapPushes.add(statistics.getHeapPushes());
+            heapPops.add(statistics.getHeapPops());
+            decreaseKeys.add(statistics.getDecreaseKeys());
+            totalNanos.add(statistics.getNanos());
+            maxNanos.accumulate(statistics.getNanos());
+        }
+
+        Summary summary() {
+            return new Summary(searches.sum(), nodesSettled.sum(), edgesRelaxed.sum(), heapPushes.sum(),
+                    heapPops.sum(), decreaseKeys.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package graph;
+
+import java.util.List;
+
+/**
+ * Measures one search for the {@link SearchListener listeners} and the {@link SearchEvent} of its
+ * {@link GraphAlgorithms}. A recorder only exists while someone is listening: searches check for
+ * null once before and once after their loop, and otherwise only keep the counters they need anyway,
+ * so instrumentation costs nothing while it is off.
+ * <p>
+ * Heap operations are read as the difference of the heaps' cumulative counters between
+ * {@link #before} and {@link #after}, so the search loop does not count them itself.
+ */
+final class SearchRecorder {
+    private final String algorithm;
+    private final List<SearchListener> listeners;
+    private final SearchEvent event;
+    private final long startNanos;
+
+    private long heapPushes;
+    private long heapPops;
+    private long decreaseKeys;
+
+    private SearchRecorder(String algorithm, List<SearchListener> listeners, SearchEvent event) {
+        this.algorithm = algorithm;
+        this.listeners = listeners;
+        this.event = event;
+        event.begin();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * @return a started recorder, or null if there are no listeners and the event is disabled
+     */
+    static SearchRecorder start(String algorithm, List<SearchListener> listeners) {
+        SearchEvent event = new SearchEvent();
+        if (listeners.isEmpty() && !event.isEnabled()) {
+            return null;
+        }
+        return new SearchRecorder(algorithm, listeners, event);
+    }
+
+    SearchRecorder before(IndexedDaryHeap heap) {
+        heapPushes -= heap.pushes;
+        heapPops -= heap.pops;
+        decreaseKeys -= heap.decreases;
+        return this;
+    }
+
+    SearchRecorder after(IndexedDaryHeap heap) {
+        heapPushes += heap.pushes;
+        heapPops += heap.pops;
+        decreaseKeys += heap.decreases;
+        return this;
+    }
+
+    void finish(int nodesSettled, long edgesRelaxed) {
+        long nanos = System.nanoTime() - startNanos;
+        event.end();
+
+        if (!listeners.isEmpty()) {
+            SearchStatistics statistics = new SearchStatistics(algorithm, nodesSettled, edgesRelaxed, heapPushes,
+                    heapPops, decreaseKeys, nanos);
+            for (SearchListener listener : listeners) {
+                listener.searchCompleted(statistics);
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.algorithm = algorithm;
+            event.nodesSettled = nodesSettled;
+            event.edgesRelaxed = edgesRelaxed;
+            event.heapPushes = heapPushes;
+            event.heapPops = heapPops;
+            event.decreaseKeys = decreaseKeys;
+            event.commit();
+        }
+    }
+}
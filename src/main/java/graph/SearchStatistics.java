@@ -0,0 +1,72 @@
+package graph;
+
+/**
+ * The work done by one search of {@link GraphAlgorithms}, as reported to a {@link SearchListener}.
+ * <p>
+ * Nodes settled are the nodes whose edges the search scanned: every node visited by a traversal,
+ * or every node removed from the heap by Dijkstra's algorithm. Edges relaxed are the edges scanned
+ * from them. The heaps use decrease-key rather than inserting a node again, so every pop settles a
+ * node and no pop is ever stale; improvements of a queued node are counted as decrease-keys.
+ * Traversals use no heap and report zero heap operations.
+ */
+public final class SearchStatistics {
+    private final String algorithm;
+    private final int nodesSettled;
+    private final long edgesRelaxed;
+    private final long heapPushes;
+    private final long heapPops;
+    private final long decreaseKeys;
+    private final long nanos;
+
+    SearchStatistics(String algorithm, int nodesSettled, long edgesRelaxed, long heapPushes, long heapPops,
+                     long decreaseKeys, long nanos) {
+        this.algorithm = algorithm;
+        this.nodesSettled = nodesSettled;
+        this.edgesRelaxed = edgesRelaxed;
+        this.heapPushes = heapPushes;
+        this.heapPops = heapPops;
+        this.decreaseKeys = decreaseKeys;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return the name of the {@link GraphAlgorithms} method that ran the search, e.g. {@code dijkstra}
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getNodesSettled() {
+        return nodesSettled;
+    }
+
+    public long getEdgesRelaxed() {
+        return edgesRelaxed;
+    }
+
+    public long getHeapPushes() {
+        return heapPushes;
+    }
+
+    public long getHeapPops() {
+        return heapPops;
+    }
+
+    public long getDecreaseKeys() {
+        return decreaseKeys;
+    }
+
+    /**
+     * @return the wall time of the search in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + ": " + nodesSettled + " nodes settled, " + edgesRelaxed + " edges relaxed, "
+                + heapPushes + " pushes, " + heapPops + " pops, " + decreaseKeys + " decrease-keys in "
+                + nanos / 1000 + " us";
+    }
+}
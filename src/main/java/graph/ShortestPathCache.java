@@ -0,0 +1,298 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A least-recently-used cache of single-source shortest path trees in front of
+ * {@link GraphAlgorithms#shortestPathTree(Graph, Node)}.
+ * <p>
+ * The cache registers itself as a {@link GraphListener} on its graph and invalidates entries
+ * selectively: a change only evicts the trees it can actually affect. Raising the weight of an arc
+ * or removing it evicts only trees that use the arc; lowering a weight or adding an arc evicts only
+ * trees in which the arc would shorten the distance to its ending node. Added nodes are
+ * unreachable and evict nothing, and a removed node only evicts its own tree. Each entry remembers
+ * the graph version it was last validated at, and an entry whose version falls behind the graph's
+ * (a change the cache was not notified of) is recomputed rather than served.
+ * <p>
+ * The cache is bounded by entry count and by the total number of reachable nodes held across all
+ * trees, whichever is hit first. Entries are found through an array indexed by source id and kept
+ * in a linked recency list, so lookups never hash a node. Changes must go through the {@link Graph} methods; modifying an
+ * {@link Edge} directly bypasses invalidation. All methods are synchronized.
+ *
+ * @param <T> the type of the node data
+ */
+public class ShortestPathCache<T> implements GraphListener<T> {
+    private final Graph<T> graph;
+    private final GraphAlgorithms<T> algorithms;
+    private final int maxEntries;
+    private final long maxCachedNodes;
+    // Entries by source id, and a recency list from the least to the most recently used
+    private Entry<T>[] entries;
+    private Entry<T> eldest;
+    private Entry<T> newest;
+    private int size;
+
+    private long cachedNodes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructs a cache bounded by entry count only, and registers it on the graph.
+     *
+     * @param graph the graph to cache shortest paths of
+     * @param maxEntries the maximum number of cached sources
+     */
+    public ShortestPathCache(Graph<T> graph, int maxEntries) {
+        this(graph, maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a cache and registers it on the graph.
+     *
+     * @param graph the graph to cache shortest paths of
+     * @param maxEntries the maximum number of cached sources
+     * @param maxCachedNodes the maximum total number of reachable nodes held across all cached trees
+     * @throws IllegalArgumentException if graph is null or either bound is not positive
+     */
+    public ShortestPathCache(Graph<T> graph, int maxEntries, long maxCachedNodes) {
+        if (graph == null || maxEntries <= 0 || maxCachedNodes <= 0) {
+            throw new IllegalArgumentException("Invalid graph or cache bounds");
+        }
+
+        this.graph = graph;
+        this.algorithms = new GraphAlgorithms<>();
+        this.maxEntries = maxEntries;
+        this.maxCachedNodes = maxCachedNodes;
+        this.entries = newEntries(16);
+
+        graph.addGraphListener(this);
+    }
+
+    /**
+     * Returns the shortest path tree of a source node, computing and caching it if needed.
+     *
+     * @param sourceNode the source node
+     * @return the shortest path tree rooted at the source node
+     * @throws IllegalArgumentException if the source node is not part of the graph
+     * @throws NegativeWeightException - if any of the weights are negative
+     */
+    public synchronized ShortestPathTree<T> get(Node<T> sourceNode) {
+        Entry<T> entry = entryOf(sourceNode);
+
+        if (entry != null && entry.version == graph.getVersion()) {
+            hits++;
+            unlink(entry);
+            link(entry);
+            return entry.tree;
+        }
+
+        misses++;
+        if (entry != null) {
+            remove(entry);
+        }
+
+        ShortestPathTree<T> tree = algorithms.shortestPathTree(graph, sourceNode);
+        entry = new Entry<>(tree, graph.getVersion());
+        int id = sourceNode.getId();
+        if (id >= entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(id + 1, entries.length * 2));
+        }
+        entries[id] = entry;
+        link(entry);
+        size++;
+        cachedNodes += entry.size;
+        evict();
+
+        return tree;
+    }
+
+    /**
+     * Returns the shortest distance between two nodes, using the cached tree of the source.
+     *
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest distance, or {@code Double.POSITIVE_INFINITY} if the target is unreachable
+     */
+    public double distance(Node<T> sourceNode, Node<T> targetNode) {
+        return get(sourceNode).distanceTo(targetNode);
+    }
+
+    /**
+     * Returns the shortest path between two nodes, using the cached tree of the source.
+     *
+     * @param sourceNode the source node
+     * @param targetNode the target node
+     * @return the shortest path, or null if the target is unreachable
+     */
+    public Path<T> shortestPath(Node<T> sourceNode, Node<T> targetNode) {
+        return get(sourceNode).pathTo(targetNode);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Removes every cached tree.
+     */
+    public synchronized void clear() {
+        for (Entry<T> entry = eldest; entry != null; entry = entry.newer) {
+            entries[entry.tree.getSource().getId()] = null;
+        }
+        eldest = null;
+        newest = null;
+        size = 0;
+        cachedNodes = 0;
+    }
+
+    /**
+     * Clears the cache and unregisters it from the graph.
+     */
+    public synchronized void close() {
+        clear();
+        graph.removeGraphListener(this);
+    }
+
+    @Override
+    public synchronized void nodeAdded(Node<T> node) {
+        revalidate(null, null, 0.0, false);
+    }
+
+    @Override
+    public synchronized void nodeRemoved(Node<T> node) {
+        // Its arcs were removed first, evicting every tree that reached it, so only its own tree is left
+        Entry<T> entry = entryOf(node);
+        if (entry != null) {
+            remove(entry);
+        }
+        revalidate(null, null, 0.0, false);
+    }
+
+    @Override
+    public synchronized void edgeAdded(Node<T> fromNode, Node<T> toNode, double weight) {
+        revalidate(fromNode, toNode, weight, false);
+    }
+
+    @Override
+    public synchronized void edgeRemoved(Node<T> fromNode, Node<T> toNode, double weight) {
+        revalidate(fromNode, toNode, 0.0, true);
+    }
+
+    @Override
+    public synchronized void edgeWeightChanged(Node<T> fromNode, Node<T> toNode, double oldWeight, double newWeight) {
+        if (newWeight < oldWeight) {
+            revalidate(fromNode, toNode, newWeight, false);
+        } else if (newWeight > oldWeight) {
+            revalidate(fromNode, toNode, 0.0, true);
+        } else {
+            revalidate(null, null, 0.0, false);
+        }
+    }
+
+    /**
+     * Evicts every entry the arc change can affect and brings the others up to the graph version.
+     *
+     * @param fromNode the starting node of the changed arc, or null if no arc changed
+     * @param toNode the ending node of the changed arc
+     * @param weight the new weight of an arc that became shorter or was added
+     * @param lengthened true if the arc was removed or became longer
+     */
+    private void revalidate(Node<T> fromNode, Node<T> toNode, double weight, boolean lengthened) {
+        long version = graph.getVersion();
+
+        for (Entry<T> entry = eldest, next; entry != null; entry = next) {
+            next = entry.newer;
+            if (fromNode != null && isAffected(entry.tree, fromNode, toNode, weight, lengthened)) {
+                remove(entry);
+            } else if (entry.version == version - 1) {
+                entry.version = version;
+            }
+        }
+    }
+
+    private boolean isAffected(ShortestPathTree<T> tree, Node<T> fromNode, Node<T> toNode, double weight, boolean lengthened) {
+        if (lengthened) {
+            return tree.isTreeEdge(fromNode, toNode);
+        }
+        return tree.distanceTo(fromNode) + weight < tree.distanceTo(toNode);
+    }
+
+    private Entry<T> entryOf(Node<T> sourceNode) {
+        if (sourceNode == null || sourceNode.getId() >= entries.length) {
+            return null;
+        }
+
+        Entry<T> entry = entries[sourceNode.getId()];
+        return entry != null && entry.tree.getSource() == sourceNode ? entry : null;
+    }
+
+    private void remove(Entry<T> entry) {
+        entries[entry.tree.getSource().getId()] = null;
+        unlink(entry);
+        size--;
+        cachedNodes -= entry.size;
+    }
+
+    private void evict() {
+        while (size > 1 && (size > maxEntries || cachedNodes > maxCachedNodes)) {
+            remove(eldest);
+        }
+    }
+
+    /**
+     * Appends an entry to the recency list as the most recently used.
+     */
+    private void link(Entry<T> entry) {
+        entry.older = newest;
+        entry.newer = null;
+        if (newest == null) {
+            eldest = entry;
+        } else {
+            newest.newer = entry;
+        }
+        newest = entry;
+    }
+
+    private void unlink(Entry<T> entry) {
+        if (entry.older == null) {
+            eldest = entry.newer;
+        } else {
+            entry.older.newer = entry.newer;
+        }
+        if (entry.newer == null) {
+            newest = entry.older;
+        } else {
+            entry.newer.older = entry.older;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Entry<T>[] newEntries(int length) {
+        return new Entry[length];
+    }
+
+    /**
+     * A cached tree, the graph version it is known to be valid at, and its place in the recency list.
+     */
+    private static final class Entry<T> {
+        final ShortestPathTree<T> tree;
+        final int size;
+        long version;
+        Entry<T> older;
+        Entry<T> newer;
+
+        Entry(ShortestPathTree<T> tree, long version) {
+            this.tree = tree;
+            this.size = tree.reachedCount();
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a single-source shortest path search on a live graph: the distance to every
+ * reachable node and the predecessor of each node on its shortest path from the source.
+ * <p>
+ * Distances and predecessors are kept in arrays indexed by node id, together with the reachable
+ * nodes themselves, so the tree stays readable after its graph changes.
+ *
+ * @param <T> the type of the node data
+ */
+public final class ShortestPathTree<T> {
+    private final Node<T> source;
+    // By node id; null, infinity and -1 for unreachable ids
+    private final Node<T>[] nodes;
+    private final double[] distances;
+    private final int[] parents;
+    private final int reachedCount;
+    private final Map<Node<T>, Double> distancesView;
+
+    ShortestPathTree(Node<T> source, Node<T>[] nodes, double[] distances, int[] parents, int reachedCount) {
+        this.source = source;
+        this.nodes = nodes;
+        this.distances = distances;
+        this.parents = parents;
+        this.reachedCount = reachedCount;
+        this.distancesView = new DistanceMap<T>() {
+            @Override
+            int idBound() {
+                return nodes.length;
+            }
+
+            @Override
+            Node<T> nodeAt(int id) {
+                return nodes[id];
+            }
+
+            @Override
+            double distanceAt(int id) {
+                return distances[id];
+            }
+
+            @Override
+            public int size() {
+                return reachedCount;
+            }
+        };
+    }
+
+    public Node<T> getSource() {
+        return source;
+    }
+
+    /**
+     * @return a read-only map of every reachable node to its shortest distance from the source
+     */
+    public Map<Node<T>, Double> getDistances() {
+        return distancesView;
+    }
+
+    /**
+     * @return the number of nodes reachable from the source, including the source
+     */
+    public int reachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * @param node the node to look up
+     * @return the shortest distance from the source, or {@code Double.POSITIVE_INFINITY} if unreachable
+     */
+    public double distanceTo(Node<T> node) {
+        int id = idOf(node);
+        return id < 0 ? Double.POSITIVE_INFINITY : distances[id];
+    }
+
+    /**
+     * @param node the node to look up
+     * @return the node before it on its shortest path, or null for the source and unreachable nodes
+     */
+    public Node<T> predecessorOf(Node<T> node) {
+        int id = idOf(node);
+        return id < 0 || parents[id] < 0 ? null : nodes[parents[id]];
+    }
+
+    /**
+     * Checks whether an arc is part of this tree, i.e. it is the last arc of the shortest path to its ending node.
+     *
+     * @param fromNode the starting node
+     * @param toNode the ending node
+     * @return true if the arc is a tree arc
+     */
+    public boolean isTreeEdge(Node<T> fromNode, Node<T> toNode) {
+        int to = idOf(toNode);
+        return to >= 0 && fromNode != null && parents[to] == fromNode.getId() && nodes[parents[to]] == fromNode;
+    }
+
+    /**
+     * Reconstructs the shortest path from the source to a node.
+     *
+     * @param node the target node
+     * @return the shortest path, or null if the node is unreachable
+     */
+    public Path<T> pathTo(Node<T> node) {
+        int id = idOf(node);
+        if (id < 0) {
+            return null;
+        }
+
+        List<Node<T>> path = new ArrayList<>();
+        for (int current = id; current >= 0; current = parents[current]) {
+            path.add(nodes[current]);
+        }
+        Collections.reverse(path);
+        return Path.of(path, distances[id]);
+    }
+
+    /**
+     * @return the id of a node reachable in this tree, or -1 for any other node
+     */
+    private int idOf(Node<T> node) {
+        if (node == null || node.getId() >= nodes.length || nodes[node.getId()] != node) {
+            return -1;
+        }
+        return node.getId();
+    }
+}
@@ -0,0 +1,359 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A strongly connected components solver over an {@link IndexedGraph}, with a sequential and a
+ * parallel algorithm.
+ * <p>
+ * {@link #tarjan()} is Tarjan's algorithm with an explicit call stack, so its depth is bounded by
+ * memory rather than the thread stack. It touches every edge once and is the fastest choice on a
+ * single core.
+ * <p>
+ * {@link #forwardBackward()} first trims, round by round and in parallel, every node without a
+ * remaining predecessor or successor, which settles the long tails of trivial components found in
+ * real graphs. The rest is split recursively: the nodes both reachable from a pivot and reaching it
+ * form the pivot's component, and the nodes reached only forward, only backward, or not at all form
+ * three smaller partitions that cannot share a component. Partitions are processed in parallel, and
+ * the reachability searches of large partitions expand their frontiers in parallel, claiming nodes
+ * through a compare-and-set on their partition color.
+ * <p>
+ * Both return the component of every node as a dense id numbered in the order of the lowest node
+ * index of each component, so they give identical results. A solver holds no per-query state and
+ * may be shared between threads.
+ */
+public final class StronglyConnectedComponents {
+    /**
+     * Nodes per task when trimming or expanding a frontier in parallel.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Graphs with fewer nodes are solved by {@link #run()} with Tarjan's algorithm.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Color of nodes whose component is known; partitions use colors from 0
+    private static final int DONE = -1;
+
+    // Expected color that never matches, for searches that claim only one color
+    private static final int NONE = -2;
+
+    private final IndexedGraph graph;
+    private final IndexedGraph reverse;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a solver for a CSR snapshot on the common fork/join pool, using the snapshot's
+     * transpose for backward searches.
+     *
+     * @param graph the snapshot to analyze
+     */
+    public StronglyConnectedComponents(CsrGraph<?> graph) {
+        this(graph, graph.transpose(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a solver.
+     *
+     * @param graph the graph to analyze
+     * @param reverse the same graph with every edge reversed, using the same node indices
+     * @param pool the pool to run the parallel algorithm on
+     * @throws IllegalArgumentException if any argument is null or the node counts differ
+     */
+    public StronglyConnectedComponents(IndexedGraph graph, IndexedGraph reverse, ForkJoinPool pool) {
+        if (graph == null || reverse == null || pool == null || graph.nodeCount() != reverse.nodeCount()) {
+            throw new IllegalArgumentException("Invalid graph, reverse graph or pool");
+        }
+
+        this.graph = graph;
+        this.reverse = reverse;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the strongly connected components, with the parallel forward-backward algorithm for
+     * large graphs and Tarjan's algorithm for small graphs or a pool without parallelism, where the
+     * extra passes of forward-backward cannot pay off.
+     *
+     * @return the component id of every node index
+     */
+    public int[] run() {
+        return graph.nodeCount() < PARALLEL_THRESHOLD || pool.getParallelism() < 2 ? tarjan() : forwardBackward();
+    }
+
+    /**
+     * Computes the strongly connected components with an iterative Tarjan's algorithm.
+     *
+     * @return the component id of every node index; ids are dense from 0 and numbered in the
+     *         order of the lowest node index of each component
+     */
+    public int[] tarjan() {
+        int nodeCount = graph.nodeCount();
+        int[] order = new int[nodeCount]; // Discovery order from 1, 0 while unvisited
+        int[] low = new int[nodeCount];
+        int[] labels = new int[nodeCount];
+        Arrays.fill(labels, -1);
+
+        int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        int[] callNodes = new int[nodeCount];
+        int[] cursors = new int[nodeCount];
+        int counter = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (order[root] != 0) {
+                continue;
+            }
+
+            order[root] = low[root] = ++counter;
+            stack[stackSize++] = root;
+            callNodes[0] = root;
+            cursors[0] = graph.edgeStart(root);
+            int depth = 1;
+
+            while (depth > 0) {
+                int node = callNodes[depth - 1];
+                int edge = cursors[depth - 1];
+
+                if (edge < graph.edgeEnd(node)) {
+                    cursors[depth - 1] = edge + 1;
+                    int next = graph.edgeTarget(edge);
+
+                    if (order[next] == 0) {
+                        order[next] = low[next] = ++counter;
+                        stack[stackSize++] = next;
+                        callNodes[depth] = next;
+                        cursors[depth] = graph.edgeStart(next);
+                        depth++;
+                    } else if (labels[next] < 0) {
+                        // Still on the stack, so part of a component that is not finished yet
+                        low[node] = Math.min(low[node], order[next]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (low[node] == order[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        labels[member] = node;
+                    } while (member != node);
+                }
+                if (depth > 0) {
+                    int parent = callNodes[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+
+        return ConnectedComponents.compact(labels);
+    }
+
+    /**
+     * Computes the strongly connected components with the parallel forward-backward algorithm.
+     *
+     * @return the component id of every node index; ids are dense from 0 and numbered in the
+     *         order of the lowest node index of each component
+     */
+    public int[] forwardBackward() {
+        return pool.submit(this::searchParallel).join();
+    }
+
+    private int[] searchParallel() {
+        int nodeCount = graph.nodeCount();
+        AtomicIntegerArray colors = new AtomicIntegerArray(nodeCount);
+        // Any node of the component of every node, written by the task that finishes the node
+        int[] labels = new int[nodeCount];
+
+        trim(colors, labels);
+
+        AtomicInteger nextColor = new AtomicInteger(1);
+        int[] remaining = IntStream.range(0, nodeCount).parallel().filter(node -> colors.get(node) == 0).toArray();
+        List<Partition> partitions = new ArrayList<>();
+        if (remaining.length > 0) {
+            partitions.add(new Partition(0, remaining));
+        }
+
+        while (!partitions.isEmpty()) {
+            partitions = partitions.parallelStream()
+                    .flatMap(partition -> split(partition, colors, labels, nextColor).stream())
+                    .collect(Collectors.toList());
+        }
+
+        return ConnectedComponents.compact(labels);
+    }
+
+    /**
+     * Settles nodes without a predecessor or successor outside their own component as singleton
+     * components, then checks the neighbors of the settled nodes in the next round, until a round
+     * settles nothing.
+     */
+    private void trim(AtomicIntegerArray colors, int[] labels) {
+        int[] candidates = IntStream.range(0, graph.nodeCount()).toArray();
+
+        while (candidates.length > 0) {
+            int[] current = candidates;
+            candidates = IntList.concat(IntStream.range(0, chunkCount(current.length)).parallel().mapToObj(chunk -> {
+                IntList next = new IntList();
+                for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, current.length); i < end; i++) {
+                    int node = current[i];
+                    if (colors.get(node) == DONE
+                            || !(isIsolated(graph, node, colors) || isIsolated(reverse, node, colors))
+                            || !colors.compareAndSet(node, 0, DONE)) {
+                        continue;
+                    }
+
+                    labels[node] = node;
+                    addLiveNeighbors(graph, node, colors, next);
+                    addLiveNeighbors(reverse, node, colors, next);
+                }
+                return next.toArray();
+            }).toArray(int[][]::new));
+        }
+    }
+
+    /**
+     * @return true if every neighbor of the node in the given direction is itself or already settled
+     */
+    private static boolean isIsolated(IndexedGraph graph, int node, AtomicIntegerArray colors) {
+        for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+            int target = graph.edgeTarget(edge);
+            if (target != node && colors.get(target) != DONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addLiveNeighbors(IndexedGraph graph, int node, AtomicIntegerArray colors, IntList list) {
+        for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+            int target = graph.edgeTarget(edge);
+            if (colors.get(target) != DONE) {
+                list.add(target);
+            }
+        }
+    }
+
+    /**
+     * Settles the component of the first node of a partition and splits the rest of it.
+     *
+     * @return the non-empty partitions left to split
+     */
+    private List<Partition> split(Partition partition, AtomicIntegerArray colors, int[] labels, AtomicInteger nextColor) {
+        int pivot = partition.nodes[0];
+        int forwardColor = nextColor.getAndAdd(2);
+        int backwardColor = forwardColor + 1;
+
+        int[] forward = reach(graph, pivot, partition.color, forwardColor, NONE, NONE, colors);
+        // Forward nodes reached again backward form the component; the others are backward only
+        int[] backward = reach(reverse, pivot, forwardColor, DONE, partition.color, backwardColor, colors);
+
+        IntList backwardOnly = new IntList();
+        for (int node : backward) {
+            if (colors.get(node) == DONE) {
+                labels[node] = pivot;
+            } else {
+                backwardOnly.add(node);
+            }
+        }
+
+        List<Partition> result = new ArrayList<>(3);
+        addPartition(result, forwardColor, forward, colors);
+        addPartition(result, backwardColor, backwardOnly.toArray(), colors);
+        addPartition(result, partition.color, partition.nodes, colors);
+        return result;
+    }
+
+    private static void addPartition(List<Partition> partitions, int color, int[] candidates, AtomicIntegerArray colors) {
+        IntList nodes = new IntList();
+        for (int node : candidates) {
+            if (colors.get(node) == color) {
+                nodes.add(node);
+            }
+        }
+
+        if (nodes.size > 0) {
+            partitions.add(new Partition(color, nodes.toArray()));
+        }
+    }
+
+    /**
+     * Claims every node reachable from the source through nodes of the expected colors, recoloring
+     * each node of {@code fromA} to {@code toA} and of {@code fromB} to {@code toB}.
+     *
+     * @return the claimed nodes, starting with the source
+     */
+    private int[] reach(IndexedGraph graph, int source, int fromA, int toA, int fromB, int toB,
+                        AtomicIntegerArray colors) {
+        if (!claim(colors, source, fromA, toA, fromB, toB)) {
+            return new int[0];
+        }
+
+        IntList reached = new IntList();
+        reached.add(source);
+        int[] frontier = {source};
+
+        while (frontier.length > 0) {
+            int[] current = frontier;
+            if (current.length <= CHUNK_SIZE) {
+                frontier = expand(graph, current, 0, current.length, fromA, toA, fromB, toB, colors);
+            } else {
+                frontier = IntList.concat(IntStream.range(0, chunkCount(current.length)).parallel()
+                        .mapToObj(chunk -> expand(graph, current, chunk * CHUNK_SIZE,
+                                Math.min((chunk + 1) * CHUNK_SIZE, current.length), fromA, toA, fromB, toB, colors))
+                        .toArray(int[][]::new));
+            }
+
+            for (int node : frontier) {
+                reached.add(node);
+            }
+        }
+
+        return reached.toArray();
+    }
+
+    private static int[] expand(IndexedGraph graph, int[] nodes, int from, int to,
+                                int fromA, int toA, int fromB, int toB, AtomicIntegerArray colors) {
+        IntList next = new IntList();
+        for (int i = from; i < to; i++) {
+            int node = nodes[i];
+            for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                int target = graph.edgeTarget(edge);
+                if (claim(colors, target, fromA, toA, fromB, toB)) {
+                    next.add(target);
+                }
+            }
+        }
+        return next.toArray();
+    }
+
+    private static boolean claim(AtomicIntegerArray colors, int node, int fromA, int toA, int fromB, int toB) {
+        return colors.compareAndSet(node, fromA, toA) || colors.compareAndSet(node, fromB, toB);
+    }
+
+    private static int chunkCount(int size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * A set of unsettled nodes sharing a color, any component of which lies entirely inside it.
+     */
+    private static final class Partition {
+        final int color;
+        final int[] nodes;
+
+        Partition(int color, int[] nodes) {
+            this.color = color;
+            this.nodes = nodes;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy breadth-first or depth-first traversal of a graph.
+ * <p>
+ * Unlike {@link GraphAlgorithms#bfs(Node)} and {@link GraphAlgorithms#dfs(Node)}, which walk the
+ * whole component before returning, a traversal only expands a node when the consumer asks for
+ * the node after it. Stopping early, by abandoning an {@link #iterator()}, short-circuiting a
+ * {@link #stream()} or returning {@link TraversalAction#STOP} from a visitor, leaves the rest of
+ * the graph untouched. Visit orders match {@code bfs} and {@code dfs}.
+ * <p>
+ * The traversal can be limited to a maximum depth, to nodes accepted by a node predicate, and to
+ * edges accepted by an edge predicate. A rejected node is neither visited nor traversed through;
+ * if the start node is rejected the traversal is empty. A traversal can be run any number of
+ * times, but the graph must not be changed while a run is in progress.
+ *
+ * <pre>{@code
+ * List<Node<String>> nearby = Traversal.breadthFirst(start)
+ *         .maxDepth(3)
+ *         .stream()
+ *         .collect(Collectors.toList());
+ * }</pre>
+ *
+ * @param <T> the type of the node data
+ */
+public final class Traversal<T> {
+    private final Node<T> startNode;
+    private final boolean depthFirst;
+    private int maxDepth = Integer.MAX_VALUE;
+    private Predicate<? super Node<T>> nodeFilter = node -> true;
+    private Predicate<? super Edge<T>> edgeFilter = edge -> true;
+
+    private Traversal(Node<T> startNode, boolean depthFirst) {
+        if (startNode == null) {
+            throw new IllegalArgumentException("Start node cannot be null");
+        }
+
+        this.startNode = startNode;
+        this.depthFirst = depthFirst;
+    }
+
+    /**
+     * @param startNode the starting node
+     * @return a traversal visiting nodes in BFS order
+     * @throws IllegalArgumentException if the start node is null
+     */
+    public static <T> Traversal<T> breadthFirst(Node<T> startNode) {
+        return new Traversal<>(startNode, false);
+    }
+
+    /**
+     * @param startNode the starting node
+     * @return a traversal visiting nodes in DFS order
+     * @throws IllegalArgumentException if the start node is null
+     */
+    public static <T> Traversal<T> depthFirst(Node<T> startNode) {
+        return new Traversal<>(startNode, true);
+    }
+
+    /**
+     * Limits the traversal to nodes at most the given number of hops from the start node.
+     *
+     * @param maxDepth the maximum depth; 0 visits the start node only
+     * @return this traversal
+     * @throws IllegalArgumentException if maxDepth is negative
+     */
+    public Traversal<T> maxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative");
+        }
+
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Limits the traversal to nodes accepted by the predicate.
+     *
+     * @param nodeFilter the predicate
+     * @return this traversal
+     * @throws IllegalArgumentException if nodeFilter is null
+     */
+    public Traversal<T> nodeFilter(Predicate<? super Node<T>> nodeFilter) {
+        if (nodeFilter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+
+        this.nodeFilter = nodeFilter;
+        return this;
+    }
+
+    /**
+     * Limits the traversal to edges accepted by the predicate.
+     *
+     * @param edgeFilter the predicate
+     * @return this traversal
+     * @throws IllegalArgumentException if edgeFilter is null
+     */
+    public Traversal<T> edgeFilter(Predicate<? super Edge<T>> edgeFilter) {
+        if (edgeFilter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+
+        this.edgeFilter = edgeFilter;
+        return this;
+    }
+
+    /**
+     * @return a lazy iterator over the visited nodes
+     */
+    public Iterator<Node<T>> iterator() {
+        return new Run();
+    }
+
+    /**
+     * @return a lazy, sequential stream of the visited nodes
+     */
+    public Stream<Node<T>> stream() {
+        Spliterator<Node<T>> spliterator = Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Runs the traversal, letting the visitor decide after each node whether to expand it, skip
+     * its neighbours or stop.
+     *
+     * @param visitor the callback invoked for every visited node
+     * @return the node the visitor stopped at, or null if the traversal ran to completion
+     * @throws IllegalArgumentException if visitor is null
+     */
+    public Node<T> visit(TraversalVisitor<T> visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null");
+        }
+
+        Run run = new Run();
+        while (run.hasNext()) {
+            Node<T> node = run.next();
+            TraversalAction action = visitor.visit(node, run.currentDepth);
+
+            if (action == TraversalAction.STOP) {
+                return node;
+            }
+            if (action == TraversalAction.PRUNE) {
+                run.prune();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param predicate the condition to look for
+     * @return the first visited node matching the predicate, or null if there is none
+     */
+    public Node<T> findFirst(Predicate<? super Node<T>> predicate) {
+        return visit((node, depth) -> predicate.test(node) ? TraversalAction.STOP : TraversalAction.CONTINUE);
+    }
+
+    /**
+     * One pass over the graph. The last returned node is only expanded when the next one is needed.
+     * <p>
+     * Nodes are marked when they are queued, so each is visited once. Under a depth limit, a
+     * depth-first pass can queue a node on a long path before it finds a shorter one, so it also
+     * records the smallest depth each node was queued at and expands a node again, without
+     * visiting it twice, when a shorter path reaches it.
+     */
+    private final class Run implements Iterator<Node<T>> {
+        // A stack for DFS and a queue for BFS, with the depth of each node in the parallel array
+        private Node<T>[] nodes = newNodes(16);
+        private int[] depths = new int[16];
+        private int head;
+        private int tail;
+        private final BitSet visited = new BitSet(); // Keyed by node id
+
+        // Only used by a depth-first pass with a depth limit; keyed by node id, with depths stored plus one
+        private final boolean limited = depthFirst && maxDepth != Integer.MAX_VALUE;
+        private int[] minDepths = new int[0];
+        private final BitSet returned = new BitSet();
+        private final BitSet pruned = new BitSet();
+
+        private Node<T> current;
+        private int currentDepth;
+
+        Run() {
+            if (nodeFilter.test(startNode)) {
+                visited.set(startNode.getId());
+                push(startNode, 0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            expandCurrent();
+            skipExpanded();
+            return head < tail;
+        }
+
+        @Override
+        public Node<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int index = depthFirst ? --tail : head++;
+            current = nodes[index];
+            currentDepth = depths[index];
+            nodes[index] = null;
+            if (limited) {
+                returned.set(current.getId());
+            }
+            return current;
+        }
+
+        /**
+         * Stops the last returned node from being expanded, now or on a shorter path later.
+         */
+        void prune() {
+            if (limited) {
+                pruned.set(current.getId());
+            }
+            current = null;
+        }
+
+        private void expandCurrent() {
+            if (current == null) {
+                return;
+            }
+
+            Node<T> node = current;
+            current = null;
+            expand(node, currentDepth);
+        }
+
+        private void expand(Node<T> node, int depth) {
+            if (depth >= maxDepth) {
+                return;
+            }
+
+            for (Edge<T> edge : node.getEdges()) {
+                Node<T> neighbour = edge.getToNode();
+                int id = neighbour.getId();
+
+                if (!visited.get(id)) {
+                    if (edgeFilter.test(edge) && nodeFilter.test(neighbour)) {
+                        visited.set(id);
+                        push(neighbour, depth + 1);
+                    }
+                } else if (limited && depth + 1 < minDepths[id] - 1 && edgeFilter.test(edge)) {
+                    push(neighbour, depth + 1);
+                }
+            }
+        }
+
+        /**
+         * Drops queued entries that a shorter path has overtaken, and expands nodes that were
+         * already returned and are queued again on a shorter path, until the next entry is a node
+         * to return.
+         */
+        private void skipExpanded() {
+            while (limited && head < tail) {
+                Node<T> node = nodes[tail - 1];
+                int depth = depths[tail - 1];
+                int id = node.getId();
+
+                if (depth == minDepths[id] - 1 && !returned.get(id)) {
+                    return;
+                }
+
+                nodes[--tail] = null;
+                if (depth == minDepths[id] - 1 && !pruned.get(id)) {
+                    expand(node, depth);
+                }
+            }
+        }
+
+        private void push(Node<T> node, int depth) {
+            if (tail == nodes.length) {
+                // A queue reclaims the space before its head; a stack never has any
+                int size = tail - head;
+                if (size < nodes.length / 2) {
+                    System.arraycopy(nodes, head, nodes, 0, size);
+                    System.arraycopy(depths, head, depths, 0, size);
+                    Arrays.fill(nodes, size, tail, null);
+                } else {
+                    nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                    depths = Arrays.copyOf(depths, depths.length * 2);
+                    System.arraycopy(nodes, head, nodes, 0, size);
+                    System.arraycopy(depths, head, depths, 0, size);
+                }
+                head = 0;
+                tail = size;
+            }
+
+            nodes[tail] = node;
+            depths[tail] = depth;
+            tail++;
+
+            if (limited) {
+                int id = node.getId();
+                if (id >= minDepths.length) {
+                    minDepths = Arrays.copyOf(minDepths, Math.max(id + 1, minDepths.length * 2));
+                }
+                minDepths[id] = depth + 1;
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Node<T>[] newNodes(int length) {
+        return new Node[length];
+    }
+}
@@ -0,0 +1,21 @@
+package graph;
+
+/**
+ * Tells a {@link Traversal} how to continue after a node has been visited.
+ */
+public enum TraversalAction {
+    /**
+     * Keep going and expand the node's neighbours.
+     */
+    CONTINUE,
+
+    /**
+     * Keep going, but do not expand the node's neighbours.
+     */
+    PRUNE,
+
+    /**
+     * End the traversal immediately.
+     */
+    STOP
+}
@@ -0,0 +1,239 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch state for traversals and shortest path searches over an {@link IndexedGraph}.
+ * <p>
+ * A context holds pre-sized node buffers, distance and parent arrays and a heap, all keyed by
+ * node index: the index of a snapshot node, or the {@link Node#getId() id} of a live one.
+ * Instead of clearing them between queries, every query starts a new epoch: a node counts as
+ * visited or reached only if its stamp equals the current epoch, so resetting the context costs
+ * O(1) regardless of how much of the graph the previous query touched. Arrays only grow, so once
+ * a context has seen the largest graph it is used on, queries allocate nothing.
+ * <p>
+ * The results of the last query stay readable until the next one starts. A context is not
+ * thread-safe; {@link #current()} hands out one per thread. Because queries share the per-thread
+ * context, a query must not be started from inside another one that uses it.
+ *
+ * @see GraphAlgorithms#bfs(IndexedGraph, int, TraversalContext)
+ * @see GraphAlgorithms#dfs(IndexedGraph, int, TraversalContext)
+ * @see GraphAlgorithms#dijkstra(IndexedGraph, int, TraversalContext)
+ */
+public final class TraversalContext {
+    private static final ThreadLocal<TraversalContext> CURRENT = ThreadLocal.withInitial(TraversalContext::new);
+
+    // Nodes whose visited stamp equals the epoch were visited (or, for Dijkstra, settled) by the
+    // current query; nodes whose reached stamp equals the epoch have a distance and a parent
+    int[] visitedStamps;
+    int[] reachedStamps;
+    double[] distances;
+    int[] parents;
+
+    // The visit order, used directly as the BFS queue
+    int[] order;
+    int orderSize;
+
+    // The DFS stack
+    int[] stack;
+
+    // The DFS stack of a search over live nodes without a graph to look them up in by id;
+    // popped slots are cleared so the context does not keep nodes alive
+    private Node<?>[] nodeStack = new Node<?>[0];
+    private int nodeStackSize;
+
+    private IndexedDaryHeap heap;
+
+    // Starts at 0, which no query uses, so that zeroed stamps never count as current
+    private int epoch;
+
+    /**
+     * Constructs an empty context that grows on first use.
+     */
+    public TraversalContext() {
+        this(0);
+    }
+
+    /**
+     * Constructs a context pre-sized for graphs of up to the given number of nodes.
+     *
+     * @param capacity the number of nodes
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public TraversalContext(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        this.visitedStamps = new int[capacity];
+        this.reachedStamps = new int[capacity];
+        this.distances = new double[capacity];
+        this.parents = new int[capacity];
+        this.order = new int[capacity];
+        this.stack = new int[capacity];
+    }
+
+    /**
+     * @return the context of the calling thread
+     */
+    public static TraversalContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the number of nodes the context can hold without growing
+     */
+    public int capacity() {
+        return order.length;
+    }
+
+    /**
+     * @return the number of nodes visited by the last query, in the order returned by {@link #visited(int)}
+     */
+    public int visitedCount() {
+        return orderSize;
+    }
+
+    /**
+     * @param i an index in {@code [0, visitedCount())}
+     * @return the i-th node visited by the last query
+     */
+    public int visited(int i) {
+        if (i < 0 || i >= orderSize) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", visited: " + orderSize);
+        }
+        return order[i];
+    }
+
+    /**
+     * @param node the node index
+     * @return true if the last query visited the node; for Dijkstra, true if it settled the node
+     */
+    public boolean isVisited(int node) {
+        return epoch != 0 && node < visitedStamps.length && visitedStamps[node] == epoch;
+    }
+
+    /**
+     * @param node the node index
+     * @return the distance the last query found to the node, {@code Double.POSITIVE_INFINITY} if
+     *         not reached; for BFS and DFS this is the depth in the traversal tree
+     */
+    public double distance(int node) {
+        return isReached(node) ? distances[node] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param node the node index
+     * @return the node the last query reached this node from, or -1 for the source and unreached nodes
+     */
+    public int parent(int node) {
+        return isReached(node) ? parents[node] : -1;
+    }
+
+    /**
+     * Starts a new query on a graph of the given size, growing the arrays if needed.
+     */
+    void reset(int nodeCount) {
+        ensureCapacity(nodeCount);
+
+        if (epoch == Integer.MAX_VALUE) {
+            // Stamps from 2^31 queries ago would otherwise look current after wrapping around
+            Arrays.fill(visitedStamps, 0);
+            Arrays.fill(reachedStamps, 0);
+            epoch = 0;
+        }
+        epoch++;
+        orderSize = 0;
+
+        // Only left over if the previous query failed midway
+        Arrays.fill(nodeStack, 0, nodeStackSize, null);
+        nodeStackSize = 0;
+    }
+
+    /**
+     * Grows the arrays to hold the given number of nodes, keeping the state of the current query.
+     */
+    void ensureCapacity(int nodeCount) {
+        if (nodeCount > order.length) {
+            int capacity = Math.max(nodeCount, order.length + (order.length >> 1));
+            visitedStamps = Arrays.copyOf(visitedStamps, capacity);
+            reachedStamps = Arrays.copyOf(reachedStamps, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            order = Arrays.copyOf(order, capacity);
+            stack = Arrays.copyOf(stack, capacity);
+        }
+    }
+
+    /**
+     * @return the heap, emptied and large enough for the current graph
+     */
+    IndexedDaryHeap heap() {
+        if (heap == null || heap.capacity() < order.length) {
+            heap = new IndexedDaryHeap(order.length);
+        } else {
+            heap.clear();
+        }
+        return heap;
+    }
+
+    /**
+     * Marks a node as visited by the current query.
+     *
+     * @return true if the node was not visited yet
+     */
+    boolean visit(int node) {
+        if (visitedStamps[node] == epoch) {
+            return false;
+        }
+        visitedStamps[node] = epoch;
+        return true;
+    }
+
+    /**
+     * Marks a node as visited by the current query, growing the arrays if the node lies beyond them.
+     * For traversals that do not know the size of the graph up front.
+     *
+     * @return true if the node was not visited yet
+     */
+    boolean mark(int node) {
+        if (node >= visitedStamps.length) {
+            ensureCapacity(node + 1);
+        }
+        return visit(node);
+    }
+
+    void pushNode(Node<?> node) {
+        if (nodeStackSize == nodeStack.length) {
+            nodeStack = Arrays.copyOf(nodeStack, Math.max(16, nodeStackSize * 2));
+        }
+        nodeStack[nodeStackSize++] = node;
+    }
+
+    /**
+     * @return the node on top of the node stack, which the caller pushed with the same type
+     */
+    @SuppressWarnings("unchecked")
+    <T> Node<T> popNode() {
+        Node<?> node = nodeStack[--nodeStackSize];
+        nodeStack[nodeStackSize] = null;
+        return (Node<T>) node;
+    }
+
+    boolean hasNodes() {
+        return nodeStackSize > 0;
+    }
+
+    boolean isReached(int node) {
+        return epoch != 0 && node < reachedStamps.length && reachedStamps[node] == epoch;
+    }
+
+    /**
+     * Records a distance and parent for a node in the current query.
+     */
+    void reach(int node, double distance, int parent) {
+        reachedStamps[node] = epoch;
+        distances[node] = distance;
+        parents[node] = parent;
+    }
+}
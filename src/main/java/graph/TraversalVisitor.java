@@ -0,0 +1,17 @@
+package graph;
+
+/**
+ * A callback invoked by {@link Traversal#visit(TraversalVisitor)} for every visited node.
+ *
+ * @param <T> the type of the node data
+ */
+@FunctionalInterface
+public interface TraversalVisitor<T> {
+
+    /**
+     * @param node the visited node
+     * @param depth the number of hops from the start node along the traversal tree
+     * @return how the traversal should continue
+     */
+    TraversalAction visit(Node<T> node, int depth);
+}
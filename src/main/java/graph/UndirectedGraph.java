@@ -4,26 +4,48 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Represents an undirected graph.
+ * Represents an undirected graph. Every edge is a single record shared by its two endpoints, each
+ * of which sees it oriented away from itself in {@link Node#getEdges()}. Removed nodes leave a gap
+ * in the ids, which are never reused.
  *
  * @param <T> the type of the node data
  */
 public class UndirectedGraph<T> implements Graph<T> {
-    private final List<Node<T>> nodes;
+    // Nodes by id, with tombstones for removed nodes; also the read-only list of the live nodes
+    private final NodeList<T> nodes;
+
+    private final GraphListenerSupport<T> listeners;
 
     public UndirectedGraph() {
-        this.nodes = new ArrayList<>();
+        this.nodes = new NodeList<>();
+        this.listeners = new GraphListenerSupport<>();
     }
 
     @Override
     public List<Node<T>> getNodes() {
-        return new ArrayList<>(nodes); // Return a copy to prevent external modification
+        return nodes;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    @Override
+    public Node<T> getNode(int id) {
+        return nodes.byId(id);
+    }
+
+    @Override
+    public int getIdBound() {
+        return nodes.idBound();
     }
 
     @Override
     public Node<T> addNode(T data) {
-        Node<T> node = new Node<>(data);
-        nodes.add(node);
+        Node<T> node = new Node<>(data, nodes.idBound());
+        nodes.append(node);
+        listeners.nodeAdded(node);
         return node;
     }
 
@@ -33,23 +55,75 @@ public class UndirectedGraph<T> implements Graph<T> {
             throw new IllegalArgumentException("Node data cannot be null");
         }
 
-        Node<T> node = new Node<>(data, name);
-        nodes.add(node);
+        Node<T> node = new Node<>(data, name, nodes.idBound());
+        nodes.append(node);
+        listeners.nodeAdded(node);
         return node;
     }
 
+    /**
+     * Removes a node together with its edges. Every removed edge is reported to the listeners as
+     * if it had been disconnected, before the node removal itself. Each edge is a record shared
+     * with the other endpoint, which drops it in O(1), so removal costs O(degree). The ids of the
+     * other nodes do not change, and the id of the removed node is not reused.
+     *
+     * @param node the node to remove
+     * @throws IllegalArgumentException if node is null or not part of the graph
+     */
+    public void removeNode(Node<T> node) {
+        if (node == null || !containsNode(node)) {
+            throw new IllegalArgumentException("Node must be part of the graph");
+        }
+
+        // Copied first, as the removals change the list
+        for (Edge<T> edge : new ArrayList<>(node.getEdges())) {
+            disconnect(node, edge.getToNode());
+        }
+
+        nodes.remove(node);
+        listeners.nodeRemoved(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if either node is not part of the graph, the nodes are
+     *                                  already connected, or the edge is a self-loop
+     */
     @Override
     public void connect(Node<T> node1, Node<T> node2, double weight) {
         validateNodesInGraph(node1, node2);
-        node1.connect(node2, weight);
-        node2.connect(node1, weight);
+
+        if (node1 == node2) {
+            throw new IllegalArgumentException("Undirected graphs cannot have self-loops: " + node1.getData());
+        }
+
+        node1.connectBoth(node2, weight);
+        listeners.edgeAdded(node1, node2, weight);
+        listeners.edgeAdded(node2, node1, weight);
     }
 
     @Override
     public void disconnect(Node<T> node1, Node<T> node2) {
         validateNodesInGraph(node1, node2);
-        node1.disconnect(node2);
-        node2.disconnect(node1);
+        double weight = node1.disconnectBoth(node2);
+        listeners.edgeRemoved(node1, node2, weight);
+        listeners.edgeRemoved(node2, node1, weight);
+    }
+
+    @Override
+    public long getVersion() {
+        return listeners.getVersion();
+    }
+
+    @Override
+    public void addGraphListener(GraphListener<T> listener) {
+        listeners.addListener(listener);
+    }
+
+    @Override
+    public void removeGraphListener(GraphListener<T> listener) {
+        listeners.removeListener(listener);
     }
 
     @Override
@@ -58,7 +132,7 @@ public class UndirectedGraph<T> implements Graph<T> {
             throw new IllegalArgumentException("Node and new data cannot be null");
         }
 
-        if (!nodes.contains(node)) {
+        if (!containsNode(node)) {
             throw new IllegalArgumentException("Node must be part of the graph");
         }
 
@@ -69,25 +143,16 @@ public class UndirectedGraph<T> implements Graph<T> {
     public void updateEdgeWeight(Node<T> node1, Node<T> node2, double newWeight) {
         validateNodesInGraph(node1, node2);
 
-        boolean edgeFound = false;
-        for (Edge<T> edge : node1.getEdges()) {
-            if (edge.getToNode().equals(node2)) {
-                edge.setWeight(newWeight);
-                edgeFound = true;
-                break;
-            }
-        }
-
-        if (!edgeFound) {
+        Edge<T> edge = node1.getEdgeTo(node2);
+        if (edge == null) {
             throw new IllegalArgumentException("Edge does not exist");
         }
 
-        for (Edge<T> edge : node2.getEdges()) {
-            if (edge.getToNode().equals(node1)) {
-                edge.setWeight(newWeight);
-                break;
-            }
-        }
+        // Both nodes hold the same edge record, so one write updates both directions
+        double oldWeight = edge.getWeight();
+        edge.setWeight(newWeight);
+        listeners.edgeWeightChanged(node1, node2, oldWeight, newWeight);
+        listeners.edgeWeightChanged(node2, node1, oldWeight, newWeight);
     }
 
     /**
@@ -102,7 +167,7 @@ public class UndirectedGraph<T> implements Graph<T> {
             throw new IllegalArgumentException("Nodes cannot be null");
         }
 
-        if (!nodes.contains(node1) || !nodes.contains(node2)) {
+        if (!containsNode(node1) || !containsNode(node2)) {
             throw new IllegalArgumentException("Both nodes must be part of the graph");
         }
     }
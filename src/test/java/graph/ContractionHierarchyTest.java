@@ -0,0 +1,96 @@
+package graph;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks contraction hierarchy queries against Dijkstra's algorithm on the live graph.
+ */
+class ContractionHierarchyTest {
+    private static final double EPSILON = 1e-9;
+
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void distancesMatchDijkstra(boolean directed) {
+        Graph<Integer> graph = CsrGraphTest.randomGraph(directed, 3);
+        ContractionHierarchy<Integer> hierarchy = ContractionHierarchy.build(graph.freeze());
+
+        Random random = new Random(3);
+        for (int query = 0; query < 20; query++) {
+            Node<Integer> sourceNode = graph.getNode(random.nextInt(graph.getNodes().size()));
+            Map<Node<Integer>, Double> expected = algorithms.dijkstra(graph, sourceNode);
+
+            for (Node<Integer> targetNode : graph.getNodes()) {
+                assertEquals(expected.get(targetNode), hierarchy.distance(sourceNode, targetNode), EPSILON);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void pathsAreShortestAndUnpacked(boolean directed) {
+        Graph<Integer> graph = CsrGraphTest.randomGraph(directed, 4);
+        ContractionHierarchy<Integer> hierarchy = ContractionHierarchy.build(graph.freeze());
+
+        Random random = new Random(4);
+        for (int query = 0; query < 200; query++) {
+            Node<Integer> sourceNode = graph.getNode(random.nextInt(graph.getNodes().size()));
+            Node<Integer> targetNode = graph.getNode(random.nextInt(graph.getNodes().size()));
+            Path<Integer> expected = algorithms.shortestPath(graph, sourceNode, targetNode);
+            Path<Integer> path = hierarchy.shortestPath(sourceNode, targetNode);
+
+            if (expected == null) {
+                assertNull(path);
+                continue;
+            }
+
+            assertEquals(expected.getWeight(), path.getWeight(), EPSILON);
+            assertPathFollowsEdges(graph, path);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void gridDistancesMatchDijkstra(boolean directed) {
+        GraphGenerator generator = GraphGenerator.grid(30, 30).seed(5).weights(1.0, 5.0);
+        Graph<Integer> graph = directed ? generator.directed() : generator.undirected();
+        ContractionHierarchy<Integer> hierarchy = ContractionHierarchy.build(graph.freeze());
+
+        for (int source = 0; source < graph.getNodes().size(); source += 97) {
+            Node<Integer> sourceNode = graph.getNode(source);
+            Map<Node<Integer>, Double> expected = algorithms.dijkstra(graph, sourceNode);
+
+            for (Node<Integer> targetNode : graph.getNodes()) {
+                assertEquals(expected.get(targetNode), hierarchy.distance(sourceNode, targetNode), EPSILON);
+            }
+        }
+    }
+
+    private static void assertPathFollowsEdges(Graph<Integer> graph, Path<Integer> path) {
+        List<Node<Integer>> nodes = path.getNodes();
+        List<Edge<Integer>> edges = path.getEdges();
+        assertEquals(nodes.size() - 1, edges.size());
+
+        double weight = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            Edge<Integer> edge = edges.get(i);
+            assertSame(nodes.get(i), edge.getFromNode());
+            assertSame(nodes.get(i + 1), edge.getToNode());
+            assertEquals(graph.getEdges(nodes.get(i)).stream()
+                    .filter(e -> e.getToNode() == edge.getToNode())
+                    .findFirst().orElseThrow().getWeight(), edge.getWeight());
+            weight += edge.getWeight();
+        }
+        assertEquals(path.getWeight(), weight, EPSILON);
+    }
+}
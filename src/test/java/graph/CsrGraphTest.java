@@ -0,0 +1,81 @@
+package graph;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks searches on CSR snapshots against the same searches on the live graph.
+ */
+class CsrGraphTest {
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void dijkstraMatchesLiveGraph(boolean directed) {
+        Graph<Integer> graph = randomGraph(directed, 1);
+        CsrGraph<Integer> csr = graph.freeze();
+
+        for (int source = 0; source < 20; source++) {
+            Node<Integer> sourceNode = graph.getNode(source);
+            Map<Node<Integer>, Double> expected = algorithms.dijkstra(graph, sourceNode);
+
+            assertEquals(expected, algorithms.dijkstra(csr, sourceNode));
+
+            double[] distances = algorithms.dijkstra(csr, csr.indexOf(sourceNode));
+            for (int i = 0; i < csr.nodeCount(); i++) {
+                assertEquals(expected.get(csr.getNode(i)), distances[i]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void bfsMatchesLiveGraph(boolean directed) {
+        Graph<Integer> graph = randomGraph(directed, 2);
+        CsrGraph<Integer> csr = graph.freeze();
+
+        for (int source = 0; source < 20; source++) {
+            Node<Integer> sourceNode = graph.getNode(source);
+            List<Node<Integer>> expected = algorithms.bfs(graph, sourceNode);
+
+            assertEquals(expected, algorithms.bfs(csr, sourceNode));
+
+            int[] order = algorithms.bfs(csr, csr.indexOf(sourceNode));
+            assertEquals(expected.size(), order.length);
+            for (int i = 0; i < order.length; i++) {
+                assertEquals(expected.get(i), csr.getNode(order[i]));
+            }
+        }
+    }
+
+    /**
+     * Builds a random graph, then removes and reweights some of its edges so that the snapshot
+     * is taken of a graph that has changed since it was built.
+     */
+    static Graph<Integer> randomGraph(boolean directed, long seed) {
+        GraphGenerator generator = GraphGenerator.erdosRenyi(500, 0.01).seed(seed).weights(1.0, 10.0);
+        Graph<Integer> graph = directed ? generator.directed() : generator.undirected();
+
+        Random random = new Random(seed);
+        for (Node<Integer> node : graph.getNodes()) {
+            List<Edge<Integer>> edges = graph.getEdges(node);
+            if (edges.isEmpty()) {
+                continue;
+            }
+
+            Node<Integer> toNode = edges.get(random.nextInt(edges.size())).getToNode();
+            if (random.nextBoolean()) {
+                graph.disconnect(node, toNode);
+            } else {
+                graph.updateEdgeWeight(node, toNode, 1.0 + 9.0 * random.nextDouble());
+            }
+        }
+        return graph;
+    }
+}
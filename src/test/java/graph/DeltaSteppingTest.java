@@ -0,0 +1,65 @@
+package graph;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks delta-stepping against Dijkstra's algorithm for bucket widths below, near and above
+ * the edge weights.
+ */
+class DeltaSteppingTest {
+    private static final double EPSILON = 1e-9;
+
+    private static ForkJoinPool pool;
+
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.25, 2.0, 100.0})
+    void distancesMatchDijkstra(double delta) {
+        for (boolean directed : new boolean[] {true, false}) {
+            CsrGraph<Integer> csr = CsrGraphTest.randomGraph(directed, 6).freeze();
+            DeltaStepping solver = new DeltaStepping(csr, delta, pool);
+
+            for (int source = 0; source < csr.nodeCount(); source += 50) {
+                assertArrayEquals(algorithms.dijkstra(csr, source), solver.run(source), EPSILON);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void defaultDeltaMatchesDijkstra(boolean directed) {
+        Graph<Integer> graph = CsrGraphTest.randomGraph(directed, 7);
+        CsrGraph<Integer> csr = graph.freeze();
+
+        for (int source = 0; source < 10; source++) {
+            Node<Integer> sourceNode = graph.getNode(source);
+            Map<Node<Integer>, Double> expected = algorithms.dijkstra(graph, sourceNode);
+            Map<Node<Integer>, Double> distances = algorithms.deltaStepping(csr, sourceNode);
+
+            assertEquals(expected.size(), distances.size());
+            for (Map.Entry<Node<Integer>, Double> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), distances.get(entry.getKey()), EPSILON);
+            }
+        }
+    }
+}
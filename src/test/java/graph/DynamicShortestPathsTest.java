@@ -0,0 +1,68 @@
+package graph;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the repaired shortest path tree against Dijkstra's algorithm after every change.
+ */
+class DynamicShortestPathsTest {
+    private static final double EPSILON = 1e-9;
+
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void distancesMatchDijkstraAcrossChanges(boolean directed) {
+        Graph<Integer> graph = CsrGraphTest.randomGraph(directed, 10);
+        assertRepairsMatchDijkstra(graph, new Random(10));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void concurrentGraphDistancesMatchDijkstra(boolean directed) {
+        ConcurrentGraph<Integer> graph = directed ? ConcurrentGraph.directed() : ConcurrentGraph.undirected();
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < 600; i++) {
+            GraphChanges.applyRandomChange(graph, random);
+        }
+
+        assertRepairsMatchDijkstra(graph, random);
+    }
+
+    private void assertRepairsMatchDijkstra(Graph<Integer> graph, Random random) {
+        Node<Integer> sourceNode = graph.getNode(0);
+        DynamicShortestPaths<Integer> paths = new DynamicShortestPaths<>(graph, sourceNode);
+
+        for (int step = 0; step < 500; step++) {
+            if (step % 100 == 99) {
+                graph.addNode(graph.getNodes().size());
+            }
+            GraphChanges.applyRandomChange(graph, random);
+
+            Map<Node<Integer>, Double> expected = algorithms.dijkstra(graph, sourceNode);
+            for (Node<Integer> node : graph.getNodes()) {
+                double distance = paths.distanceTo(node);
+                assertEquals(expected.get(node), distance, EPSILON);
+
+                Node<Integer> predecessor = paths.predecessorOf(node);
+                if (node == sourceNode || distance == Double.POSITIVE_INFINITY) {
+                    assertNull(predecessor);
+                } else {
+                    double weight = predecessor.getEdgeTo(node).getWeight();
+                    assertEquals(distance, paths.distanceTo(predecessor) + weight, EPSILON);
+                }
+            }
+        }
+        paths.close();
+    }
+}
@@ -0,0 +1,34 @@
+package graph;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random edge changes for tests that follow a graph as it changes.
+ */
+final class GraphChanges {
+    private GraphChanges() {
+    }
+
+    /**
+     * Connects, disconnects or reweights a random pair of distinct nodes, through the graph so
+     * that listeners are notified. Weights are drawn from [1, 10).
+     */
+    static void applyRandomChange(Graph<Integer> graph, Random random) {
+        List<Node<Integer>> nodes = graph.getNodes();
+        Node<Integer> fromNode = nodes.get(random.nextInt(nodes.size()));
+        Node<Integer> toNode = nodes.get(random.nextInt(nodes.size()));
+        if (fromNode == toNode) {
+            return;
+        }
+
+        double weight = 1.0 + 9.0 * random.nextDouble();
+        if (!fromNode.isConnectedTo(toNode)) {
+            graph.connect(fromNode, toNode, weight);
+        } else if (random.nextBoolean()) {
+            graph.disconnect(fromNode, toNode);
+        } else {
+            graph.updateEdgeWeight(fromNode, toNode, weight);
+        }
+    }
+}
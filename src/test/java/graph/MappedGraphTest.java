@@ -0,0 +1,92 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes snapshots to graph files and checks that mapping them back gives the same graph.
+ */
+class MappedGraphTest {
+    @TempDir
+    Path directory;
+
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void roundTripKeepsStructureAndNodeData(boolean directed) throws IOException {
+        Graph<Integer> graph = directed ? new DirectedGraph<>() : new UndirectedGraph<>();
+        Random random = new Random(12);
+        for (int i = 0; i < 300; i++) {
+            graph.addNode(random.nextInt(), "node " + i + (i % 7 == 0 ? " \u00e9" : ""));
+        }
+        for (int i = 0; i < 1500; i++) {
+            GraphChanges.applyRandomChange(graph, random);
+        }
+
+        CsrGraph<Integer> csr = graph.freeze();
+        Path file = directory.resolve("graph.bin");
+        MappedGraph.write(csr, file, NodeDataSerializer.integers());
+        MappedGraph<Integer> mapped = MappedGraph.open(file, NodeDataSerializer.integers());
+
+        assertEquals(csr.isDirected(), mapped.isDirected());
+        assertEquals(csr.nodeCount(), mapped.nodeCount());
+        assertEquals(csr.edgeCount(), mapped.edgeCount());
+        assertTrue(mapped.hasNodeData());
+        for (int node = 0; node < csr.nodeCount(); node++) {
+            assertEquals(csr.getNode(node).getName(), mapped.getName(node));
+            assertEquals(csr.getNode(node).getData(), mapped.getData(node));
+            assertEquals(csr.edgeStart(node), mapped.edgeStart(node));
+            assertEquals(csr.edgeEnd(node), mapped.edgeEnd(node));
+        }
+        for (int edge = 0; edge < csr.edgeCount(); edge++) {
+            assertEquals(csr.edgeTarget(edge), mapped.edgeTarget(edge));
+            assertEquals(csr.edgeWeight(edge), mapped.edgeWeight(edge));
+        }
+
+        for (int source = 0; source < csr.nodeCount(); source += 30) {
+            assertArrayEquals(algorithms.dijkstra(csr, source), algorithms.dijkstra(mapped, source));
+            assertArrayEquals(algorithms.bfs(csr, source), algorithms.bfs(mapped, source));
+        }
+    }
+
+    @Test
+    void fileWithoutNodeDataKeepsNames() throws IOException {
+        CsrGraph<Integer> csr = GraphGenerator.grid(20, 20).seed(13).weights(1.0, 3.0).csr(true);
+        Path file = directory.resolve("grid.bin");
+        MappedGraph.write(csr, file);
+        MappedGraph<Void> mapped = MappedGraph.open(file);
+
+        assertFalse(mapped.hasNodeData());
+        assertThrows(IllegalStateException.class, () -> mapped.getData(0));
+        for (int node = 0; node < csr.nodeCount(); node++) {
+            assertEquals(csr.getNode(node).getName(), mapped.getName(node));
+        }
+        assertArrayEquals(algorithms.dijkstra(csr, 0), algorithms.dijkstra(mapped, 0));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        CsrGraph<Integer> csr = GraphGenerator.grid(5, 5).csr(false);
+        Path file = directory.resolve("truncated.bin");
+        MappedGraph.write(csr, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+
+        assertThrows(IOException.class, () -> MappedGraph.open(file));
+    }
+}
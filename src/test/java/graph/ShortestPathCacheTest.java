@@ -0,0 +1,56 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks cached shortest path trees against Dijkstra's algorithm while the graph changes, so
+ * that every selective invalidation rule is exercised.
+ */
+class ShortestPathCacheTest {
+    private final GraphAlgorithms<Integer> algorithms = new GraphAlgorithms<>();
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void distancesMatchDijkstraAcrossChanges(boolean directed) {
+        Graph<Integer> graph = CsrGraphTest.randomGraph(directed, 8);
+        ShortestPathCache<Integer> cache = new ShortestPathCache<>(graph, 4);
+
+        Random random = new Random(8);
+        for (int step = 0; step < 400; step++) {
+            GraphChanges.applyRandomChange(graph, random);
+
+            Node<Integer> sourceNode = graph.getNode(random.nextInt(6));
+            Map<Node<Integer>, Double> expected = algorithms.dijkstra(graph, sourceNode);
+            for (Node<Integer> node : graph.getNodes()) {
+                assertEquals(expected.get(node), cache.distance(sourceNode, node));
+            }
+        }
+
+        assertTrue(cache.getHitCount() > 0);
+        assertTrue(cache.size() <= 4);
+        cache.close();
+    }
+
+    @Test
+    void cachedNodeBoundEvictsOldestTrees() {
+        Graph<Integer> graph = GraphGenerator.grid(10, 10).seed(9).undirected();
+        ShortestPathCache<Integer> cache = new ShortestPathCache<>(graph, 10, 250);
+
+        List<Node<Integer>> nodes = graph.getNodes();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(algorithms.dijkstra(graph, nodes.get(i)), cache.get(nodes.get(i)).getDistances());
+        }
+
+        assertEquals(2, cache.size());
+        cache.close();
+    }
+}